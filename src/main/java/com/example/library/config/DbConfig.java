@@ -106,11 +106,13 @@ public class DbConfig {
         record2.setBorrowDate(LocalDate.now());
         record2.setReturnDate(LocalDate.now().plusDays(14));
 
-        if (!borrowingRecordRepository.findByCustomerAndBookAndBorrowDate(customer1, book1, LocalDate.now()).isPresent()) {
+        if (!borrowingRecordRepository.existsByCustomerIdAndBookIdAndBorrowDate(customer1.getId(), book1.getId(), LocalDate.now())) {
             borrowingRecordRepository.save(record1);
+            book1.setAvailable(false);
         }
-        if (!borrowingRecordRepository.findByCustomerAndBookAndBorrowDate(customer2, book2, LocalDate.now()).isPresent()) {
+        if (!borrowingRecordRepository.existsByCustomerIdAndBookIdAndBorrowDate(customer2.getId(), book2.getId(), LocalDate.now())) {
             borrowingRecordRepository.save(record2);
+            book2.setAvailable(false);
         }
         return book1;
     }
@@ -0,0 +1,15 @@
+package com.example.library.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * {@code library.email-filter.*} sizing of the Bloom filter of registered customer emails.
+ *
+ * @param expectedEmails    number of emails the filter is sized for; beyond it the false-positive rate climbs
+ * @param falsePositiveRate share of unregistered emails that still need a database lookup at {@code expectedEmails}
+ */
+@ConfigurationProperties("library.email-filter")
+public record EmailFilterProperties(@DefaultValue("1000000") int expectedEmails,
+                                    @DefaultValue("0.01") double falsePositiveRate) {
+}
@@ -0,0 +1,78 @@
+package com.example.library.config;
+
+import com.example.library.model.Author;
+import com.example.library.model.Book;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Hibernate second-level cache regions, kept in Caffeine through JCache. Each region is created here with its
+ * bounds, so Hibernate is told to fail on any region it would otherwise create unbounded.
+ */
+@Configuration
+public class EntityCacheConfig {
+
+    static final List<String> REGIONS = List.of(Author.CACHE_REGION, Book.CACHE_REGION);
+
+    /**
+     * Every context gets its own manager; the provider hands out one per URI, and test contexts share the class loader.
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager entityCacheManager(EntityCacheProperties properties) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("urn:library:entity-cache:" + UUID.randomUUID()), getClass().getClassLoader());
+        OptionalLong ttl = OptionalLong.of(properties.expireAfterWrite().toNanos());
+        cacheManager.createCache(Author.CACHE_REGION, region(properties.maximumSize(), ttl));
+        cacheManager.createCache(Book.CACHE_REGION, region(properties.maximumSize(), ttl));
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheRegions(CacheManager entityCacheManager) {
+        return properties -> {
+            properties.put(ConfigSettings.CACHE_MANAGER, entityCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    /**
+     * Publishes each region as {@code cache.*} meters tagged {@code cache.manager=hibernate}, next to the Spring caches,
+     * plus its hit ratio as {@code cache.hit.ratio}.
+     */
+    @Bean
+    public MeterBinder entityCacheMetrics(CacheManager entityCacheManager) {
+        return registry -> REGIONS.forEach(region -> {
+            @SuppressWarnings("unchecked")
+            Cache<Object, Object> cache = entityCacheManager.getCache(region).unwrap(Cache.class);
+            Tags tags = Tags.of("cache.manager", "hibernate");
+            CaffeineCacheMetrics.monitor(registry, cache, region, tags);
+            Gauge.builder("cache.hit.ratio", cache, c -> c.stats().hitRate())
+                    .tags(tags.and("cache", region))
+                    .description("The ratio of cache lookups that found an entry")
+                    .register(registry);
+        });
+    }
+
+    private static CaffeineConfiguration<Object, Object> region(long maximumSize, OptionalLong ttl) {
+        return new CaffeineConfiguration<>()
+                .setMaximumSize(OptionalLong.of(maximumSize))
+                .setExpireAfterWrite(ttl)
+                .setNativeStatisticsEnabled(true);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.library.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * {@code library.entity-cache.*} settings for the Hibernate second-level cache regions.
+ *
+ * @param maximumSize      entries kept per entity region
+ * @param expireAfterWrite how long an entry lives before it is reloaded, even if nothing changed it
+ */
+@ConfigurationProperties("library.entity-cache")
+public record EntityCacheProperties(@DefaultValue("10000") long maximumSize,
+                                    @DefaultValue("10m") Duration expireAfterWrite) {
+}
@@ -0,0 +1,15 @@
+package com.example.library.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * {@code library.import.*} settings for bulk customer imports.
+ *
+ * @param batchSize         rows parsed, hashed and inserted together; bounds the memory an import holds at once
+ * @param maxReportedErrors rejected rows listed in the report; further rejections are only counted
+ */
+@ConfigurationProperties("library.import")
+public record ImportProperties(@DefaultValue("500") int batchSize,
+                               @DefaultValue("1000") int maxReportedErrors) {
+}
@@ -0,0 +1,13 @@
+package com.example.library.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * {@code library.loans.*} settings.
+ *
+ * @param maxPerCustomer how many books one customer may have on loan at the same time
+ */
+@ConfigurationProperties("library.loans")
+public record LoanProperties(@DefaultValue("5") int maxPerCustomer) {
+}
@@ -0,0 +1,23 @@
+package com.example.library.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * {@code library.password.*} settings for password hashing.
+ *
+ * @param cost          BCrypt log2 work factor; each step doubles the time per hash
+ * @param threads       hashes computed at the same time
+ * @param queueCapacity hashes waiting for a thread before new signups are turned away
+ * @param retryAfter    how long a turned-away client is told to wait before retrying
+ * @param bulkThreads   threads hashing the passwords of a bulk import; 0 means one per core
+ */
+@ConfigurationProperties("library.password")
+public record PasswordProperties(@DefaultValue("10") int cost,
+                                 @DefaultValue("2") int threads,
+                                 @DefaultValue("32") int queueCapacity,
+                                 @DefaultValue("1s") Duration retryAfter,
+                                 @DefaultValue("0") int bulkThreads) {
+}
@@ -0,0 +1,17 @@
+package com.example.library.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * {@code library.purge.*} settings for the background purge of a deleted book's or customer's history.
+ *
+ * @param chunkSize     borrowing records deleted per transaction
+ * @param threads       purges running at the same time
+ * @param queueCapacity purges waiting for a thread before the deleting request runs its purge itself
+ */
+@ConfigurationProperties("library.purge")
+public record PurgeProperties(@DefaultValue("1000") int chunkSize,
+                              @DefaultValue("2") int threads,
+                              @DefaultValue("1000") int queueCapacity) {
+}
@@ -0,0 +1,19 @@
+package com.example.library.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * {@code library.stream.*} settings for the change stream.
+ *
+ * @param bufferSize      events buffered per subscriber before it is dropped as too slow
+ * @param dispatchThreads threads writing buffered events to subscribers
+ * @param timeout         how long a subscription stays open before the client has to reconnect
+ */
+@ConfigurationProperties("library.stream")
+public record StreamProperties(@DefaultValue("256") int bufferSize,
+                               @DefaultValue("4") int dispatchThreads,
+                               @DefaultValue("30m") Duration timeout) {
+}
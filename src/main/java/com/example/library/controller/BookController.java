@@ -1,7 +1,12 @@
 package com.example.library.controller;
 
+import com.example.library.dto.AvailabilitySummary;
+import com.example.library.dto.BatchCreateResponse;
+import com.example.library.dto.BookSearchCriteria;
+import com.example.library.dto.BookSummary;
 import com.example.library.model.Book;
 import com.example.library.service.BookService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -11,12 +16,18 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.LinkRelation;
 import org.springframework.hateoas.server.mvc.WebMvcLinkBuilder;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -27,20 +38,78 @@ import java.util.stream.Collectors;
 @Tag(name = "Book Controller", description = "API for managing books")
 public class BookController {
 
+    static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 1000;
+    private static final int STREAM_BATCH_SIZE = 500;
+
     private final BookService bookService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
-    @Operation(summary = "Get all books", description = "Retrieve a list of all books")
+    @Operation(summary = "Get all books", description = "Retrieve a list of all books, or one page of them when after or limit is given; available filters by availability")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved list",
-                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = Book.class))))
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = BookSummary.class)))),
+            @ApiResponse(responseCode = "400", description = "Invalid page cursor or limit")
     })
-    public ResponseEntity<?> getAllBooks() {
-        List<Book> books = bookService.getAllBooks();
-        List<EntityModel<Book>> bookModels = books.stream()
-                .map(this::toBookModel)
+    public ResponseEntity<?> getAllBooks(@RequestParam Optional<Long> after,
+                                         @RequestParam Optional<Integer> limit,
+                                         @RequestParam Optional<Boolean> available,
+                                         @RequestParam Optional<String> links) {
+        LinkMode linkMode = links.map(LinkMode::from).orElse(LinkMode.FULL);
+        EntityLinks bookLinks = bookLinks();
+        if (after.isEmpty() && limit.isEmpty()) {
+            List<BookSummary> books = available.map(bookService::getBooksByAvailability).orElseGet(bookService::getAllBooks);
+            List<EntityModel<BookSummary>> bookModels = books.stream()
+                    .map(book -> bookLinks.toModel(book, book.id(), linkMode))
+                    .collect(Collectors.toList());
+            return ResponseEntity.ok(bookModels);
+        }
+
+        long cursor = after.orElse(0L);
+        int pageSize = limit.orElse(DEFAULT_PAGE_SIZE);
+        if (cursor < 0 || pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        List<BookSummary> books = available.isPresent()
+                ? bookService.getBooksAfter(cursor, pageSize, available.get())
+                : bookService.getBooksAfter(cursor, pageSize);
+        List<EntityModel<BookSummary>> bookModels = books.stream()
+                .map(book -> bookLinks.toModel(book, book.id(), linkMode))
                 .collect(Collectors.toList());
-        return ResponseEntity.ok(bookModels);
+        CollectionModel<EntityModel<BookSummary>> page = CollectionModel.of(bookModels,
+                WebMvcLinkBuilder.linkTo(WebMvcLinkBuilder.methodOn(BookController.class).getAllBooks(Optional.of(cursor), Optional.of(pageSize), available, links)).withSelfRel().expand());
+        if (books.size() == pageSize) {
+            Long lastId = books.get(books.size() - 1).id();
+            page.add(WebMvcLinkBuilder.linkTo(WebMvcLinkBuilder.methodOn(BookController.class).getAllBooks(Optional.of(lastId), Optional.of(pageSize), available, links)).withRel(IanaLinkRelations.NEXT).expand());
+        }
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping(produces = APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream all books", description = "Stream every book as newline-delimited JSON, in id order")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully streamed books")
+    })
+    public ResponseEntity<StreamingResponseBody> streamAllBooks() {
+        StreamingResponseBody body = out -> {
+            long after = 0L;
+            List<BookSummary> batch;
+            do {
+                batch = bookService.getBooksAfter(after, STREAM_BATCH_SIZE);
+                for (BookSummary book : batch) {
+                    out.write(objectMapper.writeValueAsBytes(book));
+                    out.write('\n');
+                    after = book.id();
+                }
+                out.flush();
+            } while (batch.size() == STREAM_BATCH_SIZE);
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+                .body(body);
     }
 
     @Operation(summary = "Get book by ID", description = "Retrieve a specific book by its ID")
@@ -72,6 +141,18 @@ public class BookController {
                 .body(toBookModel(createdBook));
     }
 
+    @Operation(summary = "Create several books", description = "Create up to 10,000 books in one transaction, inserted in JDBC batches")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully created every book",
+                    content = @Content(schema = @Schema(implementation = BatchCreateResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid input; no book was created")
+    })
+    @PostMapping(value = "/batch", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BatchCreateResponse> createBooks(@RequestBody List<Book> books) {
+        List<Long> ids = bookService.createBooks(books).stream().map(Book::getId).toList();
+        return ResponseEntity.ok(new BatchCreateResponse(ids.size(), ids));
+    }
+
     @Operation(summary = "Update an existing book", description = "Update an existing book by its ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully updated book",
@@ -91,57 +172,74 @@ public class BookController {
 
     @Operation(summary = "Delete a book", description = "Delete a book by its ID")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "204", description = "Successfully deleted book"),
+            @ApiResponse(responseCode = "202", description = "Deletion accepted; the book's history is purged in the background"),
             @ApiResponse(responseCode = "404", description = "Book not found")
     })
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteBook(@PathVariable Long id) {
         if (bookService.deleteBook(id)) {
-            return ResponseEntity.noContent().build();
+            return ResponseEntity.accepted().build();
         } else {
             return ResponseEntity.notFound().build();
         }
     }
 
-    @Operation(summary = "Search books", description = "Search books by title, author, or ISBN")
+    @Operation(summary = "Search books", description = "Search books by any combination of title, author, ISBN, genre and publication date range")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved books",
-                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = Book.class))))
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = BookSummary.class)))),
+            @ApiResponse(responseCode = "400", description = "No search criteria or an invalid date range")
     })
     @GetMapping(value = "/search", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<List<EntityModel<Book>>> searchBooks(@RequestParam Optional<String> title,
+    public ResponseEntity<List<EntityModel<BookSummary>>> searchBooks(@RequestParam Optional<String> title,
                                                                @RequestParam Optional<String> author,
-                                                               @RequestParam Optional<String> isbn) {
-        List<Book> books;
-
-        if ((title.isEmpty() && isbn.isEmpty() && author.isEmpty()) || (title.isPresent() ? 1 : 0) + (author.isPresent() ? 1 : 0) + (isbn.isPresent() ? 1 : 0) != 1) {
+                                                               @RequestParam Optional<String> isbn,
+                                                               @RequestParam Optional<String> genre,
+                                                               @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Optional<LocalDate> publishedFrom,
+                                                               @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Optional<LocalDate> publishedTo,
+                                                               @RequestParam Optional<Boolean> available,
+                                                               @RequestParam Optional<String> links) {
+        LinkMode linkMode = links.map(LinkMode::from).orElse(LinkMode.FULL);
+        BookSearchCriteria criteria = new BookSearchCriteria(title.orElse(null), author.orElse(null), isbn.orElse(null),
+                genre.orElse(null), publishedFrom.orElse(null), publishedTo.orElse(null), available.orElse(null));
+
+        if (criteria.isEmpty()) {
             return ResponseEntity.badRequest().build();
         }
-
-        if (title.isPresent()) {
-            books = bookService.searchBooksByTitle(title.get());
-        } else if (author.isPresent()) {
-            books = bookService.searchBooksByAuthor(author.get());
-        } else if (isbn.isPresent()) {
-            books = bookService.searchBooksByIsbn(isbn.get());
-        } else {
+        if (publishedFrom.isPresent() && publishedTo.isPresent() && publishedFrom.get().isAfter(publishedTo.get())) {
             return ResponseEntity.badRequest().build();
         }
 
-        List<EntityModel<Book>> bookModels = books.stream()
-                .map(this::toBookModel)
+        EntityLinks bookLinks = bookLinks();
+        List<EntityModel<BookSummary>> bookModels = bookService.searchBooks(criteria).stream()
+                .map(book -> bookLinks.toModel(book, book.id(), linkMode))
                 .collect(Collectors.toList());
         return ResponseEntity.ok(bookModels);
     }
 
-    private EntityModel<Book> toBookModel(Book book) {
-        return EntityModel.of(book,
-                WebMvcLinkBuilder.linkTo(WebMvcLinkBuilder.methodOn(BookController.class).getBookById(book.getId())).withSelfRel(),
-                WebMvcLinkBuilder.linkTo(WebMvcLinkBuilder.methodOn(BookController.class).getAllBooks()).withRel("books"),
-                WebMvcLinkBuilder.linkTo(WebMvcLinkBuilder.methodOn(BookController.class).updateBook(book.getId(), book)).withRel("update"),
-                WebMvcLinkBuilder.linkTo(WebMvcLinkBuilder.methodOn(BookController.class).deleteBook(book.getId())).withRel("delete"),
-                WebMvcLinkBuilder.linkTo(WebMvcLinkBuilder.methodOn(BookController.class).searchBooks(Optional.empty(), Optional.empty(), Optional.empty())).withRel("search"));
+    @Operation(summary = "Count available books", description = "Total and available book counts, overall and per genre, or for a single genre")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved counts",
+                    content = @Content(schema = @Schema(implementation = AvailabilitySummary.class)))
+    })
+    @GetMapping(value = "/availability", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getAvailability(@RequestParam Optional<String> genre) {
+        if (genre.isPresent()) {
+            return ResponseEntity.ok(bookService.getAvailabilityCounts(genre.get()));
+        }
+        return ResponseEntity.ok(bookService.getAvailabilitySummary());
     }
 
+    private EntityModel<Book> toBookModel(Book book) {
+        return bookLinks().toModel(book, book.getId(), LinkMode.FULL);
+    }
 
+    static EntityLinks bookLinks() {
+        return new EntityLinks(List.of(
+                LinkTemplate.forId(id -> WebMvcLinkBuilder.methodOn(BookController.class).getBookById(id), IanaLinkRelations.SELF),
+                LinkTemplate.constant(WebMvcLinkBuilder.linkTo(WebMvcLinkBuilder.methodOn(BookController.class).getAllBooks(Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty())).withRel("books")),
+                LinkTemplate.forId(id -> WebMvcLinkBuilder.methodOn(BookController.class).updateBook(id, null), LinkRelation.of("update")),
+                LinkTemplate.forId(id -> WebMvcLinkBuilder.methodOn(BookController.class).deleteBook(id), LinkRelation.of("delete")),
+                LinkTemplate.constant(WebMvcLinkBuilder.linkTo(WebMvcLinkBuilder.methodOn(BookController.class).searchBooks(Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty())).withRel("search"))));
+    }
 }
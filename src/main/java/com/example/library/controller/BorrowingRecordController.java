@@ -1,7 +1,14 @@
 package com.example.library.controller;
 
+import com.example.library.dto.BatchBorrowRequest;
+import com.example.library.dto.BatchBorrowResponse;
+import com.example.library.dto.BatchReturnRequest;
+import com.example.library.dto.BatchReturnResponse;
+import com.example.library.dto.BorrowingSummary;
+import com.example.library.dto.OverdueLoan;
 import com.example.library.model.BorrowingRecord;
 import com.example.library.service.BorrowingRecordService;
+import com.example.library.service.OverdueLoanMonitor;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -10,12 +17,16 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.LinkRelation;
 import org.springframework.hateoas.server.mvc.WebMvcLinkBuilder;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -28,17 +39,20 @@ import java.util.stream.Collectors;
 public class BorrowingRecordController {
 
     private final BorrowingRecordService borrowingRecordService;
+    private final OverdueLoanMonitor overdueLoanMonitor;
 
     @Operation(summary = "Get all borrowing records", description = "Retrieve a list of all borrowing records")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved list",
-                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = BorrowingRecord.class))))
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = BorrowingSummary.class))))
     })
     @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<List<EntityModel<BorrowingRecord>>> getAllBorrowingRecords() {
-        List<BorrowingRecord> borrowingRecords = borrowingRecordService.getAllBorrowingRecords();
-        List<EntityModel<BorrowingRecord>> borrowingRecordModels = borrowingRecords.stream()
-                .map(this::toBorrowingRecordModel)
+    public ResponseEntity<List<EntityModel<BorrowingSummary>>> getAllBorrowingRecords(@RequestParam Optional<String> links) {
+        LinkMode linkMode = links.map(LinkMode::from).orElse(LinkMode.FULL);
+        EntityLinks borrowingRecordLinks = borrowingRecordLinks();
+        List<BorrowingSummary> borrowingRecords = borrowingRecordService.getAllBorrowingRecords();
+        List<EntityModel<BorrowingSummary>> borrowingRecordModels = borrowingRecords.stream()
+                .map(borrowingRecord -> borrowingRecordLinks.toModel(borrowingRecord, borrowingRecord.id(), linkMode))
                 .collect(Collectors.toList());
         return ResponseEntity.ok(borrowingRecordModels);
     }
@@ -57,6 +71,16 @@ public class BorrowingRecordController {
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    @Operation(summary = "Get overdue loans", description = "List open loans past their return date, earliest due first, served from memory")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved overdue loans",
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = OverdueLoan.class))))
+    })
+    @GetMapping(value = "/overdue", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<OverdueLoan>> getOverdueLoans() {
+        return ResponseEntity.ok(overdueLoanMonitor.getOverdueLoans());
+    }
+
     @Operation(summary = "Create a new borrowing record", description = "Create a new borrowing record")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully created borrowing record",
@@ -69,6 +93,46 @@ public class BorrowingRecordController {
         return ResponseEntity.ok(toBorrowingRecordModel(createdBorrowingRecord));
     }
 
+    @Operation(summary = "Borrow several books", description = "Borrow a list of books for one customer in a single transaction, with a result per book")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Processed every requested book",
+                    content = @Content(schema = @Schema(implementation = BatchBorrowResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid input"),
+            @ApiResponse(responseCode = "404", description = "Customer not found")
+    })
+    @PostMapping(value = "/batch", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BatchBorrowResponse> borrowBooks(@RequestBody BatchBorrowRequest request) {
+        return ResponseEntity.ok(borrowingRecordService.borrowBooks(request));
+    }
+
+    @Operation(summary = "Return a borrowed book", description = "Close a borrowing record and make its book available again")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully returned the book",
+                    content = @Content(schema = @Schema(implementation = BorrowingRecord.class))),
+            @ApiResponse(responseCode = "404", description = "Borrowing record not found"),
+            @ApiResponse(responseCode = "409", description = "Borrowing record already returned"),
+            @ApiResponse(responseCode = "400", description = "Invalid input")
+    })
+    @PostMapping(value = "/{id}/return", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<EntityModel<BorrowingRecord>> returnBorrowingRecord(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Optional<LocalDate> returnedOn) {
+        return borrowingRecordService.returnBorrowingRecord(id, returnedOn.orElse(null))
+                .map(value -> ResponseEntity.ok(toBorrowingRecordModel(value)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @Operation(summary = "Return several books", description = "Close the open loans of a list of books in one transaction")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Returned every book that was on loan",
+                    content = @Content(schema = @Schema(implementation = BatchReturnResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid input")
+    })
+    @PostMapping(value = "/returns", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BatchReturnResponse> returnBooks(@RequestBody BatchReturnRequest request) {
+        return ResponseEntity.ok(borrowingRecordService.returnBooks(request));
+    }
+
     @Operation(summary = "Update an existing borrowing record", description = "Update an existing borrowing record by its ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully updated borrowing record",
@@ -89,6 +153,7 @@ public class BorrowingRecordController {
     @Operation(summary = "Delete a borrowing record", description = "Delete a borrowing record by its ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "204", description = "Successfully deleted borrowing record"),
+            @ApiResponse(responseCode = "400", description = "Loan still open or not yet due"),
             @ApiResponse(responseCode = "404", description = "Borrowing record not found")
     })
     @DeleteMapping("/{id}")
@@ -100,41 +165,54 @@ public class BorrowingRecordController {
         }
     }
 
-    @Operation(summary = "Search borrowing records", description = "Search for borrowing records by user ID or book ID")
+    @Operation(summary = "Search borrowing records", description = "Search for borrowing records by user ID or book ID, optionally only open loans")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved borrowing records",
-                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = BorrowingRecord.class)))),
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = BorrowingSummary.class)))),
             @ApiResponse(responseCode = "400", description = "Invalid input")
     })
     @GetMapping(value = "/search", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<?> searchBorrowingRecords(
             @RequestParam Optional<Long> userId,
-            @RequestParam Optional<Long> bookId) {
-        List<BorrowingRecord> borrowingRecords;
+            @RequestParam Optional<Long> bookId,
+            @RequestParam Optional<Boolean> active,
+            @RequestParam Optional<String> links) {
+        LinkMode linkMode = links.map(LinkMode::from).orElse(LinkMode.FULL);
+        List<BorrowingSummary> borrowingRecords;
         if ((userId.isEmpty() && bookId.isEmpty()) || (userId.isPresent() && bookId.isPresent())) {
             return ResponseEntity.badRequest().build();
         }
 
+        boolean activeOnly = active.orElse(false);
         if (userId.isPresent()) {
-            borrowingRecords = borrowingRecordService.findBorrowingRecordsByUserId(userId.get());
+            borrowingRecords = activeOnly
+                    ? borrowingRecordService.findActiveBorrowingRecordsByUserId(userId.get())
+                    : borrowingRecordService.findBorrowingRecordsByUserId(userId.get());
         } else if (bookId.isPresent()) {
-            borrowingRecords = borrowingRecordService.findBorrowingRecordsByBookId(bookId.get());
+            borrowingRecords = activeOnly
+                    ? borrowingRecordService.findActiveBorrowingRecordsByBookId(bookId.get())
+                    : borrowingRecordService.findBorrowingRecordsByBookId(bookId.get());
         } else {
             return ResponseEntity.badRequest().build();
         }
-        List<EntityModel<BorrowingRecord>> borrowingRecordModels = borrowingRecords.stream()
-                .map(this::toBorrowingRecordModel)
+        EntityLinks borrowingRecordLinks = borrowingRecordLinks();
+        List<EntityModel<BorrowingSummary>> borrowingRecordModels = borrowingRecords.stream()
+                .map(borrowingRecord -> borrowingRecordLinks.toModel(borrowingRecord, borrowingRecord.id(), linkMode))
                 .collect(Collectors.toList());
         return ResponseEntity.ok(borrowingRecordModels);
     }
 
     private EntityModel<BorrowingRecord> toBorrowingRecordModel(BorrowingRecord borrowingRecord) {
-        return EntityModel.of(borrowingRecord,
-                WebMvcLinkBuilder.linkTo(WebMvcLinkBuilder.methodOn(BorrowingRecordController.class).getBorrowingRecordById(borrowingRecord.getId())).withSelfRel(),
-                WebMvcLinkBuilder.linkTo(WebMvcLinkBuilder.methodOn(BorrowingRecordController.class).getAllBorrowingRecords()).withRel("all"),
-                WebMvcLinkBuilder.linkTo(WebMvcLinkBuilder.methodOn(BorrowingRecordController.class).updateBorrowingRecord(borrowingRecord.getId(), borrowingRecord)).withRel("update"),
-                WebMvcLinkBuilder.linkTo(WebMvcLinkBuilder.methodOn(BorrowingRecordController.class).deleteBorrowingRecord(borrowingRecord.getId())).withRel("delete"),
-                WebMvcLinkBuilder.linkTo(WebMvcLinkBuilder.methodOn(BorrowingRecordController.class).searchBorrowingRecords(Optional.empty(), Optional.empty())).withRel("search"));
+        return borrowingRecordLinks().toModel(borrowingRecord, borrowingRecord.getId(), LinkMode.FULL);
+    }
+
+    static EntityLinks borrowingRecordLinks() {
+        return new EntityLinks(List.of(
+                LinkTemplate.forId(id -> WebMvcLinkBuilder.methodOn(BorrowingRecordController.class).getBorrowingRecordById(id), IanaLinkRelations.SELF),
+                LinkTemplate.constant(WebMvcLinkBuilder.linkTo(WebMvcLinkBuilder.methodOn(BorrowingRecordController.class).getAllBorrowingRecords(Optional.empty())).withRel("all")),
+                LinkTemplate.forId(id -> WebMvcLinkBuilder.methodOn(BorrowingRecordController.class).updateBorrowingRecord(id, null), LinkRelation.of("update")),
+                LinkTemplate.forId(id -> WebMvcLinkBuilder.methodOn(BorrowingRecordController.class).deleteBorrowingRecord(id), LinkRelation.of("delete")),
+                LinkTemplate.constant(WebMvcLinkBuilder.linkTo(WebMvcLinkBuilder.methodOn(BorrowingRecordController.class).searchBorrowingRecords(Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty())).withRel("search"))));
     }
 
 }
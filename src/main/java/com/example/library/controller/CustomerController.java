@@ -1,6 +1,9 @@
 package com.example.library.controller;
 
+import com.example.library.dto.CustomerImportReport;
+import com.example.library.dto.EmailAvailability;
 import com.example.library.model.Customer;
+import com.example.library.service.CustomerImporter;
 import com.example.library.service.CustomerService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -13,10 +16,13 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.server.mvc.WebMvcLinkBuilder;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -27,7 +33,11 @@ import java.util.stream.Collectors;
 @Tag(name = "Customer Controller", description = "API for managing customers")
 public class CustomerController {
 
+    private static final String CSV_VALUE = "text/csv";
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+
     private final CustomerService customerService;
+    private final CustomerImporter customerImporter;
 
     @Operation(summary = "Get all customers", description = "Retrieve a list of all customers")
     @ApiResponses(value = {
@@ -43,6 +53,17 @@ public class CustomerController {
         return ResponseEntity.ok(customerModels);
     }
 
+    @Operation(summary = "Check whether an email is free", description = "Tell the signup form whether an email can still be registered")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Availability of the email",
+                    content = @Content(schema = @Schema(implementation = EmailAvailability.class))),
+            @ApiResponse(responseCode = "400", description = "No email given")
+    })
+    @GetMapping(value = "/email-available", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<EmailAvailability> isEmailAvailable(@RequestParam String email) {
+        return ResponseEntity.ok(new EmailAvailability(email, customerService.isEmailAvailable(email)));
+    }
+
     @Operation(summary = "Get customer by ID", description = "Retrieve a specific customer by their ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved customer",
@@ -69,6 +90,23 @@ public class CustomerController {
         return ResponseEntity.ok(toCustomerModel(createdCustomer));
     }
 
+    @Operation(summary = "Import customers", description = "Create customers in bulk from a CSV file with a header row "
+            + "(name, email, address, phoneNumber, password) or from NDJSON, one customer object per line. "
+            + "Invalid rows are reported and skipped; the rest of the file is imported")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import finished; the report lists rejected rows",
+                    content = @Content(schema = @Schema(implementation = CustomerImportReport.class))),
+            @ApiResponse(responseCode = "400", description = "Missing or invalid CSV header"),
+            @ApiResponse(responseCode = "415", description = "Body is neither text/csv nor application/x-ndjson")
+    })
+    @PostMapping(value = "/import", consumes = {CSV_VALUE, NDJSON_VALUE}, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<CustomerImportReport> importCustomers(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                                InputStream body) throws IOException {
+        CustomerImporter.Format format = MediaType.valueOf(CSV_VALUE).isCompatibleWith(contentType)
+                ? CustomerImporter.Format.CSV : CustomerImporter.Format.NDJSON;
+        return ResponseEntity.ok(customerImporter.importCustomers(body, format));
+    }
+
     @Operation(summary = "Update an existing customer", description = "Update an existing customer by their ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully updated customer",
@@ -86,13 +124,13 @@ public class CustomerController {
 
     @Operation(summary = "Delete a customer", description = "Delete a customer by their ID")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "204", description = "Successfully deleted customer"),
+            @ApiResponse(responseCode = "202", description = "Deletion accepted; the customer's history is purged in the background"),
             @ApiResponse(responseCode = "404", description = "Customer not found")
     })
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteCustomer(@PathVariable Long id) {
         if (customerService.deleteCustomer(id)) {
-            return ResponseEntity.noContent().build();
+            return ResponseEntity.accepted().build();
         } else {
             return ResponseEntity.notFound().build();
         }
@@ -0,0 +1,35 @@
+package com.example.library.controller;
+
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.Link;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The links of one entity type, resolved for the current request. The first template is the self link,
+ * which is the only one kept in {@link LinkMode#COMPACT} mode.
+ */
+final class EntityLinks {
+
+    private final List<LinkTemplate> templates;
+
+    EntityLinks(List<LinkTemplate> templates) {
+        this.templates = templates;
+    }
+
+    <T> EntityModel<T> toModel(T entity, Long id, LinkMode mode) {
+        switch (mode) {
+            case NONE:
+                return EntityModel.of(entity);
+            case COMPACT:
+                return EntityModel.of(entity, templates.get(0).expand(id));
+            default:
+                List<Link> links = new ArrayList<>(templates.size());
+                for (LinkTemplate template : templates) {
+                    links.add(template.expand(id));
+                }
+                return EntityModel.of(entity, links);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.library.controller;
+
+import com.example.library.dto.HoldRequest;
+import com.example.library.index.HoldEntry;
+import com.example.library.model.Hold;
+import com.example.library.service.HoldService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/holds")
+@RequiredArgsConstructor
+@Tag(name = "Hold Controller", description = "API for queueing customers for borrowed books")
+
+public class HoldController {
+
+    private final HoldService holdService;
+
+    @Operation(summary = "Place a hold", description = "Queue a customer for a book that is currently borrowed. The hold becomes a borrowing record when the book is returned")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully placed hold",
+                    content = @Content(schema = @Schema(implementation = Hold.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid input or book is available"),
+            @ApiResponse(responseCode = "404", description = "Customer or book not found"),
+            @ApiResponse(responseCode = "409", description = "Customer already has a hold on this book")
+    })
+    @PostMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Hold> placeHold(@RequestBody HoldRequest request) {
+        return ResponseEntity.ok(holdService.placeHold(request.customerId(), request.bookId()));
+    }
+
+    @Operation(summary = "Get holds on a book", description = "List the holds on a book in the order they will be promoted")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved holds",
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = HoldEntry.class))))
+    })
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<HoldEntry>> getHolds(@RequestParam Long bookId) {
+        return ResponseEntity.ok(holdService.getHolds(bookId));
+    }
+
+    @Operation(summary = "Cancel a hold", description = "Remove a hold from its book's queue")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Successfully cancelled hold"),
+            @ApiResponse(responseCode = "404", description = "Hold not found")
+    })
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> cancelHold(@PathVariable Long id) {
+        if (holdService.cancelHold(id)) {
+            return ResponseEntity.noContent().build();
+        } else {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
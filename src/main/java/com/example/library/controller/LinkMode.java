@@ -0,0 +1,17 @@
+package com.example.library.controller;
+
+import java.util.Locale;
+
+public enum LinkMode {
+    FULL,
+    COMPACT,
+    NONE;
+
+    public static LinkMode from(String value) {
+        try {
+            return LinkMode.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("links must be one of full, compact or none");
+        }
+    }
+}
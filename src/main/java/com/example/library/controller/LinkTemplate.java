@@ -0,0 +1,49 @@
+package com.example.library.controller;
+
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.LinkRelation;
+import org.springframework.hateoas.server.mvc.WebMvcLinkBuilder;
+
+import java.util.function.LongFunction;
+
+/**
+ * A link whose href is resolved once through {@link WebMvcLinkBuilder} with a placeholder id,
+ * so expanding it for each entity is a string concatenation instead of a proxy invocation and URI build.
+ */
+final class LinkTemplate {
+
+    private static final long PLACEHOLDER = Long.MIN_VALUE;
+    private static final String PLACEHOLDER_TEXT = Long.toString(PLACEHOLDER);
+
+    private final LinkRelation rel;
+    private final String prefix;
+    private final String suffix;
+    private final Link constant;
+
+    private LinkTemplate(LinkRelation rel, String prefix, String suffix, Link constant) {
+        this.rel = rel;
+        this.prefix = prefix;
+        this.suffix = suffix;
+        this.constant = constant;
+    }
+
+    static LinkTemplate forId(LongFunction<Object> invocation, LinkRelation rel) {
+        String href = WebMvcLinkBuilder.linkTo(invocation.apply(PLACEHOLDER)).withRel(rel).getHref();
+        int at = href.indexOf(PLACEHOLDER_TEXT);
+        if (at < 0) {
+            throw new IllegalStateException("Link for " + rel + " does not contain the entity id: " + href);
+        }
+        return new LinkTemplate(rel, href.substring(0, at), href.substring(at + PLACEHOLDER_TEXT.length()), null);
+    }
+
+    static LinkTemplate constant(Link link) {
+        return new LinkTemplate(link.getRel(), null, null, link);
+    }
+
+    Link expand(Long id) {
+        if (constant != null) {
+            return constant;
+        }
+        return Link.of(prefix + id + suffix, rel);
+    }
+}
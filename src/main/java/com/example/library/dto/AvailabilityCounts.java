@@ -0,0 +1,4 @@
+package com.example.library.dto;
+
+public record AvailabilityCounts(long total, long available) {
+}
@@ -0,0 +1,6 @@
+package com.example.library.dto;
+
+import java.util.Map;
+
+public record AvailabilitySummary(long total, long available, Map<String, AvailabilityCounts> genres) {
+}
@@ -0,0 +1,10 @@
+package com.example.library.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record BatchBorrowRequest(Long customerId,
+                                 List<Long> bookIds,
+                                 LocalDate borrowDate,
+                                 LocalDate returnDate) {
+}
@@ -0,0 +1,6 @@
+package com.example.library.dto;
+
+import java.util.List;
+
+public record BatchBorrowResponse(Long customerId, int borrowed, List<BatchBorrowResult> results) {
+}
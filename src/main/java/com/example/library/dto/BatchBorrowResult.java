@@ -0,0 +1,13 @@
+package com.example.library.dto;
+
+public record BatchBorrowResult(Long bookId, Status status, Long borrowingRecordId) {
+
+    public enum Status {
+        BORROWED,
+        BOOK_NOT_FOUND,
+        ALREADY_BORROWED,
+        ALREADY_EXISTS,
+        BORROW_LIMIT_REACHED,
+        DUPLICATE_IN_REQUEST
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.library.dto;
+
+import java.util.List;
+
+public record BatchCreateResponse(int created, List<Long> ids) {
+}
@@ -0,0 +1,7 @@
+package com.example.library.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record BatchReturnRequest(List<Long> bookIds, LocalDate returnedOn) {
+}
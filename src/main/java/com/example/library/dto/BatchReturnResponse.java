@@ -0,0 +1,6 @@
+package com.example.library.dto;
+
+import java.util.List;
+
+public record BatchReturnResponse(int returned, List<Long> notOnLoan) {
+}
@@ -0,0 +1,49 @@
+package com.example.library.dto;
+
+import java.time.LocalDate;
+
+public record BookSearchCriteria(String title,
+                                 String author,
+                                 String isbn,
+                                 String genre,
+                                 LocalDate publishedFrom,
+                                 LocalDate publishedTo,
+                                 Boolean available) {
+
+    public BookSearchCriteria(String title, String author, String isbn, String genre,
+                              LocalDate publishedFrom, LocalDate publishedTo) {
+        this(title, author, isbn, genre, publishedFrom, publishedTo, null);
+    }
+
+    public boolean hasTitle() {
+        return hasText(title);
+    }
+
+    public boolean hasAuthor() {
+        return hasText(author);
+    }
+
+    public boolean hasIsbn() {
+        return hasText(isbn);
+    }
+
+    public boolean hasGenre() {
+        return hasText(genre);
+    }
+
+    public boolean hasPublicationRange() {
+        return publishedFrom != null || publishedTo != null;
+    }
+
+    public boolean hasAvailability() {
+        return available != null;
+    }
+
+    public boolean isEmpty() {
+        return !hasTitle() && !hasAuthor() && !hasIsbn() && !hasGenre() && !hasPublicationRange() && !hasAvailability();
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+}
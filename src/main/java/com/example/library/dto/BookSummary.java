@@ -0,0 +1,22 @@
+package com.example.library.dto;
+
+import org.springframework.hateoas.server.core.Relation;
+
+import java.time.LocalDate;
+
+/**
+ * Read model for book lists and search results. Built straight from a JPQL constructor expression, so listing books
+ * loads no managed entities and only the author's id and name rather than the whole author.
+ */
+@Relation(itemRelation = "book", collectionRelation = "bookList")
+public record BookSummary(Long id, String title, AuthorRef author, String isbn, LocalDate publicationDate,
+                          String genre, boolean available) {
+
+    public BookSummary(Long id, String title, Long authorId, String authorName, String isbn,
+                       LocalDate publicationDate, String genre, boolean available) {
+        this(id, title, authorId == null ? null : new AuthorRef(authorId, authorName), isbn, publicationDate, genre, available);
+    }
+
+    public record AuthorRef(Long id, String name) {
+    }
+}
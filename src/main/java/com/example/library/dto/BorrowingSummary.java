@@ -0,0 +1,25 @@
+package com.example.library.dto;
+
+import org.springframework.hateoas.server.core.Relation;
+
+import java.time.LocalDate;
+
+/**
+ * Read model for borrowing record lists and searches. Carries the customer's and book's identifying fields only, so
+ * listings no longer serialize customer addresses and password hashes or load any managed entity.
+ */
+@Relation(itemRelation = "borrowingRecord", collectionRelation = "borrowingRecordList")
+public record BorrowingSummary(Long id, CustomerRef customer, BookRef book, LocalDate borrowDate, LocalDate returnDate,
+                               LocalDate returnedOn) {
+
+    public BorrowingSummary(Long id, Long customerId, String customerName, Long bookId, String bookTitle, String isbn,
+                            LocalDate borrowDate, LocalDate returnDate, LocalDate returnedOn) {
+        this(id, new CustomerRef(customerId, customerName), new BookRef(bookId, bookTitle, isbn), borrowDate, returnDate, returnedOn);
+    }
+
+    public record CustomerRef(Long id, String name) {
+    }
+
+    public record BookRef(Long id, String title, String isbn) {
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.library.dto;
+
+import java.time.Instant;
+
+/**
+ * One entry of the change stream. Fields that do not apply to the type are null.
+ */
+public record ChangeEvent(Type type, Long bookId, Long borrowingRecordId, Long customerId, Boolean available, Instant at) {
+
+    public enum Type {
+        AVAILABILITY,
+        LOAN_CREATED,
+        LOAN_RETURNED,
+        BOOK_DELETED
+    }
+}
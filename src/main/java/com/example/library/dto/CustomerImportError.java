@@ -0,0 +1,4 @@
+package com.example.library.dto;
+
+public record CustomerImportError(long line, String email, String message) {
+}
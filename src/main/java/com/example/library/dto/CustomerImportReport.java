@@ -0,0 +1,6 @@
+package com.example.library.dto;
+
+import java.util.List;
+
+public record CustomerImportReport(long imported, long rejected, List<CustomerImportError> errors, boolean errorsTruncated) {
+}
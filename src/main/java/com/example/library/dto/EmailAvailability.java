@@ -0,0 +1,4 @@
+package com.example.library.dto;
+
+public record EmailAvailability(String email, boolean available) {
+}
@@ -0,0 +1,4 @@
+package com.example.library.dto;
+
+public record HoldRequest(Long customerId, Long bookId) {
+}
@@ -0,0 +1,6 @@
+package com.example.library.dto;
+
+import java.time.LocalDate;
+
+public record OverdueLoan(Long borrowingRecordId, Long bookId, Long customerId, LocalDate dueDate, long daysOverdue) {
+}
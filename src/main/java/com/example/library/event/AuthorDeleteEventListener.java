@@ -1,9 +1,9 @@
 package com.example.library.event;
 
 import com.example.library.model.Author;
-import com.example.library.model.Book;
 import com.example.library.repository.BookRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
@@ -15,15 +15,21 @@ import java.util.List;
 public class AuthorDeleteEventListener {
 
     private final BookRepository bookRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
+    /**
+     * Detaches the author's books with one bulk update instead of loading and saving each book. The affected ids
+     * are read first, so only those books are evicted from the cache once the transaction commits.
+     */
     @EventListener
     @Transactional
     public void handleAuthorDeleteEvent(AuthorDeleteEvent event) {
         Author deletedAuthor = event.getAuthor();
-        List<Book> books = bookRepository.findByAuthor(deletedAuthor);
-        for (Book book : books) {
-            book.setAuthor(null);
-            bookRepository.save(book);
+        List<Long> bookIds = bookRepository.findIdsByAuthorId(deletedAuthor.getId());
+        if (bookIds.isEmpty()) {
+            return;
         }
+        bookRepository.clearAuthor(deletedAuthor.getId());
+        eventPublisher.publishEvent(new BooksUpdatedEvent(this, bookIds));
     }
 }
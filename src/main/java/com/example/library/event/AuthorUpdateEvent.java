@@ -0,0 +1,18 @@
+package com.example.library.event;
+
+import com.example.library.model.Author;
+import org.springframework.context.ApplicationEvent;
+
+public class AuthorUpdateEvent extends ApplicationEvent {
+
+    private final Author author;
+
+    public AuthorUpdateEvent(Object source, Author author) {
+        super(source);
+        this.author = author;
+    }
+
+    public Author getAuthor() {
+        return author;
+    }
+}
@@ -1,22 +1,18 @@
 package com.example.library.event;
 
-import com.example.library.model.Book;
-import com.example.library.repository.BorrowingRecordRepository;
+import com.example.library.service.HistoryPurger;
 import lombok.RequiredArgsConstructor;
-import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 @Component
 @RequiredArgsConstructor
 public class BookDeleteEventListener {
 
-    private final BorrowingRecordRepository borrowingRecordRepository;
+    private final HistoryPurger historyPurger;
 
-    @EventListener
-    @Transactional
+    @TransactionalEventListener(fallbackExecution = true)
     public void handleBookDeleteEvent(BookDeleteEvent event) {
-        Book deletedBook = event.getBook();
-        borrowingRecordRepository.deleteByBook(deletedBook);
+        historyPurger.purgeBook(event.getBook().getId());
     }
 }
@@ -0,0 +1,18 @@
+package com.example.library.event;
+
+import com.example.library.model.Book;
+import org.springframework.context.ApplicationEvent;
+
+public class BookUpdateEvent extends ApplicationEvent {
+
+    private final Book book;
+
+    public BookUpdateEvent(Object source, Book book) {
+        super(source);
+        this.book = book;
+    }
+
+    public Book getBook() {
+        return book;
+    }
+}
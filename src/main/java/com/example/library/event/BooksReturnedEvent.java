@@ -0,0 +1,29 @@
+package com.example.library.event;
+
+import org.springframework.context.ApplicationEvent;
+
+import java.util.List;
+
+public class BooksReturnedEvent extends ApplicationEvent {
+
+    private final List<Long> bookIds;
+    private final List<Long> availableBookIds;
+
+    /**
+     * @param bookIds          books whose loans were closed
+     * @param availableBookIds the subset that became available, the others went straight to a hold
+     */
+    public BooksReturnedEvent(Object source, List<Long> bookIds, List<Long> availableBookIds) {
+        super(source);
+        this.bookIds = bookIds;
+        this.availableBookIds = availableBookIds;
+    }
+
+    public List<Long> getBookIds() {
+        return bookIds;
+    }
+
+    public List<Long> getAvailableBookIds() {
+        return availableBookIds;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.library.event;
+
+import org.springframework.context.ApplicationEvent;
+
+import java.util.List;
+
+/**
+ * Books changed by a bulk update, which bypasses the entity lifecycle and so has no {@link BookUpdateEvent} per book.
+ */
+public class BooksUpdatedEvent extends ApplicationEvent {
+
+    private final List<Long> bookIds;
+
+    public BooksUpdatedEvent(Object source, List<Long> bookIds) {
+        super(source);
+        this.bookIds = bookIds;
+    }
+
+    public List<Long> getBookIds() {
+        return bookIds;
+    }
+}
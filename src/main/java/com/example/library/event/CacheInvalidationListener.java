@@ -0,0 +1,76 @@
+package com.example.library.event;
+
+import com.example.library.config.CacheConfig;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Component
+@RequiredArgsConstructor
+public class CacheInvalidationListener {
+
+    private final CacheManager cacheManager;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleBookUpdateEvent(BookUpdateEvent event) {
+        evict(CacheConfig.BOOKS, event.getBook().getId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleBookDeleteEvent(BookDeleteEvent event) {
+        evict(CacheConfig.BOOKS, event.getBook().getId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleBooksReturnedEvent(BooksReturnedEvent event) {
+        event.getBookIds().forEach(bookId -> evict(CacheConfig.BOOKS, bookId));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleAuthorUpdateEvent(AuthorUpdateEvent event) {
+        evict(CacheConfig.AUTHORS, event.getAuthor().getId());
+        clear(CacheConfig.BOOKS);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleBooksUpdatedEvent(BooksUpdatedEvent event) {
+        event.getBookIds().forEach(bookId -> evict(CacheConfig.BOOKS, bookId));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleAuthorDeleteEvent(AuthorDeleteEvent event) {
+        evict(CacheConfig.AUTHORS, event.getAuthor().getId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleCustomerUpdateEvent(CustomerUpdateEvent event) {
+        evict(CacheConfig.CUSTOMERS, event.getCustomer().getId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleCustomerDeleteEvent(CustomerDeleteEvent event) {
+        evict(CacheConfig.CUSTOMERS, event.getCustomer().getId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleHistoryPurgedEvent(HistoryPurgedEvent event) {
+        evict(event.getTarget() == HistoryPurgedEvent.Target.BOOK ? CacheConfig.BOOKS : CacheConfig.CUSTOMERS,
+                event.getId());
+    }
+
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null && key != null) {
+            cache.evict(key);
+        }
+    }
+
+    private void clear(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.library.event;
+
+import com.example.library.dto.ChangeEvent;
+import com.example.library.index.OpenLoan;
+import com.example.library.service.ChangeStream;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Turns committed loan, return and delete events into change stream entries.
+ */
+@Component
+@RequiredArgsConstructor
+public class ChangeStreamListener {
+
+    private final ChangeStream changeStream;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleLoansCreatedEvent(LoansCreatedEvent event) {
+        Instant now = Instant.now();
+        publishLoans(event.getLoans(), now);
+        event.getLoans().forEach(loan ->
+                changeStream.publish(new ChangeEvent(ChangeEvent.Type.AVAILABILITY, loan.bookId(), null, null, false, now)));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleHoldsPromotedEvent(HoldsPromotedEvent event) {
+        publishLoans(event.getLoans(), Instant.now());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleBooksReturnedEvent(BooksReturnedEvent event) {
+        Instant now = Instant.now();
+        event.getBookIds().forEach(bookId ->
+                changeStream.publish(new ChangeEvent(ChangeEvent.Type.LOAN_RETURNED, bookId, null, null, null, now)));
+        event.getAvailableBookIds().forEach(bookId ->
+                changeStream.publish(new ChangeEvent(ChangeEvent.Type.AVAILABILITY, bookId, null, null, true, now)));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleBookDeleteEvent(BookDeleteEvent event) {
+        changeStream.publish(new ChangeEvent(ChangeEvent.Type.BOOK_DELETED, event.getBook().getId(), null, null, null, Instant.now()));
+    }
+
+    private void publishLoans(List<OpenLoan> loans, Instant now) {
+        loans.forEach(loan -> changeStream.publish(new ChangeEvent(ChangeEvent.Type.LOAN_CREATED,
+                loan.bookId(), loan.borrowingRecordId(), loan.customerId(), null, now)));
+    }
+}
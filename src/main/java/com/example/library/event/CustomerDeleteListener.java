@@ -1,22 +1,18 @@
 package com.example.library.event;
 
-import com.example.library.model.Customer;
-import com.example.library.repository.BorrowingRecordRepository;
+import com.example.library.service.HistoryPurger;
 import lombok.RequiredArgsConstructor;
-import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 @Component
 @RequiredArgsConstructor
 public class CustomerDeleteListener {
 
-    private final BorrowingRecordRepository borrowingRecordRepository;
+    private final HistoryPurger historyPurger;
 
-    @EventListener
-    @Transactional
+    @TransactionalEventListener(fallbackExecution = true)
     public void handleCustomerDeleteEvent(CustomerDeleteEvent event) {
-        Customer deletedCustomer = event.getCustomer();
-        borrowingRecordRepository.deleteByCustomer(deletedCustomer);
+        historyPurger.purgeCustomer(event.getCustomer().getId());
     }
 }
@@ -0,0 +1,18 @@
+package com.example.library.event;
+
+import com.example.library.model.Customer;
+import org.springframework.context.ApplicationEvent;
+
+public class CustomerUpdateEvent extends ApplicationEvent {
+
+    private final Customer customer;
+
+    public CustomerUpdateEvent(Object source, Customer customer) {
+        super(source);
+        this.customer = customer;
+    }
+
+    public Customer getCustomer() {
+        return customer;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.library.event;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published once a deleted book's or customer's history has been purged and its row is finally gone.
+ */
+public class HistoryPurgedEvent extends ApplicationEvent {
+
+    public enum Target { BOOK, CUSTOMER }
+
+    private final Target target;
+    private final Long id;
+
+    public HistoryPurgedEvent(Object source, Target target, Long id) {
+        super(source);
+        this.target = target;
+        this.id = id;
+    }
+
+    public Target getTarget() {
+        return target;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.library.event;
+
+import com.example.library.index.OpenLoan;
+import org.springframework.context.ApplicationEvent;
+
+import java.util.List;
+
+public class HoldsPromotedEvent extends ApplicationEvent {
+
+    private final List<OpenLoan> loans;
+
+    public HoldsPromotedEvent(Object source, List<OpenLoan> loans) {
+        super(source);
+        this.loans = loans;
+    }
+
+    public List<OpenLoan> getLoans() {
+        return loans;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.library.event;
+
+import com.example.library.dto.OverdueLoan;
+import org.springframework.context.ApplicationEvent;
+
+import java.util.List;
+
+public class LoansOverdueEvent extends ApplicationEvent {
+
+    private final List<OverdueLoan> loans;
+
+    public LoansOverdueEvent(Object source, List<OverdueLoan> loans) {
+        super(source);
+        this.loans = loans;
+    }
+
+    public List<OverdueLoan> getLoans() {
+        return loans;
+    }
+}
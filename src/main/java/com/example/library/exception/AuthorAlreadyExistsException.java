@@ -0,0 +1,7 @@
+package com.example.library.exception;
+
+public class AuthorAlreadyExistsException extends RuntimeException {
+    public AuthorAlreadyExistsException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.library.exception;
+
+public class BorrowLimitExceededException extends RuntimeException {
+    public BorrowLimitExceededException(String message) {
+        super(message);
+    }
+}
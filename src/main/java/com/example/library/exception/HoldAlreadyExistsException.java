@@ -0,0 +1,7 @@
+package com.example.library.exception;
+
+public class HoldAlreadyExistsException extends RuntimeException {
+    public HoldAlreadyExistsException(String message) {
+        super(message);
+    }
+}
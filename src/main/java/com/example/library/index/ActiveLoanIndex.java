@@ -0,0 +1,120 @@
+package com.example.library.index;
+
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Book ids on loan per customer, with an atomic counter per customer that also covers borrows still in flight.
+ * A borrow reserves a slot with {@link #tryReserve} before touching the database, so the borrow limit is checked
+ * without counting the customer's records, and either confirms it with {@link #add} or gives it back with
+ * {@link #release}.
+ */
+@Component
+public class ActiveLoanIndex {
+
+    private final Map<Long, CustomerLoans> byCustomer = new ConcurrentHashMap<>();
+
+    /**
+     * Takes a loan slot for the customer if fewer than {@code limit} are in use.
+     */
+    public boolean tryReserve(long customerId, int limit) {
+        AtomicInteger count = loans(customerId).count;
+        int current;
+        do {
+            current = count.get();
+            if (current >= limit) {
+                return false;
+            }
+        } while (!count.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    public void release(long customerId, int slots) {
+        CustomerLoans loans = byCustomer.get(customerId);
+        if (loans != null) {
+            loans.count.addAndGet(-slots);
+        }
+    }
+
+    /**
+     * Records a loan whose slot was reserved with {@link #tryReserve}.
+     */
+    public void add(long customerId, long bookId) {
+        CustomerLoans loans = loans(customerId);
+        synchronized (loans) {
+            if (!loans.bookIds.contains(bookId)) {
+                loans.bookIds.addLong(bookId);
+                return;
+            }
+        }
+        loans.count.decrementAndGet();
+    }
+
+    /**
+     * Records a loan without a reservation, as when rebuilding from the database or moving an existing loan.
+     */
+    public void track(long customerId, long bookId) {
+        CustomerLoans loans = loans(customerId);
+        synchronized (loans) {
+            if (!loans.bookIds.contains(bookId)) {
+                loans.bookIds.addLong(bookId);
+                loans.count.incrementAndGet();
+            }
+        }
+    }
+
+    public void remove(long customerId, long bookId) {
+        CustomerLoans loans = byCustomer.get(customerId);
+        if (loans == null) {
+            return;
+        }
+        synchronized (loans) {
+            if (loans.bookIds.contains(bookId)) {
+                loans.bookIds.removeLong(bookId);
+                loans.count.decrementAndGet();
+            }
+        }
+    }
+
+    public void removeCustomer(long customerId) {
+        byCustomer.remove(customerId);
+    }
+
+    public void clear() {
+        byCustomer.clear();
+    }
+
+    /**
+     * Loans in use by the customer, including reserved slots of borrows not yet committed.
+     */
+    public int count(long customerId) {
+        CustomerLoans loans = byCustomer.get(customerId);
+        return loans == null ? 0 : loans.count.get();
+    }
+
+    /**
+     * Sorted ids of the books the customer has on loan.
+     */
+    public long[] bookIds(long customerId) {
+        CustomerLoans loans = byCustomer.get(customerId);
+        if (loans == null) {
+            return new long[0];
+        }
+        synchronized (loans) {
+            return loans.bookIds.toArray();
+        }
+    }
+
+    private CustomerLoans loans(long customerId) {
+        return byCustomer.computeIfAbsent(customerId, id -> new CustomerLoans());
+    }
+
+    private static final class CustomerLoans {
+        private final AtomicInteger count = new AtomicInteger();
+        private final Roaring64Bitmap bookIds = new Roaring64Bitmap();
+    }
+}
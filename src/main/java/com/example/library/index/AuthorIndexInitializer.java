@@ -0,0 +1,35 @@
+package com.example.library.index;
+
+import com.example.library.model.Author;
+import com.example.library.repository.AuthorRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+public class AuthorIndexInitializer {
+
+    private static final int PAGE_SIZE = 1000;
+
+    private final AuthorRepository authorRepository;
+    private final AuthorNameIndex authorNameIndex;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        authorNameIndex.clear();
+        long after = 0L;
+        List<Author> page;
+        do {
+            page = authorRepository.findPageAfter(after, Limit.of(PAGE_SIZE));
+            for (Author author : page) {
+                authorNameIndex.put(author.getName(), author.getId());
+                after = author.getId();
+            }
+        } while (page.size() == PAGE_SIZE);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.library.index;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Exact author name -> author id dictionary, so book creation can resolve authors without a query. Misses are
+ * looked up or inserted by the caller outside the map, with a per-name lock serializing concurrent inserts of the
+ * same name, and published with {@link #putIfAbsent} once they commit.
+ */
+@Component
+public class AuthorNameIndex {
+
+    private final Map<String, Long> idsByName = new ConcurrentHashMap<>();
+
+    public Long get(String name) {
+        return name == null ? null : idsByName.get(name);
+    }
+
+    public void putIfAbsent(String name, Long authorId) {
+        if (name != null && authorId != null) {
+            idsByName.putIfAbsent(name, authorId);
+        }
+    }
+
+    public void put(String name, Long authorId) {
+        if (name != null && authorId != null) {
+            idsByName.put(name, authorId);
+        }
+    }
+
+    public void remove(String name, Long authorId) {
+        if (name != null && authorId != null) {
+            idsByName.remove(name, authorId);
+        }
+    }
+
+    public void clear() {
+        idsByName.clear();
+    }
+
+    public int size() {
+        return idsByName.size();
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.library.index;
+
+import com.example.library.dto.AvailabilityCounts;
+import org.roaringbitmap.longlong.PeekableLongIterator;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Compressed bitmaps of all book ids, available book ids and book ids per genre (case-insensitive).
+ * Availability checks are a bitmap lookup and counts are bitmap cardinalities, so neither touches the database.
+ */
+@Component
+public class AvailabilityIndex {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Roaring64Bitmap all = new Roaring64Bitmap();
+    private final Roaring64Bitmap available = new Roaring64Bitmap();
+    private final Map<String, Roaring64Bitmap> byGenre = new HashMap<>();
+    private final LongKeyedMap<String> genresById = new LongKeyedMap<>();
+
+    public void index(Long bookId, String genre, boolean isAvailable) {
+        String key = normalizeGenre(genre);
+        lock.writeLock().lock();
+        try {
+            removeDocument(bookId);
+            all.addLong(bookId);
+            if (isAvailable) {
+                available.addLong(bookId);
+            }
+            if (key != null) {
+                genresById.put(bookId, key);
+                byGenre.computeIfAbsent(key, k -> new Roaring64Bitmap()).addLong(bookId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void setAvailable(Long bookId, boolean isAvailable) {
+        lock.writeLock().lock();
+        try {
+            if (!all.contains(bookId)) {
+                return;
+            }
+            if (isAvailable) {
+                available.addLong(bookId);
+            } else {
+                available.removeLong(bookId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long bookId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            all.clear();
+            available.clear();
+            byGenre.clear();
+            genresById.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean contains(long bookId) {
+        lock.readLock().lock();
+        try {
+            return all.contains(bookId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isAvailable(long bookId) {
+        lock.readLock().lock();
+        try {
+            return available.contains(bookId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Sorted ids of the books whose availability matches.
+     */
+    public long[] ids(boolean isAvailable) {
+        lock.readLock().lock();
+        try {
+            return isAvailable ? available.toArray() : Roaring64Bitmap.andNot(all, available).toArray();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Keeps the ids of {@code sortedIds} whose availability matches, preserving order.
+     */
+    public long[] filter(long[] sortedIds, boolean isAvailable) {
+        lock.readLock().lock();
+        try {
+            long[] out = new long[sortedIds.length];
+            int n = 0;
+            for (long id : sortedIds) {
+                if (available.contains(id) == isAvailable && all.contains(id)) {
+                    out[n++] = id;
+                }
+            }
+            return n == out.length ? out : Arrays.copyOf(out, n);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Up to {@code limit} ids greater than {@code after} whose availability matches, in ascending order.
+     */
+    public long[] idsAfter(long after, int limit, boolean isAvailable) {
+        lock.readLock().lock();
+        try {
+            long[] out = new long[limit];
+            int n = 0;
+            PeekableLongIterator it = (isAvailable ? available : all).getLongIteratorFrom(after + 1);
+            while (n < limit && it.hasNext()) {
+                long id = it.next();
+                if (isAvailable || !available.contains(id)) {
+                    out[n++] = id;
+                }
+            }
+            return n == limit ? out : Arrays.copyOf(out, n);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public AvailabilityCounts counts() {
+        lock.readLock().lock();
+        try {
+            return new AvailabilityCounts(all.getLongCardinality(), available.getLongCardinality());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public AvailabilityCounts counts(String genre) {
+        String key = normalizeGenre(genre);
+        lock.readLock().lock();
+        try {
+            Roaring64Bitmap ids = key == null ? null : byGenre.get(key);
+            return ids == null ? new AvailabilityCounts(0, 0) : countsOf(ids);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<String, AvailabilityCounts> countsByGenre() {
+        lock.readLock().lock();
+        try {
+            Map<String, AvailabilityCounts> counts = new TreeMap<>();
+            byGenre.forEach((genre, ids) -> counts.put(genre, countsOf(ids)));
+            return counts;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private AvailabilityCounts countsOf(Roaring64Bitmap ids) {
+        return new AvailabilityCounts(ids.getLongCardinality(), Roaring64Bitmap.andCardinality(ids, available));
+    }
+
+    private void removeDocument(Long bookId) {
+        all.removeLong(bookId);
+        available.removeLong(bookId);
+        String genre = genresById.remove(bookId);
+        if (genre != null) {
+            Roaring64Bitmap ids = byGenre.get(genre);
+            ids.removeLong(bookId);
+            if (ids.isEmpty()) {
+                byGenre.remove(genre);
+            }
+        }
+    }
+
+    public static String normalizeGenre(String genre) {
+        if (genre == null || genre.isBlank()) {
+            return null;
+        }
+        return genre.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.library.index;
+
+import com.example.library.model.Book;
+import com.example.library.repository.BookRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+public class BookIndexInitializer {
+
+    private static final int PAGE_SIZE = 1000;
+
+    private final BookRepository bookRepository;
+    private final BookTitleIndex bookTitleIndex;
+    private final IsbnIndex isbnIndex;
+    private final AvailabilityIndex availabilityIndex;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        bookTitleIndex.clear();
+        isbnIndex.clear();
+        availabilityIndex.clear();
+        long after = 0L;
+        List<Book> page;
+        do {
+            page = bookRepository.findPageAfter(after, Limit.of(PAGE_SIZE));
+            for (Book book : page) {
+                bookTitleIndex.index(book.getId(), book.getTitle());
+                isbnIndex.index(book.getId(), book.getIsbn());
+                availabilityIndex.index(book.getId(), book.getGenre(), book.isAvailable());
+                after = book.getId();
+            }
+        } while (page.size() == PAGE_SIZE);
+    }
+}
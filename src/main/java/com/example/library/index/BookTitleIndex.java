@@ -0,0 +1,197 @@
+package com.example.library.index;
+
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over book titles (term -> sorted book ids).
+ * Queries are AND-ed across terms; the last query term also matches as a prefix so partially typed words still hit.
+ */
+@Component
+public class BookTitleIndex {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, PostingList> postings = new TreeMap<>();
+    private final Map<Long, String[]> documents = new HashMap<>();
+
+    public void index(Long bookId, String title) {
+        String[] terms = tokenize(title).toArray(String[]::new);
+        lock.writeLock().lock();
+        try {
+            removeDocument(bookId);
+            documents.put(bookId, terms);
+            for (String term : terms) {
+                postings.computeIfAbsent(term, t -> new PostingList()).add(bookId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long bookId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids of books whose title contains every query term, most relevant first.
+     */
+    public List<Long> search(String query) {
+        List<String> terms = new ArrayList<>(tokenize(query));
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            return rank(match(terms));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Match match(List<String> terms) {
+        List<long[]> lists = new ArrayList<>(terms.size());
+        double[] idf = new double[terms.size()];
+        List<Set<String>> expansions = new ArrayList<>(terms.size());
+        int docCount = Math.max(1, documents.size());
+        for (int i = 0; i < terms.size(); i++) {
+            boolean last = i == terms.size() - 1;
+            Set<String> expanded = last ? expandPrefix(terms.get(i)) : exact(terms.get(i));
+            if (expanded.isEmpty()) {
+                return Match.EMPTY;
+            }
+            long[] ids = new long[0];
+            for (String term : expanded) {
+                ids = PostingList.union(ids, postings.get(term).toArray());
+            }
+            lists.add(ids);
+            expansions.add(expanded);
+            idf[i] = Math.log(1.0 + (double) docCount / ids.length);
+        }
+        List<long[]> bySize = new ArrayList<>(lists);
+        bySize.sort(Comparator.comparingInt(ids -> ids.length));
+        long[] result = bySize.get(0);
+        for (int i = 1; i < bySize.size() && result.length > 0; i++) {
+            result = PostingList.intersect(result, bySize.get(i));
+        }
+        return new Match(result, expansions, idf);
+    }
+
+    private List<Long> rank(Match match) {
+        if (match.ids.length == 0) {
+            return List.of();
+        }
+        List<ScoredId> scored = new ArrayList<>(match.ids.length);
+        for (long id : match.ids) {
+            String[] docTerms = documents.get(id);
+            double score = 0;
+            for (int i = 0; i < match.expansions.size(); i++) {
+                Set<String> expanded = match.expansions.get(i);
+                int tf = 0;
+                for (String docTerm : docTerms) {
+                    if (expanded.contains(docTerm)) {
+                        tf++;
+                    }
+                }
+                score += match.idf[i] * tf;
+            }
+            scored.add(new ScoredId(id, score / Math.sqrt(docTerms.length)));
+        }
+        scored.sort(Comparator.comparingDouble(ScoredId::score).reversed().thenComparingLong(ScoredId::id));
+        List<Long> ids = new ArrayList<>(scored.size());
+        for (ScoredId s : scored) {
+            ids.add(s.id());
+        }
+        return ids;
+    }
+
+    private Set<String> exact(String term) {
+        return postings.containsKey(term) ? Set.of(term) : Set.of();
+    }
+
+    private Set<String> expandPrefix(String prefix) {
+        Set<String> expanded = new LinkedHashSet<>();
+        for (String term : postings.tailMap(prefix, true).keySet()) {
+            if (!term.startsWith(prefix)) {
+                break;
+            }
+            expanded.add(term);
+        }
+        return expanded;
+    }
+
+    private void removeDocument(Long bookId) {
+        String[] terms = documents.remove(bookId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            PostingList list = postings.get(term);
+            if (list != null) {
+                list.remove(bookId);
+                if (list.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        return Arrays.stream(SEPARATORS.split(normalized))
+                .filter(token -> !token.isEmpty())
+                .toList();
+    }
+
+    private record ScoredId(long id, double score) {
+    }
+
+    private record Match(long[] ids, List<Set<String>> expansions, double[] idf) {
+        static final Match EMPTY = new Match(new long[0], List.of(), new double[0]);
+    }
+}
@@ -0,0 +1,4 @@
+package com.example.library.index;
+
+public record CustomerEmail(Long customerId, String email) {
+}
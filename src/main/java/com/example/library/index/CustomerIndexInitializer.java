@@ -0,0 +1,34 @@
+package com.example.library.index;
+
+import com.example.library.repository.CustomerRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+public class CustomerIndexInitializer {
+
+    private static final int PAGE_SIZE = 1000;
+
+    private final CustomerRepository customerRepository;
+    private final EmailBloomFilter emailBloomFilter;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        emailBloomFilter.clear();
+        long after = 0L;
+        List<CustomerEmail> page;
+        do {
+            page = customerRepository.findEmailsAfter(after, Limit.of(PAGE_SIZE));
+            for (CustomerEmail customer : page) {
+                emailBloomFilter.put(customer.email());
+                after = customer.customerId();
+            }
+        } while (page.size() == PAGE_SIZE);
+    }
+}
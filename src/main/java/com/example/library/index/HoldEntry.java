@@ -0,0 +1,4 @@
+package com.example.library.index;
+
+public record HoldEntry(Long holdId, Long bookId, Long customerId) {
+}
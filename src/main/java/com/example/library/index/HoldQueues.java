@@ -0,0 +1,67 @@
+package com.example.library.index;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * FIFO of holds per book, backed by lock-free {@link ConcurrentLinkedQueue}s. The {@code Hold} table is the durable
+ * copy; queues are rebuilt from it in id order at startup.
+ */
+@Component
+public class HoldQueues {
+
+    private final Map<Long, Queue<HoldEntry>> byBook = new ConcurrentHashMap<>();
+
+    public void enqueue(HoldEntry entry) {
+        byBook.computeIfAbsent(entry.bookId(), id -> new ConcurrentLinkedQueue<>()).add(entry);
+    }
+
+    public boolean remove(HoldEntry entry) {
+        Queue<HoldEntry> queue = byBook.get(entry.bookId());
+        return queue != null && queue.remove(entry);
+    }
+
+    /**
+     * Holds on the book, oldest first.
+     */
+    public List<HoldEntry> queue(long bookId) {
+        Queue<HoldEntry> queue = byBook.get(bookId);
+        return queue == null ? List.of() : new ArrayList<>(queue);
+    }
+
+    public boolean hasHolds(long bookId) {
+        Queue<HoldEntry> queue = byBook.get(bookId);
+        return queue != null && !queue.isEmpty();
+    }
+
+    public HoldEntry find(long bookId, long customerId) {
+        Queue<HoldEntry> queue = byBook.get(bookId);
+        if (queue == null) {
+            return null;
+        }
+        for (HoldEntry entry : queue) {
+            if (entry.customerId() == customerId) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    public void removeBook(long bookId) {
+        byBook.remove(bookId);
+    }
+
+    public void removeCustomer(long customerId) {
+        byBook.values().forEach(queue -> queue.removeIf(entry -> entry.customerId() == customerId));
+    }
+
+    public void clear() {
+        byBook.clear();
+    }
+}
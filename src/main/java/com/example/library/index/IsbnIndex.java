@@ -0,0 +1,177 @@
+package com.example.library.index;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Substring index over normalized ISBNs (hyphens and spaces stripped, upper-cased).
+ * Every ISBN is split into trigrams; a query intersects the posting lists of its own trigrams and
+ * verifies the few remaining candidates. Full 13-digit queries are answered from a primitive map.
+ */
+@Component
+public class IsbnIndex {
+
+    private static final int GRAM = 3;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongKeyedMap<PostingList> trigrams = new LongKeyedMap<>(4096);
+    private final LongKeyedMap<PostingList> isbn13 = new LongKeyedMap<>();
+    private final LongKeyedMap<String> isbnsById = new LongKeyedMap<>();
+
+    public void index(Long bookId, String isbn) {
+        String normalized = normalize(isbn);
+        lock.writeLock().lock();
+        try {
+            removeDocument(bookId);
+            if (normalized.isEmpty()) {
+                return;
+            }
+            isbnsById.put(bookId, normalized);
+            for (int i = 0; i + GRAM <= normalized.length(); i++) {
+                trigrams.computeIfAbsent(gram(normalized, i), k -> new PostingList()).add(bookId);
+            }
+            if (isIsbn13(normalized)) {
+                isbn13.computeIfAbsent(Long.parseLong(normalized), k -> new PostingList()).add(bookId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long bookId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            trigrams.clear();
+            isbn13.clear();
+            isbnsById.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Sorted ids of the books whose normalized ISBN contains the normalized query.
+     */
+    public long[] search(String query) {
+        String normalized = normalize(query);
+        lock.readLock().lock();
+        try {
+            if (isIsbn13(normalized)) {
+                PostingList exact = isbn13.get(Long.parseLong(normalized));
+                if (exact != null) {
+                    return exact.toArray();
+                }
+            }
+            if (normalized.length() < GRAM) {
+                return scan(normalized);
+            }
+            List<PostingList> lists = new ArrayList<>();
+            for (int i = 0; i + GRAM <= normalized.length(); i++) {
+                PostingList list = trigrams.get(gram(normalized, i));
+                if (list == null) {
+                    return new long[0];
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(PostingList::size));
+            long[] candidates = lists.get(0).toArray();
+            for (int i = 1; i < lists.size() && candidates.length > 0; i++) {
+                candidates = PostingList.intersect(candidates, lists.get(i).toArray());
+            }
+            return verify(candidates, normalized);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long[] verify(long[] candidates, String normalized) {
+        long[] out = new long[candidates.length];
+        int n = 0;
+        for (long id : candidates) {
+            if (isbnsById.get(id).contains(normalized)) {
+                out[n++] = id;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private long[] scan(String normalized) {
+        PostingList matches = new PostingList();
+        isbnsById.forEach((id, isbn) -> {
+            if (isbn.contains(normalized)) {
+                matches.add(id);
+            }
+        });
+        return matches.toArray();
+    }
+
+    private void removeDocument(Long bookId) {
+        String previous = isbnsById.remove(bookId);
+        if (previous == null) {
+            return;
+        }
+        for (int i = 0; i + GRAM <= previous.length(); i++) {
+            removePosting(trigrams, gram(previous, i), bookId);
+        }
+        if (isIsbn13(previous)) {
+            removePosting(isbn13, Long.parseLong(previous), bookId);
+        }
+    }
+
+    private static void removePosting(LongKeyedMap<PostingList> map, long key, long bookId) {
+        PostingList list = map.get(key);
+        if (list != null) {
+            list.remove(bookId);
+            if (list.isEmpty()) {
+                map.remove(key);
+            }
+        }
+    }
+
+    private static long gram(String s, int offset) {
+        return ((long) s.charAt(offset) << 32) | ((long) s.charAt(offset + 1) << 16) | s.charAt(offset + 2);
+    }
+
+    private static boolean isIsbn13(String normalized) {
+        if (normalized.length() != 13) {
+            return false;
+        }
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static String normalize(String isbn) {
+        if (isbn == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(isbn.length());
+        for (int i = 0; i < isbn.length(); i++) {
+            char c = isbn.charAt(i);
+            if (c != '-' && !Character.isWhitespace(c)) {
+                sb.append(c);
+            }
+        }
+        return sb.toString().toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.library.index;
+
+import com.example.library.repository.BorrowingRecordRepository;
+import com.example.library.repository.HoldRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+public class LoanIndexInitializer {
+
+    private static final int PAGE_SIZE = 1000;
+
+    private final BorrowingRecordRepository borrowingRecordRepository;
+    private final OverdueLoanIndex overdueLoanIndex;
+    private final ActiveLoanIndex activeLoanIndex;
+    private final HoldRepository holdRepository;
+    private final HoldQueues holdQueues;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        overdueLoanIndex.clear();
+        activeLoanIndex.clear();
+        long after = 0L;
+        List<OpenLoan> page;
+        do {
+            page = borrowingRecordRepository.findOpenLoansAfter(after, Limit.of(PAGE_SIZE));
+            for (OpenLoan loan : page) {
+                overdueLoanIndex.add(loan);
+                activeLoanIndex.track(loan.customerId(), loan.bookId());
+                after = loan.borrowingRecordId();
+            }
+        } while (page.size() == PAGE_SIZE);
+        rebuildHolds();
+    }
+
+    private void rebuildHolds() {
+        holdQueues.clear();
+        long after = 0L;
+        List<HoldEntry> page;
+        do {
+            page = holdRepository.findEntriesAfter(after, Limit.of(PAGE_SIZE));
+            for (HoldEntry entry : page) {
+                holdQueues.enqueue(entry);
+                after = entry.holdId();
+            }
+        } while (page.size() == PAGE_SIZE);
+    }
+}
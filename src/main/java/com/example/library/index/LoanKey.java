@@ -0,0 +1,4 @@
+package com.example.library.index;
+
+public record LoanKey(Long bookId, Long customerId) {
+}
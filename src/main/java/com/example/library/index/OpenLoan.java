@@ -0,0 +1,6 @@
+package com.example.library.index;
+
+import java.time.LocalDate;
+
+public record OpenLoan(Long borrowingRecordId, Long bookId, Long customerId, LocalDate dueDate) {
+}
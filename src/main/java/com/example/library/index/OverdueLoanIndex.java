@@ -0,0 +1,166 @@
+package com.example.library.index;
+
+import org.roaringbitmap.longlong.LongIterator;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Open loans bucketed by due date (epoch day), each bucket a bitmap of borrowing record ids. Loans due before a day
+ * are a head map of the buckets, so overdue listings and day-boundary checks never scan the borrowing records.
+ */
+@Component
+public class OverdueLoanIndex {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongKeyedMap<OpenLoan> loans = new LongKeyedMap<>();
+    private final LongKeyedMap<Roaring64Bitmap> loansByBook = new LongKeyedMap<>();
+    private final TreeMap<Long, Roaring64Bitmap> byDueDay = new TreeMap<>();
+
+    /**
+     * Tracks an open loan, replacing any earlier entry for the same record. A book may have several open loans, so
+     * loans of other records for the same book are kept. Loans without a record id, book id or due date are ignored.
+     */
+    public void add(OpenLoan loan) {
+        if (loan.borrowingRecordId() == null || loan.bookId() == null || loan.dueDate() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeLoan(loan.borrowingRecordId());
+            loans.put(loan.borrowingRecordId(), loan);
+            loansByBook.computeIfAbsent(loan.bookId(), b -> new Roaring64Bitmap()).addLong(loan.borrowingRecordId());
+            byDueDay.computeIfAbsent(loan.dueDate().toEpochDay(), d -> new Roaring64Bitmap())
+                    .addLong(loan.borrowingRecordId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long borrowingRecordId) {
+        lock.writeLock().lock();
+        try {
+            removeLoan(borrowingRecordId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drops every open loan of each book, as when the books are purged.
+     */
+    public void removeBooks(Collection<Long> bookIds) {
+        lock.writeLock().lock();
+        try {
+            for (Long bookId : bookIds) {
+                Roaring64Bitmap ids = loansByBook.get(bookId);
+                if (ids != null) {
+                    for (long borrowingRecordId : ids.toArray()) {
+                        removeLoan(borrowingRecordId);
+                    }
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeCustomer(long customerId) {
+        lock.writeLock().lock();
+        try {
+            List<Long> ids = new ArrayList<>();
+            loans.forEach((id, loan) -> {
+                if (loan.customerId() == customerId) {
+                    ids.add(id);
+                }
+            });
+            ids.forEach(this::removeLoan);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            loans.clear();
+            loansByBook.clear();
+            byDueDay.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return loans.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Open loans whose due date is before {@code today}, earliest due first.
+     */
+    public List<OpenLoan> overdue(LocalDate today) {
+        lock.readLock().lock();
+        try {
+            return collect(byDueDay.headMap(today.toEpochDay(), false));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Open loans due on or after {@code from} and before {@code to}, earliest due first.
+     */
+    public List<OpenLoan> dueBetween(LocalDate from, LocalDate to) {
+        lock.readLock().lock();
+        try {
+            if (!from.isBefore(to)) {
+                return List.of();
+            }
+            return collect(byDueDay.subMap(from.toEpochDay(), true, to.toEpochDay(), false));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<OpenLoan> collect(Map<Long, Roaring64Bitmap> buckets) {
+        List<OpenLoan> result = new ArrayList<>();
+        for (Roaring64Bitmap ids : buckets.values()) {
+            LongIterator it = ids.getLongIterator();
+            while (it.hasNext()) {
+                result.add(loans.get(it.next()));
+            }
+        }
+        return result;
+    }
+
+    private void removeLoan(long borrowingRecordId) {
+        OpenLoan loan = loans.remove(borrowingRecordId);
+        if (loan == null) {
+            return;
+        }
+        Roaring64Bitmap ofBook = loansByBook.get(loan.bookId());
+        ofBook.removeLong(borrowingRecordId);
+        if (ofBook.isEmpty()) {
+            loansByBook.remove(loan.bookId());
+        }
+        long day = loan.dueDate().toEpochDay();
+        Roaring64Bitmap ids = byDueDay.get(day);
+        ids.removeLong(borrowingRecordId);
+        if (ids.isEmpty()) {
+            byDueDay.remove(day);
+        }
+    }
+}
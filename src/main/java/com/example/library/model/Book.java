@@ -1,25 +1,38 @@
 package com.example.library.model;
 
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.PastOrPresent;
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDate;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Book.CACHE_REGION)
+@Table(indexes = {
+        @Index(name = "idx_book_title", columnList = "title"),
+        @Index(name = "idx_book_isbn", columnList = "isbn"),
+        @Index(name = "idx_book_author", columnList = "author_id"),
+        @Index(name = "idx_book_publication_date", columnList = "publicationDate"),
+        @Index(name = "idx_book_pending_deletion", columnList = "pendingDeletion")
+})
 @NoArgsConstructor
-@AllArgsConstructor
 @Setter
 @Getter
 public class Book {
 
+    public static final String CACHE_REGION = "entity.book";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+    @SequenceGenerator(name = "book_seq", sequenceName = "book_seq", allocationSize = 50)
     private Long id;
     @NotBlank(message = "Title is mandatory")
     private String title;
@@ -36,4 +49,24 @@ public class Book {
 
     private boolean available;
 
+    /**
+     * Set once the book's deletion has been accepted. The row is only removed when {@code HistoryPurger} has
+     * deleted its history; until then the book is hidden from reads and can no longer be borrowed or held.
+     */
+    @JsonIgnore
+    private boolean pendingDeletion;
+
+    @Version
+    @JsonIgnore
+    private Long version;
+
+    public Book(Long id, String title, Author author, String isbn, LocalDate publicationDate, String genre, boolean available) {
+        this.id = id;
+        this.title = title;
+        this.author = author;
+        this.isbn = isbn;
+        this.publicationDate = publicationDate;
+        this.genre = genre;
+        this.available = available;
+    }
 }
@@ -8,14 +8,30 @@ import lombok.*;
 import java.time.LocalDate;
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = BorrowingRecord.UNIQUE_LOAN, columnNames = {"userId", "bookId", "borrowDate"}),
+        indexes = @Index(name = "idx_borrowing_record_book", columnList = "bookId"))
+@NamedEntityGraph(name = BorrowingRecord.DETAIL,
+        attributeNodes = {@NamedAttributeNode("customer"), @NamedAttributeNode(value = "book", subgraph = "book")},
+        subgraphs = @NamedSubgraph(name = "book", attributeNodes = @NamedAttributeNode("author")))
 @NoArgsConstructor(force = true)
-@AllArgsConstructor
 @Setter
 @Getter
 public class BorrowingRecord {
 
+    /**
+     * Fetch plan that loads the customer, book and book author in the same select as the record. Without it every
+     * query over records issues one more select per distinct customer, book and author.
+     */
+    public static final String DETAIL = "BorrowingRecord.detail";
+
+    /**
+     * A customer borrows a given book at most once per day. The constraint's index also serves lookups by customer.
+     */
+    public static final String UNIQUE_LOAN = "uk_borrowing_record_customer_book_date";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "borrowing_record_seq")
+    @SequenceGenerator(name = "borrowing_record_seq", sequenceName = "borrowing_record_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(cascade = {CascadeType.PERSIST, CascadeType.MERGE})
@@ -34,4 +50,16 @@ public class BorrowingRecord {
     @NonNull
     @FutureOrPresent
     private LocalDate returnDate;
+
+    @PastOrPresent
+    private LocalDate returnedOn;
+
+    public BorrowingRecord(Long id, @NonNull Customer customer, @NonNull Book book,
+                           @NonNull LocalDate borrowDate, @NonNull LocalDate returnDate) {
+        this.id = id;
+        this.customer = customer;
+        this.book = book;
+        this.borrowDate = borrowDate;
+        this.returnDate = returnDate;
+    }
 }
@@ -1,22 +1,23 @@
 package com.example.library.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
+@Table(indexes = @Index(name = "idx_customer_pending_deletion", columnList = "pendingDeletion"))
 @NoArgsConstructor
-@AllArgsConstructor
 @Setter
 @Getter
 public class Customer {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customer_seq")
+    @SequenceGenerator(name = "customer_seq", sequenceName = "customer_seq", allocationSize = 50)
     private Long id;
     @NotBlank
     private String name;
@@ -31,4 +32,20 @@ public class Customer {
     private String phoneNumber;
 
     private String password;
+
+    /**
+     * Set once the customer's deletion has been accepted. The row is only removed when {@code HistoryPurger} has
+     * deleted their history; until then they are hidden from reads and can no longer borrow or place holds.
+     */
+    @JsonIgnore
+    private boolean pendingDeletion;
+
+    public Customer(Long id, String name, String email, String address, String phoneNumber, String password) {
+        this.id = id;
+        this.name = name;
+        this.email = email;
+        this.address = address;
+        this.phoneNumber = phoneNumber;
+        this.password = password;
+    }
 }
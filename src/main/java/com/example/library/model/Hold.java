@@ -0,0 +1,36 @@
+package com.example.library.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(indexes = {
+        @Index(name = "idx_hold_customer", columnList = "userId"),
+        @Index(name = "idx_hold_book", columnList = "bookId")
+})
+@NoArgsConstructor(force = true)
+@AllArgsConstructor
+@Setter
+@Getter
+public class Hold {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "hold_seq")
+    @SequenceGenerator(name = "hold_seq", sequenceName = "hold_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne
+    @JoinColumn(name = "userId")
+    @NonNull
+    private Customer customer;
+
+    @ManyToOne
+    @JoinColumn(name = "bookId")
+    @NonNull
+    private Book book;
+
+    @NonNull
+    private LocalDateTime placedAt;
+}
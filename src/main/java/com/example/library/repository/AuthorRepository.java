@@ -1,13 +1,20 @@
 package com.example.library.repository;
 
 import com.example.library.model.Author;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface AuthorRepository extends JpaRepository<Author,Long> {
     Optional<Author> findByName(String name);
 
+    @Query("select a from Author a where a.id > :after order by a.id")
+    List<Author> findPageAfter(@Param("after") Long after, Limit limit);
+
 }
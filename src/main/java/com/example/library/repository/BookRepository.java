@@ -1,16 +1,69 @@
 package com.example.library.repository;
 
-import com.example.library.model.Author;
+import com.example.library.dto.BookSummary;
 import com.example.library.model.Book;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface BookRepository extends JpaRepository<Book,Long> {
-    List<Book> findByTitleContaining(String title);
-    List<Book> findByAuthor_NameContaining(String authorName);
-    List<Book> findByAuthor(Author author);
-    List<Book> findByIsbnContaining(String isbn);
+
+    @Query("select b from Book b left join fetch b.author where b.id > :after and b.pendingDeletion = false order by b.id")
+    List<Book> findPageAfter(@Param("after") Long after, Limit limit);
+
+    @Transactional(readOnly = true)
+    @Query("select new com.example.library.dto.BookSummary(b.id, b.title, a.id, a.name, b.isbn, b.publicationDate, b.genre, b.available) " +
+            "from Book b left join b.author a where b.pendingDeletion = false order by b.id")
+    List<BookSummary> findAllSummaries();
+
+    @Transactional(readOnly = true)
+    @Query("select new com.example.library.dto.BookSummary(b.id, b.title, a.id, a.name, b.isbn, b.publicationDate, b.genre, b.available) " +
+            "from Book b left join b.author a where b.id > :after and b.pendingDeletion = false order by b.id")
+    List<BookSummary> findSummariesAfter(@Param("after") Long after, Limit limit);
+
+    @Transactional(readOnly = true)
+    @Query("select new com.example.library.dto.BookSummary(b.id, b.title, a.id, a.name, b.isbn, b.publicationDate, b.genre, b.available) " +
+            "from Book b left join b.author a where b.id in :ids and b.pendingDeletion = false")
+    List<BookSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select b.id from Book b where b.author.name like concat('%', :name, '%') order by b.id")
+    List<Long> findIdsByAuthorNameContaining(@Param("name") String name);
+
+    @Query("select b.id from Book b where b.author.name like concat('%', :name, '%') and b.id in :ids order by b.id")
+    List<Long> findIdsByAuthorNameContainingAndIdIn(@Param("name") String name, @Param("ids") Collection<Long> ids);
+
+    @Query("select b.id from Book b where lower(b.genre) = lower(:genre) order by b.id")
+    List<Long> findIdsByGenre(@Param("genre") String genre);
+
+    @Query("select b.id from Book b where lower(b.genre) = lower(:genre) and b.id in :ids order by b.id")
+    List<Long> findIdsByGenreAndIdIn(@Param("genre") String genre, @Param("ids") Collection<Long> ids);
+
+    @Query("select b.id from Book b where b.publicationDate between :from and :to order by b.id")
+    List<Long> findIdsByPublicationDateBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("select b.id from Book b where b.author.id = :authorId order by b.id")
+    List<Long> findIdsByAuthorId(@Param("authorId") Long authorId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Book b set b.author = null, b.version = b.version + 1 where b.author.id = :authorId")
+    int clearAuthor(@Param("authorId") Long authorId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Book b set b.available = true, b.version = b.version + 1 where b.available = false and b.pendingDeletion = false and b.id in :ids")
+    int markAvailable(@Param("ids") Collection<Long> ids);
+
+    @Query("select b.id from Book b where b.publicationDate between :from and :to and b.id in :ids order by b.id")
+    List<Long> findIdsByPublicationDateBetweenAndIdIn(@Param("from") LocalDate from, @Param("to") LocalDate to, @Param("ids") Collection<Long> ids);
+
+    @Query("select b.id from Book b where b.pendingDeletion = true order by b.id")
+    List<Long> findIdsPendingDeletion();
 }
@@ -1,23 +1,107 @@
 package com.example.library.repository;
 
-import com.example.library.model.Book;
+import com.example.library.dto.BorrowingSummary;
+import com.example.library.index.LoanKey;
+import com.example.library.index.OpenLoan;
 import com.example.library.model.BorrowingRecord;
-import com.example.library.model.Customer;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 
 public interface BorrowingRecordRepository extends JpaRepository<BorrowingRecord,Long> {
+    @Override
+    @EntityGraph(BorrowingRecord.DETAIL)
+    Optional<BorrowingRecord> findById(Long id);
+
     List<BorrowingRecord> findByCustomerId(Long userId);
     List<BorrowingRecord> findByBookId(Long bookId);
-    Optional<BorrowingRecord> findByCustomerAndBookAndBorrowDate(Customer customer, Book book, LocalDate borrowDate);
-    void deleteByBook(Book book);
-    void deleteByCustomer(Customer customer);
+    boolean existsByCustomerIdAndBookIdAndBorrowDate(Long customerId, Long bookId, LocalDate borrowDate);
+
+    @Transactional(readOnly = true)
+    @Query("select new com.example.library.dto.BorrowingSummary(r.id, c.id, c.name, b.id, b.title, b.isbn, r.borrowDate, r.returnDate, r.returnedOn) " +
+            "from BorrowingRecord r join r.customer c join r.book b order by r.id")
+    List<BorrowingSummary> findAllSummaries();
+
+    @Transactional(readOnly = true)
+    @Query("select new com.example.library.dto.BorrowingSummary(r.id, c.id, c.name, b.id, b.title, b.isbn, r.borrowDate, r.returnDate, r.returnedOn) " +
+            "from BorrowingRecord r join r.customer c join r.book b where c.id = :customerId order by r.id")
+    List<BorrowingSummary> findSummariesByCustomerId(@Param("customerId") Long customerId);
+
+    @Transactional(readOnly = true)
+    @Query("select new com.example.library.dto.BorrowingSummary(r.id, c.id, c.name, b.id, b.title, b.isbn, r.borrowDate, r.returnDate, r.returnedOn) " +
+            "from BorrowingRecord r join r.customer c join r.book b where b.id = :bookId order by r.id")
+    List<BorrowingSummary> findSummariesByBookId(@Param("bookId") Long bookId);
+
+    @Transactional(readOnly = true)
+    @Query("select new com.example.library.dto.BorrowingSummary(r.id, c.id, c.name, b.id, b.title, b.isbn, r.borrowDate, r.returnDate, r.returnedOn) " +
+            "from BorrowingRecord r join r.customer c join r.book b where c.id = :customerId and r.returnedOn is null order by r.id")
+    List<BorrowingSummary> findOpenSummariesByCustomerId(@Param("customerId") Long customerId);
+
+    @Transactional(readOnly = true)
+    @Query("select new com.example.library.dto.BorrowingSummary(r.id, c.id, c.name, b.id, b.title, b.isbn, r.borrowDate, r.returnDate, r.returnedOn) " +
+            "from BorrowingRecord r join r.customer c join r.book b where b.id = :bookId and r.returnedOn is null order by r.id")
+    List<BorrowingSummary> findOpenSummariesByBookId(@Param("bookId") Long bookId);
+
+    @Query("select r.book.id from BorrowingRecord r where r.customer.id = :customerId and r.borrowDate = :borrowDate and r.book.id in :bookIds")
+    List<Long> findBookIdsByCustomerIdAndBorrowDateAndBookIdIn(@Param("customerId") Long customerId,
+                                                               @Param("borrowDate") LocalDate borrowDate,
+                                                               @Param("bookIds") Collection<Long> bookIds);
+
+    @Query("select new com.example.library.index.LoanKey(r.book.id, r.customer.id) " +
+            "from BorrowingRecord r where r.borrowDate = :borrowDate and r.book.id in :bookIds")
+    List<LoanKey> findLoanKeysByBorrowDateAndBookIdIn(@Param("borrowDate") LocalDate borrowDate,
+                                                      @Param("bookIds") Collection<Long> bookIds);
+
+    @Query("select new com.example.library.index.OpenLoan(r.id, r.book.id, r.customer.id, r.returnDate) " +
+            "from BorrowingRecord r where r.returnedOn is null and r.book.id in :bookIds")
+    List<OpenLoan> findOpenLoansByBookIdIn(@Param("bookIds") Collection<Long> bookIds);
+
+    @Query("select new com.example.library.index.OpenLoan(r.id, r.book.id, r.customer.id, r.returnDate) " +
+            "from BorrowingRecord r where r.returnedOn is null and r.id = :id")
+    Optional<OpenLoan> findOpenLoanById(@Param("id") Long id);
+
+    boolean existsByBookIdAndReturnedOnIsNull(Long bookId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update BorrowingRecord r set r.returnedOn = :returnedOn where r.returnedOn is null and r.id = :id")
+    int closeOpenLoan(@Param("id") Long id, @Param("returnedOn") LocalDate returnedOn);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update BorrowingRecord r set r.returnedOn = :returnedOn where r.returnedOn is null and r.book.id in :bookIds")
+    int closeOpenLoans(@Param("bookIds") Collection<Long> bookIds, @Param("returnedOn") LocalDate returnedOn);
+
+    @Query("select new com.example.library.index.OpenLoan(r.id, r.book.id, r.customer.id, r.returnDate) " +
+            "from BorrowingRecord r where r.returnedOn is null and r.id > :after order by r.id")
+    List<OpenLoan> findOpenLoansAfter(@Param("after") Long after, Limit limit);
+
+    @Query("select r.id from BorrowingRecord r where r.book.id = :bookId")
+    List<Long> findIdsByBookId(@Param("bookId") Long bookId, Limit limit);
+
+    @Query("select r.id from BorrowingRecord r where r.customer.id = :customerId and r.returnedOn is not null")
+    List<Long> findReturnedIdsByCustomerId(@Param("customerId") Long customerId, Limit limit);
+
+    @Query("select distinct r.book.id from BorrowingRecord r where r.customer.id = :customerId and r.returnedOn is null")
+    List<Long> findOpenBookIdsByCustomerId(@Param("customerId") Long customerId);
+
+    @Modifying
+    @Query("delete from BorrowingRecord r where r.book.id = :bookId")
+    int deleteAllByBookId(@Param("bookId") Long bookId);
+
+    @Modifying
+    @Query("delete from BorrowingRecord r where r.customer.id = :customerId")
+    int deleteAllByCustomerId(@Param("customerId") Long customerId);
 
 
 }
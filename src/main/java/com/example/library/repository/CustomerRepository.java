@@ -1,9 +1,44 @@
 package com.example.library.repository;
 
+import com.example.library.index.CustomerEmail;
 import com.example.library.model.Customer;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer,Long> {
+
+    boolean existsByEmail(String email);
+
+    List<Customer> findAllByPendingDeletionFalseOrderById();
+
+    /**
+     * Loads the customer and holds a shared row lock until the transaction ends. Borrows and holds take it, so a
+     * deletion, which needs the row exclusively, waits for those in flight and every later one sees the flag.
+     */
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("select c from Customer c where c.id = :id")
+    Optional<Customer> findByIdForShare(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from Customer c where c.id = :id")
+    Optional<Customer> findByIdForUpdate(@Param("id") Long id);
+
+    @Query("select c.id from Customer c where c.pendingDeletion = true order by c.id")
+    List<Long> findIdsPendingDeletion();
+
+    @Query("select c.email from Customer c where c.email in :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    @Query("select new com.example.library.index.CustomerEmail(c.id, c.email) from Customer c where c.id > :after order by c.id")
+    List<CustomerEmail> findEmailsAfter(@Param("after") Long after, Limit limit);
 }
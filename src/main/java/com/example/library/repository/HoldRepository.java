@@ -0,0 +1,28 @@
+package com.example.library.repository;
+
+import com.example.library.index.HoldEntry;
+import com.example.library.model.Hold;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface HoldRepository extends JpaRepository<Hold, Long> {
+
+    @Query("select new com.example.library.index.HoldEntry(h.id, h.book.id, h.customer.id) " +
+            "from Hold h where h.id > :after order by h.id")
+    List<HoldEntry> findEntriesAfter(@Param("after") Long after, Limit limit);
+
+    @Modifying
+    @Query("delete from Hold h where h.book.id = :bookId")
+    int deleteAllByBookId(@Param("bookId") Long bookId);
+
+    @Modifying
+    @Query("delete from Hold h where h.customer.id = :customerId")
+    int deleteAllByCustomerId(@Param("customerId") Long customerId);
+}
@@ -1,47 +1,108 @@
 package com.example.library.service;
 
+import com.example.library.config.CacheConfig;
 import com.example.library.event.AuthorDeleteEvent;
+import com.example.library.event.AuthorUpdateEvent;
+import com.example.library.exception.AuthorAlreadyExistsException;
+import com.example.library.index.AuthorNameIndex;
 import com.example.library.model.Author;
 import com.example.library.repository.AuthorRepository;
+import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 public class AuthorService {
 
+    private static final int NAME_LOCK_STRIPES = 64;
 
     private final AuthorRepository authorRepository;
     private final ApplicationEventPublisher eventPublisher;
+    private final AuthorNameIndex authorNameIndex;
+    private final StripedLocks nameLocks = new StripedLocks(NAME_LOCK_STRIPES);
 
 
     public List<Author> getAllAuthors() {
         return authorRepository.findAll();
     }
 
+    @Cacheable(cacheNames = CacheConfig.AUTHORS, unless = "#result == null")
     public Optional<Author> getAuthorById(Long id) {
         return authorRepository.findById(id);
     }
 
     public Author createAuthor(Author author) {
+        try {
+            Author savedAuthor = authorRepository.save(author);
+            authorNameIndex.put(savedAuthor.getName(), savedAuthor.getId());
+            return savedAuthor;
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException("Author name must be unique");
+        }
+    }
 
+    /**
+     * Returns the ids of the authors with these names, keyed by name, inserting the missing ones in the caller's
+     * transaction. The names' stripe locks are held until that transaction completes, so a concurrent request for the
+     * same new name waits and then finds the committed row instead of tripping the unique constraint. A name inserted
+     * by a writer that does not take the lock is reported as a conflict to retry.
+     */
+    @Transactional
+    public Map<String, Long> findOrCreateAuthorIds(Collection<Author> authors) {
+        List<Long> keys = authors.stream().map(author -> (long) Objects.hashCode(author.getName())).toList();
+        return nameLocks.withLocks(keys, () -> {
+            Map<String, Long> ids = new HashMap<>();
+            for (Author author : authors) {
+                if (!ids.containsKey(author.getName())) {
+                    ids.put(author.getName(), findOrCreateAuthorId(author));
+                }
+            }
+            return ids;
+        });
+    }
 
-        return authorRepository.save(author);
+    private Long findOrCreateAuthorId(Author author) {
+        return authorRepository.findByName(author.getName())
+                .map(Author::getId)
+                .orElseGet(() -> {
+                    try {
+                        return authorRepository.saveAndFlush(author).getId();
+                    } catch (DataIntegrityViolationException e) {
+                        throw new AuthorAlreadyExistsException("Author " + author.getName() + " was created concurrently, please retry");
+                    }
+                });
     }
 
     public Optional<Author> updateAuthor(Long id, Author updatedAuthor) {
         return authorRepository.findById(id).map(author -> {
+            String previousName = author.getName();
             author.setName(updatedAuthor.getName());
             author.setBirthDate(updatedAuthor.getBirthDate());
             author.setNationality(updatedAuthor.getNationality());
-            return authorRepository.save(author);
+            Author savedAuthor;
+            try {
+                savedAuthor = authorRepository.save(author);
+            } catch (DataIntegrityViolationException e) {
+                throw new IllegalArgumentException("Author name must be unique");
+            }
+            authorNameIndex.remove(previousName, savedAuthor.getId());
+            authorNameIndex.put(savedAuthor.getName(), savedAuthor.getId());
+            eventPublisher.publishEvent(new AuthorUpdateEvent(this, savedAuthor));
+            return savedAuthor;
         });
     }
 
@@ -51,6 +112,7 @@ public class AuthorService {
             eventPublisher.publishEvent(new AuthorDeleteEvent(this, author));
 
             authorRepository.delete(author);
+            authorNameIndex.remove(author.getName(), author.getId());
             return true;
         }).orElse(false);
     }
@@ -0,0 +1,152 @@
+package com.example.library.service;
+
+import com.example.library.dto.BookSearchCriteria;
+import com.example.library.index.AvailabilityIndex;
+import com.example.library.index.BookTitleIndex;
+import com.example.library.index.IsbnIndex;
+import com.example.library.index.PostingList;
+import com.example.library.repository.BookRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Turns a {@link BookSearchCriteria} into the ordered ids of the matching books.
+ * In-memory predicates (title, isbn, availability) are evaluated first since their cardinality is known exactly; database
+ * predicates then run in order of the number of rows they are estimated to match, and only over the surviving
+ * candidates, selecting ids rather than entities.
+ * <p>
+ * The genre estimate is the exact size of the genre's bitmap in {@link AvailabilityIndex}. No index holds author names
+ * or publication dates, so those estimates are fixed heuristics scaled to the catalogue size: an author substring is
+ * assumed to match one book in {@link #AUTHOR_SELECTIVITY}, and publication dates are assumed to spread evenly over
+ * {@link #PUBLICATION_SPAN_DAYS}.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookSearchPlanner {
+
+    static final int MAX_IN_LIST = 1000;
+    static final long AUTHOR_SELECTIVITY = 50;
+    static final long PUBLICATION_SPAN_DAYS = 100 * 365;
+
+    private static final LocalDate MIN_DATE = LocalDate.of(1, 1, 1);
+    private static final LocalDate MAX_DATE = LocalDate.of(9999, 12, 31);
+
+    private final BookRepository bookRepository;
+    private final BookTitleIndex bookTitleIndex;
+    private final IsbnIndex isbnIndex;
+    private final AvailabilityIndex availabilityIndex;
+
+    public List<Long> findIds(BookSearchCriteria criteria) {
+        if (criteria.isEmpty()) {
+            return List.of();
+        }
+        List<Long> titleRanking = null;
+        List<long[]> indexed = new ArrayList<>();
+        if (criteria.hasTitle()) {
+            titleRanking = bookTitleIndex.search(criteria.title());
+            long[] ids = titleRanking.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(ids);
+            indexed.add(ids);
+        }
+        if (criteria.hasIsbn()) {
+            indexed.add(isbnIndex.search(criteria.isbn()));
+        }
+        indexed.sort(Comparator.comparingInt(ids -> ids.length));
+
+        long[] candidates = null;
+        for (long[] ids : indexed) {
+            candidates = candidates == null ? ids : PostingList.intersect(candidates, ids);
+            if (candidates.length == 0) {
+                return List.of();
+            }
+        }
+        if (criteria.hasAvailability()) {
+            candidates = candidates == null
+                    ? availabilityIndex.ids(criteria.available())
+                    : availabilityIndex.filter(candidates, criteria.available());
+            if (candidates.length == 0) {
+                return List.of();
+            }
+        }
+        for (Step step : databaseSteps(criteria)) {
+            candidates = step.filter().apply(candidates);
+            if (candidates.length == 0) {
+                return List.of();
+            }
+        }
+
+        List<Long> result = new ArrayList<>(candidates.length);
+        if (titleRanking != null) {
+            for (Long id : titleRanking) {
+                if (Arrays.binarySearch(candidates, id) >= 0) {
+                    result.add(id);
+                }
+            }
+        } else {
+            for (long id : candidates) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    private List<Step> databaseSteps(BookSearchCriteria criteria) {
+        List<Step> steps = new ArrayList<>();
+        long books = availabilityIndex.counts().total();
+        if (criteria.hasAuthor()) {
+            String author = criteria.author();
+            steps.add(new Step(books / AUTHOR_SELECTIVITY, candidates -> restrict(candidates,
+                    () -> bookRepository.findIdsByAuthorNameContaining(author),
+                    ids -> bookRepository.findIdsByAuthorNameContainingAndIdIn(author, ids))));
+        }
+        if (criteria.hasPublicationRange()) {
+            LocalDate from = criteria.publishedFrom() != null ? criteria.publishedFrom() : MIN_DATE;
+            LocalDate to = criteria.publishedTo() != null ? criteria.publishedTo() : MAX_DATE;
+            long days = Math.min(ChronoUnit.DAYS.between(from, to) + 1, PUBLICATION_SPAN_DAYS);
+            steps.add(new Step(books * days / PUBLICATION_SPAN_DAYS, candidates -> restrict(candidates,
+                    () -> bookRepository.findIdsByPublicationDateBetween(from, to),
+                    ids -> bookRepository.findIdsByPublicationDateBetweenAndIdIn(from, to, ids))));
+        }
+        if (criteria.hasGenre()) {
+            String genre = criteria.genre();
+            steps.add(new Step(availabilityIndex.counts(genre).total(), candidates -> restrict(candidates,
+                    () -> bookRepository.findIdsByGenre(genre),
+                    ids -> bookRepository.findIdsByGenreAndIdIn(genre, ids))));
+        }
+        steps.sort(Comparator.comparingLong(Step::estimatedRows));
+        return steps;
+    }
+
+    private static long[] restrict(long[] candidates,
+                                   Supplier<List<Long>> unrestricted,
+                                   Function<List<Long>, List<Long>> restricted) {
+        if (candidates != null && candidates.length <= MAX_IN_LIST) {
+            List<Long> ids = new ArrayList<>(candidates.length);
+            for (long id : candidates) {
+                ids.add(id);
+            }
+            return toSortedArray(restricted.apply(ids));
+        }
+        long[] ids = toSortedArray(unrestricted.get());
+        return candidates == null ? ids : PostingList.intersect(candidates, ids);
+    }
+
+    private static long[] toSortedArray(List<Long> ids) {
+        long[] array = ids.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(array);
+        return array;
+    }
+
+    private record Step(long estimatedRows, UnaryOperator<long[]> filter) {
+    }
+}
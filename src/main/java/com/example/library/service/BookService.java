@@ -1,88 +1,218 @@
 package com.example.library.service;
 
+import com.example.library.config.CacheConfig;
+import com.example.library.dto.AvailabilityCounts;
+import com.example.library.dto.AvailabilitySummary;
+import com.example.library.dto.BookSearchCriteria;
+import com.example.library.dto.BookSummary;
 import com.example.library.event.BookDeleteEvent;
+import com.example.library.event.BookUpdateEvent;
+import com.example.library.index.AuthorNameIndex;
+import com.example.library.index.AvailabilityIndex;
+import com.example.library.index.BookTitleIndex;
+import com.example.library.index.IsbnIndex;
 import com.example.library.model.Author;
 import com.example.library.model.Book;
 import com.example.library.repository.AuthorRepository;
 import com.example.library.repository.BookRepository;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class BookService {
 
+    static final int MAX_BULK_SIZE = 10_000;
+    /**
+     * Upper bound on the books returned by an unpaged availability listing; larger catalogues are read with
+     * {@link #getBooksAfter(Long, int, boolean)}.
+     */
+    static final int MAX_UNPAGED_SIZE = 10_000;
+
     private final BookRepository bookRepository;
     private final AuthorRepository authorRepository;
     private final ApplicationEventPublisher eventPublisher;
+    private final BookTitleIndex bookTitleIndex;
+    private final IsbnIndex isbnIndex;
+    private final BookSearchPlanner bookSearchPlanner;
+    private final AuthorNameIndex authorNameIndex;
+    private final AuthorService authorService;
+    private final AvailabilityIndex availabilityIndex;
+    private final BulkWriter bulkWriter;
+    private final BorrowingRecordService borrowingRecordService;
+
+
+    public List<BookSummary> getAllBooks() {
+        return bookRepository.findAllSummaries();
+    }
+
+    public List<BookSummary> getBooksAfter(Long after, int limit) {
+        return bookRepository.findSummariesAfter(after, Limit.of(limit));
+    }
+
+    public List<BookSummary> getBooksAfter(Long after, int limit, boolean available) {
+        return loadSummariesInOrder(Arrays.stream(availabilityIndex.idsAfter(after, limit, available)).boxed().collect(Collectors.toList()));
+    }
 
+    /**
+     * The first {@link #MAX_UNPAGED_SIZE} books with the given availability, in id order.
+     */
+    public List<BookSummary> getBooksByAvailability(boolean available) {
+        return getBooksAfter(0L, MAX_UNPAGED_SIZE, available);
+    }
+
+    public AvailabilityCounts getAvailabilityCounts(String genre) {
+        return availabilityIndex.counts(genre);
+    }
 
-    public List<Book> getAllBooks() {
-        return bookRepository.findAll();
+    public AvailabilitySummary getAvailabilitySummary() {
+        AvailabilityCounts counts = availabilityIndex.counts();
+        return new AvailabilitySummary(counts.total(), counts.available(), availabilityIndex.countsByGenre());
     }
 
+    @Cacheable(cacheNames = CacheConfig.BOOKS, unless = "#result == null")
     public Optional<Book> getBookById(Long id) {
-        return bookRepository.findById(id);
+        return bookRepository.findById(id).filter(book -> !book.isPendingDeletion());
     }
 
     @Transactional
     public Book createBook(Book book) {
-        Author author = book.getAuthor();
+        attachAuthors(List.of(book));
+        Book savedBook = bookRepository.save(book);
+        indexBook(savedBook);
+        return savedBook;
+    }
 
-        if (author != null) {
-            Optional<Author> existingAuthor = authorRepository.findByName(author.getName());
+    /**
+     * Creates many books in one transaction, inserting them in JDBC batches through {@link BulkWriter}.
+     * Either all books are created or, if any is invalid, none.
+     */
+    @Transactional
+    public List<Book> createBooks(List<Book> books) {
+        if (books.size() > MAX_BULK_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BULK_SIZE + " books can be created at once");
+        }
+        books.forEach(book -> book.setId(null));
+        attachAuthors(books);
+        List<Book> savedBooks = bulkWriter.persistAll(books);
+        savedBooks.forEach(this::indexBook);
+        return savedBooks;
+    }
 
-            if (existingAuthor.isPresent()) {
-                book.setAuthor(existingAuthor.get());
-            } else {
-                author = authorRepository.save(author);
-                book.setAuthor(author);
+    /**
+     * Points each book at its author by name, answered from {@link AuthorNameIndex} when possible. Authors missing
+     * from the index are resolved together, and new ones inserted, in the caller's transaction, so they go away if the
+     * books do and only enter the index once that transaction commits.
+     */
+    private void attachAuthors(List<Book> books) {
+        Map<String, Long> authorIds = new HashMap<>();
+        Map<String, Author> missing = new LinkedHashMap<>();
+        for (Book book : books) {
+            Author author = book.getAuthor();
+            if (author == null) {
+                continue;
+            }
+            String name = author.getName();
+            if (name == null || name.isBlank()) {
+                throw new IllegalArgumentException("Author name is required");
+            }
+            Long authorId = authorIds.containsKey(name) ? authorIds.get(name) : authorNameIndex.get(name);
+            if (authorId == null) {
+                missing.putIfAbsent(name, author);
+            }
+            authorIds.put(name, authorId);
+        }
+        if (!missing.isEmpty()) {
+            Map<String, Long> resolved = authorService.findOrCreateAuthorIds(List.copyOf(missing.values()));
+            authorIds.putAll(resolved);
+            AfterCommit.run(() -> resolved.forEach(authorNameIndex::putIfAbsent));
+        }
+        for (Book book : books) {
+            if (book.getAuthor() != null) {
+                book.setAuthor(authorRepository.getReferenceById(authorIds.get(book.getAuthor().getName())));
             }
         }
-
-        return bookRepository.save(book);
     }
 
     public Optional<Book> updateBook(Long id, Book updatedBook) {
         return bookRepository.findById(id)
+                .filter(book -> !book.isPendingDeletion())
                 .map(existingBook -> {
                     existingBook.setTitle(updatedBook.getTitle());
                     existingBook.setAuthor(updatedBook.getAuthor());
                     existingBook.setIsbn(updatedBook.getIsbn());
                     existingBook.setPublicationDate(updatedBook.getPublicationDate());
-                    return bookRepository.save(existingBook);
+                    Book savedBook = bookRepository.save(existingBook);
+                    indexBook(savedBook);
+                    eventPublisher.publishEvent(new BookUpdateEvent(this, savedBook));
+                    return savedBook;
                 });
     }
 
+    /**
+     * Accepts the deletion of a book. The book is flagged pending deletion and taken out of circulation right away;
+     * its history and the row itself are purged in the background by {@link HistoryPurger}. A book already pending
+     * deletion counts as not found. The check runs under the book's stripe lock, so a concurrent borrow either lands
+     * first and blocks the deletion or sees the book gone.
+     */
+    @Transactional
     public boolean deleteBook(Long id) {
-        return bookRepository.findById(id)
+        return borrowingRecordService.withBookLock(id, () -> bookRepository.findById(id)
+                .filter(book -> !book.isPendingDeletion())
                 .map(book -> {
                     if (!book.isAvailable()) {
                         throw new IllegalArgumentException("The book is currently borrowed and cannot be deleted.");
                     }
+                    book.setAvailable(false);
+                    book.setPendingDeletion(true);
+                    bookRepository.save(book);
                     eventPublisher.publishEvent(new BookDeleteEvent(this, book));
-                    bookRepository.delete(book);
+                    AfterCommit.run(() -> {
+                        bookTitleIndex.remove(id);
+                        isbnIndex.remove(id);
+                        availabilityIndex.remove(id);
+                    });
                     return true;
                 })
-                .orElse(false);
+                .orElse(false));
     }
 
 
-    public List<Book> searchBooksByTitle(String title) {
-        return bookRepository.findByTitleContaining(title);
+    public List<BookSummary> searchBooks(BookSearchCriteria criteria) {
+        return loadSummariesInOrder(bookSearchPlanner.findIds(criteria));
     }
 
-    public List<Book> searchBooksByAuthor(String authorName) {
-        return bookRepository.findByAuthor_NameContaining(authorName);
+    private void indexBook(Book book) {
+        AfterCommit.run(() -> {
+            bookTitleIndex.index(book.getId(), book.getTitle());
+            isbnIndex.index(book.getId(), book.getIsbn());
+            availabilityIndex.index(book.getId(), book.getGenre(), book.isAvailable());
+        });
     }
 
-    public List<Book> searchBooksByIsbn(String isbn) {
-        return bookRepository.findByIsbnContaining(isbn);
+    private List<BookSummary> loadSummariesInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, BookSummary> booksById = bookRepository.findSummariesByIdIn(ids).stream()
+                .collect(Collectors.toMap(BookSummary::id, Function.identity()));
+        return ids.stream()
+                .map(booksById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
     }
-
 }
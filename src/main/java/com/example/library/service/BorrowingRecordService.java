@@ -1,36 +1,83 @@
 package com.example.library.service;
 
+import com.example.library.config.LoanProperties;
+import com.example.library.dto.BatchBorrowRequest;
+import com.example.library.dto.BatchBorrowResponse;
+import com.example.library.dto.BatchBorrowResult;
+import com.example.library.dto.BatchReturnRequest;
+import com.example.library.dto.BatchReturnResponse;
+import com.example.library.dto.BorrowingSummary;
+import com.example.library.event.BookUpdateEvent;
+import com.example.library.event.BooksReturnedEvent;
+import com.example.library.event.HoldsPromotedEvent;
+import com.example.library.event.LoansCreatedEvent;
 import com.example.library.exception.BookAlreadyBorrowedException;
 import com.example.library.exception.BookNotFoundException;
+import com.example.library.exception.BorrowLimitExceededException;
 import com.example.library.exception.BorrowingRecordAlreadyExistsException;
 import com.example.library.exception.CustomerNotFoundException;
+import com.example.library.exception.LoanAlreadyReturnedException;
+import com.example.library.index.ActiveLoanIndex;
+import com.example.library.index.AvailabilityIndex;
+import com.example.library.index.HoldEntry;
+import com.example.library.index.HoldQueues;
+import com.example.library.index.LoanKey;
+import com.example.library.index.OpenLoan;
+import com.example.library.index.OverdueLoanIndex;
 import com.example.library.model.Book;
 import com.example.library.model.BorrowingRecord;
 import com.example.library.model.Customer;
 import com.example.library.repository.BookRepository;
 import com.example.library.repository.BorrowingRecordRepository;
 import com.example.library.repository.CustomerRepository;
+import com.example.library.repository.HoldRepository;
 import jakarta.transaction.Transactional;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class BorrowingRecordService {
 
+    static final int MAX_BATCH_SIZE = 100;
+    static final int DEFAULT_LOAN_DAYS = 14;
+    static final int MAX_RETURN_BATCH_SIZE = 10_000;
+    private static final int RETURN_CHUNK_SIZE = 1_000;
+    private static final int BOOK_LOCK_STRIPES = 256;
+
     private final BorrowingRecordRepository borrowingRecordRepository;
     private final CustomerRepository customerRepository;
     private final BookRepository bookRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AvailabilityIndex availabilityIndex;
+    private final OverdueLoanIndex overdueLoanIndex;
+    private final ActiveLoanIndex activeLoanIndex;
+    private final LoanProperties loanProperties;
+    private final HoldRepository holdRepository;
+    private final HoldQueues holdQueues;
+    private final StripedLocks bookLocks = new StripedLocks(BOOK_LOCK_STRIPES);
 
-    public List<BorrowingRecord> getAllBorrowingRecords() {
-        return borrowingRecordRepository.findAll();
+    public List<BorrowingSummary> getAllBorrowingRecords() {
+        return borrowingRecordRepository.findAllSummaries();
     }
 
     public Optional<BorrowingRecord> getBorrowingRecordById(Long id) {
@@ -41,53 +88,419 @@ public class BorrowingRecordService {
     @Transactional
     public BorrowingRecord createBorrowingRecord(BorrowingRecord borrowingRecord) {
         try {
-            Optional<Customer> customer = customerRepository.findById(borrowingRecord.getCustomer().getId());
+            Optional<Customer> customer = customerRepository.findByIdForShare(borrowingRecord.getCustomer().getId())
+                    .filter(existing -> !existing.isPendingDeletion());
             if (customer.isEmpty()) {
                 throw new CustomerNotFoundException("Customer does not exist");
             }
 
-            Optional<Book> book = bookRepository.findById(borrowingRecord.getBook().getId());
-            if (book.isEmpty()) {
-                throw new BookNotFoundException("Book does not exist");
-            }
-            if (!book.get().isAvailable()) {
+            Long bookId = borrowingRecord.getBook().getId();
+            if (bookId != null && availabilityIndex.contains(bookId) && !availabilityIndex.isAvailable(bookId)) {
                 throw new BookAlreadyBorrowedException("Book is already borrowed");
             }
 
-            Optional<BorrowingRecord> existingRecord = borrowingRecordRepository.findByCustomerAndBookAndBorrowDate(
-                    customer.get(), book.get(), borrowingRecord.getBorrowDate());
-            if (existingRecord.isPresent()) {
-                throw new BorrowingRecordAlreadyExistsException("Borrowing record with the same customer, book, and borrow date already exists");
+            Customer borrower = customer.get();
+            if (!activeLoanIndex.tryReserve(borrower.getId(), loanProperties.maxPerCustomer())) {
+                throw new BorrowLimitExceededException("Customer already has " + loanProperties.maxPerCustomer() + " books on loan");
             }
-            book.get().setAvailable(false);
-            borrowingRecord.setCustomer(customer.get());
-            borrowingRecord.setBook(book.get());
+            BorrowingRecord savedRecord;
+            try {
+                savedRecord = bookLocks.withLock(bookId == null ? 0L : bookId, () -> lend(borrowingRecord, borrower, bookId));
+            } catch (RuntimeException e) {
+                activeLoanIndex.release(borrower.getId(), 1);
+                throw e;
+            }
+            AfterCommit.run(() -> activeLoanIndex.add(borrower.getId(), bookId),
+                    () -> activeLoanIndex.release(borrower.getId(), 1));
+            return savedRecord;
 
-            return borrowingRecordRepository.save(borrowingRecord);
+        } catch (ConstraintViolationException e) {
+            throw new IllegalArgumentException(describe(e));
+        }
+    }
 
+    /**
+     * Borrows several books for one customer in a single transaction. Customer, books and existing records are each
+     * loaded with one query, records are inserted as a JDBC batch, and every requested book gets its own result.
+     */
+    @Transactional
+    public BatchBorrowResponse borrowBooks(BatchBorrowRequest request) {
+        if (request.customerId() == null || request.bookIds() == null || request.bookIds().isEmpty()
+                || request.bookIds().stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("customerId and a non-empty list of bookIds are required");
+        }
+        if (request.bookIds().size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " books can be borrowed at once");
+        }
+        Customer customer = customerRepository.findByIdForShare(request.customerId())
+                .filter(existing -> !existing.isPendingDeletion())
+                .orElseThrow(() -> new CustomerNotFoundException("Customer does not exist"));
+        LocalDate borrowDate = request.borrowDate() != null ? request.borrowDate() : LocalDate.now();
+        LocalDate returnDate = request.returnDate() != null ? request.returnDate() : borrowDate.plusDays(DEFAULT_LOAN_DAYS);
+        Set<Long> bookIds = new LinkedHashSet<>(request.bookIds());
+        try {
+            return bookLocks.withLocks(bookIds, () -> lendAll(customer, request.bookIds(), bookIds, borrowDate, returnDate));
         } catch (ConstraintViolationException e) {
-            Set<ConstraintViolation<?>> violations = e.getConstraintViolations();
+            throw new IllegalArgumentException(describe(e));
+        }
+    }
+
+    /**
+     * Runs under the book's stripe lock, which is held until the transaction completes, so concurrent borrowers of
+     * the same book in this instance see each other's committed result. Book's version column catches other instances.
+     */
+    private BorrowingRecord lend(BorrowingRecord borrowingRecord, Customer borrower, Long bookId) {
+        Optional<Book> book = bookRepository.findById(bookId).filter(existing -> !existing.isPendingDeletion());
+        if (book.isEmpty()) {
+            throw new BookNotFoundException("Book does not exist");
+        }
+        if (!book.get().isAvailable()) {
+            throw new BookAlreadyBorrowedException("Book is already borrowed");
+        }
+
+        book.get().setAvailable(false);
+        borrowingRecord.setCustomer(borrower);
+        borrowingRecord.setBook(book.get());
+
+        // flushed here so a second loan of the same book to the same customer on the same day trips the unique
+        // constraint now, instead of being looked up before every insert
+        BorrowingRecord savedRecord;
+        try {
+            savedRecord = borrowingRecordRepository.saveAndFlush(borrowingRecord);
+        } catch (DataIntegrityViolationException e) {
+            if (violates(e, BorrowingRecord.UNIQUE_LOAN)) {
+                throw new BorrowingRecordAlreadyExistsException("Borrowing record with the same customer, book, and borrow date already exists");
+            }
+            throw e;
+        }
+        fulfilHold(borrower.getId(), bookId);
+        eventPublisher.publishEvent(new BookUpdateEvent(this, book.get()));
+        OpenLoan loan = openLoan(savedRecord);
+        eventPublisher.publishEvent(new LoansCreatedEvent(this, List.of(loan)));
+        AfterCommit.run(() -> {
+            availabilityIndex.setAvailable(bookId, false);
+            overdueLoanIndex.add(loan);
+        });
+        return savedRecord;
+    }
 
-            StringBuilder errorMessage = new StringBuilder();
+    private BatchBorrowResponse lendAll(Customer customer, List<Long> requested, Set<Long> bookIds,
+                                        LocalDate borrowDate, LocalDate returnDate) {
+        Map<Long, Book> books = bookRepository.findAllById(bookIds).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        Set<Long> alreadyRecorded = new HashSet<>(borrowingRecordRepository
+                .findBookIdsByCustomerIdAndBorrowDateAndBookIdIn(customer.getId(), borrowDate, bookIds));
 
-            for (ConstraintViolation<?> violation : violations) {
-                errorMessage.append(" ").append(violation.getPropertyPath()).append(": ").append(violation.getMessage());
+        List<BatchBorrowResult> results = new ArrayList<>(requested.size());
+        List<BorrowingRecord> records = new ArrayList<>();
+        List<Integer> recordSlots = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        for (Long bookId : requested) {
+            Book book = books.get(bookId);
+            BatchBorrowResult.Status status;
+            if (!seen.add(bookId)) {
+                status = BatchBorrowResult.Status.DUPLICATE_IN_REQUEST;
+            } else if (book == null || book.isPendingDeletion()) {
+                status = BatchBorrowResult.Status.BOOK_NOT_FOUND;
+            } else if (!book.isAvailable()) {
+                status = BatchBorrowResult.Status.ALREADY_BORROWED;
+            } else if (alreadyRecorded.contains(bookId)) {
+                status = BatchBorrowResult.Status.ALREADY_EXISTS;
+            } else if (!activeLoanIndex.tryReserve(customer.getId(), loanProperties.maxPerCustomer())) {
+                status = BatchBorrowResult.Status.BORROW_LIMIT_REACHED;
+            } else {
+                book.setAvailable(false);
+                records.add(new BorrowingRecord(null, customer, book, borrowDate, returnDate));
+                recordSlots.add(results.size());
+                status = BatchBorrowResult.Status.BORROWED;
             }
+            results.add(new BatchBorrowResult(bookId, status, null));
+        }
+
+        List<BorrowingRecord> savedRecords;
+        try {
+            savedRecords = borrowingRecordRepository.saveAll(records);
+        } catch (RuntimeException e) {
+            activeLoanIndex.release(customer.getId(), records.size());
+            throw e;
+        }
+        AfterCommit.run(() -> records.forEach(record -> activeLoanIndex.add(customer.getId(), record.getBook().getId())),
+                () -> activeLoanIndex.release(customer.getId(), records.size()));
+        List<Long> lentIds = new ArrayList<>(savedRecords.size());
+        List<OpenLoan> loans = new ArrayList<>(savedRecords.size());
+        for (int i = 0; i < savedRecords.size(); i++) {
+            BorrowingRecord saved = savedRecords.get(i);
+            Long bookId = saved.getBook().getId();
+            results.set(recordSlots.get(i), new BatchBorrowResult(bookId, BatchBorrowResult.Status.BORROWED, saved.getId()));
+            lentIds.add(bookId);
+            loans.add(openLoan(saved));
+            fulfilHold(customer.getId(), bookId);
+            eventPublisher.publishEvent(new BookUpdateEvent(this, saved.getBook()));
+        }
+        if (!loans.isEmpty()) {
+            eventPublisher.publishEvent(new LoansCreatedEvent(this, loans));
+        }
+        AfterCommit.run(() -> {
+            lentIds.forEach(id -> availabilityIndex.setAvailable(id, false));
+            loans.forEach(overdueLoanIndex::add);
+        });
+        return new BatchBorrowResponse(customer.getId(), savedRecords.size(), results);
+    }
+
+    /**
+     * Closes one open loan. The record is re-read and closed under its book's stripe lock, so of two concurrent
+     * returns of the same record one wins and the other gets {@link LoanAlreadyReturnedException}. The book goes to
+     * its next hold or becomes available only once no other loan of it is still open.
+     */
+    @Transactional
+    public Optional<BorrowingRecord> returnBorrowingRecord(Long id, LocalDate returnedOn) {
+        Optional<BorrowingRecord> borrowingRecord = borrowingRecordRepository.findById(id);
+        if (borrowingRecord.isEmpty()) {
+            return Optional.empty();
+        }
+        Long bookId = borrowingRecord.get().getBook().getId();
+        LocalDate date = returnDate(returnedOn, borrowingRecord.get().getBorrowDate());
+        bookLocks.withLock(bookId == null ? 0L : bookId, () -> {
+            OpenLoan loan = borrowingRecordRepository.findOpenLoanById(id)
+                    .orElseThrow(() -> new LoanAlreadyReturnedException("Borrowing record has already been returned"));
+            if (borrowingRecordRepository.closeOpenLoan(id, date) == 0) {
+                throw new LoanAlreadyReturnedException("Borrowing record has already been returned");
+            }
+            List<Long> vacated = borrowingRecordRepository.existsByBookIdAndReturnedOnIsNull(loan.bookId())
+                    ? List.of() : List.of(loan.bookId());
+            release(List.of(loan), List.of(loan.bookId()), vacated);
+            return loan;
+        });
+        return borrowingRecordRepository.findById(id);
+    }
+
+    /**
+     * Returns every book in the request that is currently on loan. Each chunk of up to {@value #RETURN_CHUNK_SIZE}
+     * books costs one select and two bulk updates, whatever the number of loans it closes.
+     */
+    @Transactional
+    public BatchReturnResponse returnBooks(BatchReturnRequest request) {
+        if (request.bookIds() == null || request.bookIds().isEmpty()
+                || request.bookIds().stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("A non-empty list of bookIds is required");
+        }
+        if (request.bookIds().size() > MAX_RETURN_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_RETURN_BATCH_SIZE + " books can be returned at once");
+        }
+        LocalDate returnedOn = returnDate(request.returnedOn(), null);
+        Set<Long> bookIds = new LinkedHashSet<>(request.bookIds());
+        List<Long> returned = bookLocks.withLocks(bookIds, () -> {
+            List<Long> ids = new ArrayList<>(bookIds);
+            List<Long> closed = new ArrayList<>();
+            for (int from = 0; from < ids.size(); from += RETURN_CHUNK_SIZE) {
+                closed.addAll(restore(ids.subList(from, Math.min(from + RETURN_CHUNK_SIZE, ids.size())), returnedOn));
+            }
+            return closed;
+        });
+        Set<Long> returnedIds = new HashSet<>(returned);
+        List<Long> notOnLoan = bookIds.stream()
+                .filter(bookId -> !returnedIds.contains(bookId))
+                .collect(Collectors.toList());
+        return new BatchReturnResponse(returned.size(), notOnLoan);
+    }
 
-            throw new IllegalArgumentException(errorMessage.toString());
+    /**
+     * Closes the open loans of the given books and flips them back to available. Must run under the books' stripe
+     * locks.
+     */
+    private List<Long> restore(List<Long> bookIds, LocalDate returnedOn) {
+        List<OpenLoan> loans = borrowingRecordRepository.findOpenLoansByBookIdIn(bookIds);
+        List<Long> onLoan = loans.stream().map(OpenLoan::bookId).distinct().collect(Collectors.toList());
+        if (onLoan.isEmpty()) {
+            return onLoan;
         }
+        borrowingRecordRepository.closeOpenLoans(onLoan, returnedOn);
+        release(loans, onLoan, onLoan);
+        return onLoan;
+    }
+
+    /**
+     * Follows up on closed loans: each vacated book, one left with no open loan, goes to its next hold or becomes
+     * available, then the availability index and the caches catch up once the transaction commits.
+     */
+    private void release(List<OpenLoan> closed, List<Long> returnedBookIds, List<Long> vacated) {
+        Set<Long> promoted = promoteHolds(vacated);
+        List<Long> freed = vacated.stream()
+                .filter(bookId -> !promoted.contains(bookId))
+                .collect(Collectors.toList());
+        if (!freed.isEmpty()) {
+            bookRepository.markAvailable(freed);
+        }
+        eventPublisher.publishEvent(new BooksReturnedEvent(this, returnedBookIds, freed));
+        AfterCommit.run(() -> {
+            freed.forEach(id -> availabilityIndex.setAvailable(id, true));
+            closed.forEach(loan -> {
+                overdueLoanIndex.remove(loan.borrowingRecordId());
+                activeLoanIndex.remove(loan.customerId(), loan.bookId());
+            });
+        });
+    }
+
+    /**
+     * Lends each returned book straight to its oldest hold whose customer is under the borrow limit, so the book
+     * never becomes available in between. Holds of customers at the limit stay queued, and so do holds of customers
+     * who already borrowed the book today, whose loan would break {@link BorrowingRecord#UNIQUE_LOAN}; those are
+     * found with one query for all the books. Returns the promoted book ids.
+     */
+    private Set<Long> promoteHolds(List<Long> bookIds) {
+        List<Long> held = bookIds.stream().filter(holdQueues::hasHolds).collect(Collectors.toList());
+        if (held.isEmpty()) {
+            return Set.of();
+        }
+        LocalDate borrowDate = LocalDate.now();
+        Set<LoanKey> borrowedToday = new HashSet<>(
+                borrowingRecordRepository.findLoanKeysByBorrowDateAndBookIdIn(borrowDate, held));
+        List<HoldEntry> promoted = new ArrayList<>();
+        for (Long bookId : held) {
+            for (HoldEntry hold : holdQueues.queue(bookId)) {
+                if (!borrowedToday.contains(new LoanKey(hold.bookId(), hold.customerId()))
+                        && activeLoanIndex.tryReserve(hold.customerId(), loanProperties.maxPerCustomer())) {
+                    promoted.add(hold);
+                    break;
+                }
+            }
+        }
+        if (promoted.isEmpty()) {
+            return Set.of();
+        }
+        List<BorrowingRecord> records = promoted.stream()
+                .map(hold -> new BorrowingRecord(null, customerRepository.getReferenceById(hold.customerId()),
+                        bookRepository.getReferenceById(hold.bookId()), borrowDate, borrowDate.plusDays(DEFAULT_LOAN_DAYS)))
+                .collect(Collectors.toList());
+        List<OpenLoan> loans;
+        try {
+            loans = borrowingRecordRepository.saveAll(records).stream()
+                    .map(BorrowingRecordService::openLoan)
+                    .collect(Collectors.toList());
+            holdRepository.deleteAllByIdInBatch(promoted.stream().map(HoldEntry::holdId).collect(Collectors.toList()));
+        } catch (RuntimeException e) {
+            promoted.forEach(hold -> activeLoanIndex.release(hold.customerId(), 1));
+            throw e;
+        }
+        eventPublisher.publishEvent(new HoldsPromotedEvent(this, loans));
+        AfterCommit.run(() -> {
+            promoted.forEach(hold -> {
+                holdQueues.remove(hold);
+                activeLoanIndex.add(hold.customerId(), hold.bookId());
+            });
+            loans.forEach(overdueLoanIndex::add);
+        }, () -> promoted.forEach(hold -> activeLoanIndex.release(hold.customerId(), 1)));
+        return promoted.stream().map(HoldEntry::bookId).collect(Collectors.toSet());
+    }
+
+    /**
+     * Drops the customer's hold on a book they have just borrowed themselves.
+     */
+    private void fulfilHold(Long customerId, Long bookId) {
+        HoldEntry hold = holdQueues.find(bookId, customerId);
+        if (hold != null) {
+            holdRepository.deleteById(hold.holdId());
+            AfterCommit.run(() -> holdQueues.remove(hold));
+        }
+    }
+
+    /**
+     * Runs {@code action} under the book's stripe lock, held until the surrounding transaction completes.
+     */
+    <T> T withBookLock(long bookId, Supplier<T> action) {
+        return bookLocks.withLock(bookId, action);
+    }
+
+    <T> T withBookLocks(Collection<Long> bookIds, Supplier<T> action) {
+        return bookLocks.withLocks(bookIds, action);
+    }
+
+    /**
+     * Hands on the books whose loans were deleted rather than returned, as when their borrower is purged: each book
+     * left with no open loan goes to its next hold or becomes available. Must run under the books' stripe locks.
+     */
+    void releaseBooks(Collection<Long> bookIds) {
+        if (bookIds.isEmpty()) {
+            return;
+        }
+        Set<Long> stillOnLoan = borrowingRecordRepository.findOpenLoansByBookIdIn(bookIds).stream()
+                .map(OpenLoan::bookId)
+                .collect(Collectors.toSet());
+        List<Long> vacated = bookIds.stream()
+                .filter(bookId -> !stillOnLoan.contains(bookId))
+                .collect(Collectors.toList());
+        release(List.of(), List.copyOf(bookIds), vacated);
+    }
+
+    private static OpenLoan openLoan(BorrowingRecord borrowingRecord) {
+        return new OpenLoan(borrowingRecord.getId(), borrowingRecord.getBook().getId(),
+                borrowingRecord.getCustomer().getId(), borrowingRecord.getReturnDate());
+    }
+
+    private void moveActiveLoan(OpenLoan from, OpenLoan to) {
+        removeActiveLoan(from);
+        if (to.customerId() != null && to.bookId() != null) {
+            activeLoanIndex.track(to.customerId(), to.bookId());
+        }
+    }
+
+    private void removeActiveLoan(OpenLoan loan) {
+        if (loan.customerId() != null && loan.bookId() != null) {
+            activeLoanIndex.remove(loan.customerId(), loan.bookId());
+        }
+    }
+
+    private static LocalDate returnDate(LocalDate returnedOn, LocalDate borrowDate) {
+        LocalDate date = returnedOn != null ? returnedOn : LocalDate.now();
+        if (date.isAfter(LocalDate.now())) {
+            throw new IllegalArgumentException("returnedOn cannot be in the future");
+        }
+        if (borrowDate != null && date.isBefore(borrowDate)) {
+            throw new IllegalArgumentException("returnedOn cannot be before the borrow date");
+        }
+        return date;
+    }
+
+    private static String describe(ConstraintViolationException e) {
+        Set<ConstraintViolation<?>> violations = e.getConstraintViolations();
+
+        StringBuilder errorMessage = new StringBuilder();
+
+        for (ConstraintViolation<?> violation : violations) {
+            errorMessage.append(" ").append(violation.getPropertyPath()).append(": ").append(violation.getMessage());
+        }
+
+        return errorMessage.toString();
+    }
+
+    private static boolean violates(DataIntegrityViolationException e, String constraint) {
+        String message = e.getMostSpecificCause().getMessage();
+        return message != null && message.toLowerCase(Locale.ROOT).contains(constraint);
     }
 
     public Optional<BorrowingRecord> updateBorrowingRecord(Long id, BorrowingRecord updatedBorrowingRecord) {
         return borrowingRecordRepository.findById(id).map(existingRecord -> {
+            OpenLoan previousLoan = existingRecord.getReturnedOn() == null ? openLoan(existingRecord) : null;
             existingRecord.setCustomer(updatedBorrowingRecord.getCustomer());
             existingRecord.setBook(updatedBorrowingRecord.getBook());
             existingRecord.setBorrowDate(updatedBorrowingRecord.getBorrowDate());
             existingRecord.setReturnDate(updatedBorrowingRecord.getReturnDate());
-            return borrowingRecordRepository.save(existingRecord);
+            BorrowingRecord savedRecord = borrowingRecordRepository.save(existingRecord);
+            if (previousLoan != null) {
+                OpenLoan loan = openLoan(savedRecord);
+                AfterCommit.run(() -> {
+                    overdueLoanIndex.add(loan);
+                    moveActiveLoan(previousLoan, loan);
+                });
+            }
+            return savedRecord;
         });
     }
 
+    /**
+     * Deletes a returned loan whose due date has passed. An open loan is refused, since deleting it would leave its
+     * book unavailable with nothing left to return.
+     */
     @Transactional
     public boolean deleteBorrowingRecord(Long id) {
         if (borrowingRecordRepository.existsById(id)) {
@@ -97,6 +510,9 @@ public class BorrowingRecordService {
             if (borrowingRecord.getReturnDate().isAfter(LocalDate.now())) {
                 throw new IllegalArgumentException("The return date is still in the future, and the borrowing record cannot be deleted.");
             }
+            if (borrowingRecord.getReturnedOn() == null) {
+                throw new IllegalArgumentException("The book has not been returned yet; return it before deleting the borrowing record.");
+            }
 
             borrowingRecordRepository.deleteById(id);
             return true;
@@ -107,11 +523,26 @@ public class BorrowingRecordService {
 
 
 
-    public List<BorrowingRecord> findBorrowingRecordsByUserId(Long userId) {
-        return borrowingRecordRepository.findByCustomerId(userId);
+    public List<BorrowingSummary> findBorrowingRecordsByUserId(Long userId) {
+        return borrowingRecordRepository.findSummariesByCustomerId(userId);
+    }
+
+    public List<BorrowingSummary> findBorrowingRecordsByBookId(Long bookId) {
+        return borrowingRecordRepository.findSummariesByBookId(bookId);
+    }
+
+    /**
+     * Open loans of a customer. Customers with nothing on loan are answered from {@link ActiveLoanIndex}
+     * without a query.
+     */
+    public List<BorrowingSummary> findActiveBorrowingRecordsByUserId(Long userId) {
+        if (activeLoanIndex.count(userId) == 0) {
+            return List.of();
+        }
+        return borrowingRecordRepository.findOpenSummariesByCustomerId(userId);
     }
 
-    public List<BorrowingRecord> findBorrowingRecordsByBookId(Long bookId) {
-        return borrowingRecordRepository.findByBookId(bookId);
+    public List<BorrowingSummary> findActiveBorrowingRecordsByBookId(Long bookId) {
+        return borrowingRecordRepository.findOpenSummariesByBookId(bookId);
     }
 }
@@ -0,0 +1,43 @@
+package com.example.library.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Inserts many new entities with as few round trips as possible. Ids come from pooled sequences, so Hibernate can
+ * assign them without touching the database and group the inserts into JDBC batches of
+ * {@code hibernate.jdbc.batch_size}. The persistence context is flushed and cleared after every batch to keep memory
+ * flat, which also detaches anything else the caller's transaction had loaded. Declared a repository so that
+ * constraint failures from those flushes reach callers as Spring's {@code DataIntegrityViolationException}, the same
+ * as from the Spring Data repositories.
+ */
+@Repository
+public class BulkWriter {
+
+    private final EntityManager entityManager;
+    private final int batchSize;
+
+    public BulkWriter(EntityManager entityManager,
+                      @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize) {
+        this.entityManager = entityManager;
+        this.batchSize = batchSize;
+    }
+
+    @Transactional
+    public <T> List<T> persistAll(List<T> entities) {
+        for (int i = 0; i < entities.size(); i++) {
+            entityManager.persist(entities.get(i));
+            if ((i + 1) % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return entities;
+    }
+}
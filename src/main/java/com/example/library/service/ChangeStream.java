@@ -0,0 +1,103 @@
+package com.example.library.service;
+
+import com.example.library.config.StreamProperties;
+import com.example.library.dto.ChangeEvent;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fans change events out to Server-Sent Events subscribers. Publishing only enqueues into each subscriber's bounded
+ * buffer; a small pool writes the buffers to the connections. A subscriber whose buffer is full has fallen too far
+ * behind and is disconnected, so a slow client never holds up publishers or other subscribers.
+ */
+@Service
+public class ChangeStream implements DisposableBean {
+
+    private final StreamProperties properties;
+    private final ExecutorService dispatcher;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public ChangeStream(StreamProperties properties) {
+        this(properties, Executors.newFixedThreadPool(properties.dispatchThreads()));
+    }
+
+    ChangeStream(StreamProperties properties, ExecutorService dispatcher) {
+        this.properties = properties;
+        this.dispatcher = dispatcher;
+    }
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(properties.timeout().toMillis());
+        Subscriber subscriber = new Subscriber(emitter, properties.bufferSize());
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        return emitter;
+    }
+
+    public void publish(ChangeEvent event) {
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.buffer.offer(event)) {
+                drop(subscriber);
+            } else if (subscriber.draining.compareAndSet(false, true)) {
+                dispatcher.execute(() -> drain(subscriber));
+            }
+        }
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            do {
+                ChangeEvent event;
+                while ((event = subscriber.buffer.poll()) != null) {
+                    subscriber.emitter.send(SseEmitter.event().name(event.type().name()).data(event));
+                }
+                subscriber.draining.set(false);
+            } while (!subscriber.buffer.isEmpty() && subscriber.draining.compareAndSet(false, true));
+        } catch (IOException | IllegalStateException e) {
+            drop(subscriber);
+        }
+    }
+
+    private void drop(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            subscriber.buffer.clear();
+            subscriber.emitter.complete();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        dispatcher.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final Queue<ChangeEvent> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter, int bufferSize) {
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+    }
+}
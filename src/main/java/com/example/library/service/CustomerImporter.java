@@ -0,0 +1,301 @@
+package com.example.library.service;
+
+import com.example.library.config.ImportProperties;
+import com.example.library.dto.CustomerImportError;
+import com.example.library.dto.CustomerImportReport;
+import com.example.library.index.EmailBloomFilter;
+import com.example.library.model.Customer;
+import com.example.library.repository.CustomerRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Imports customers from a CSV or NDJSON stream. The input is read line by line and handled in batches of
+ * {@code library.import.batch-size} rows: each batch is validated, its passwords hashed in parallel and its rows
+ * inserted in JDBC batches through {@link BulkWriter}, so memory stays bounded by the batch size however long the
+ * file is. A row that fails validation or whose email is taken is reported and skipped; the rest of the file is
+ * still imported.
+ */
+@Service
+public class CustomerImporter {
+
+    public enum Format { CSV, NDJSON }
+
+    private static final List<String> CSV_COLUMNS = List.of("name", "email", "address", "phonenumber", "password");
+    private static final String EMAIL_TAKEN = "Email must be unique";
+
+    private final CustomerRepository customerRepository;
+    private final PasswordHasher passwordHasher;
+    private final EmailBloomFilter emailBloomFilter;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final BulkWriter bulkWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final ImportProperties properties;
+
+    public CustomerImporter(CustomerRepository customerRepository,
+                            PasswordHasher passwordHasher,
+                            EmailBloomFilter emailBloomFilter,
+                            Validator validator,
+                            ObjectMapper objectMapper,
+                            BulkWriter bulkWriter,
+                            PlatformTransactionManager transactionManager,
+                            ImportProperties properties) {
+        this.customerRepository = customerRepository;
+        this.passwordHasher = passwordHasher;
+        this.emailBloomFilter = emailBloomFilter;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.bulkWriter = bulkWriter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+    }
+
+    public CustomerImportReport importCustomers(InputStream input, Format format) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        Report report = new Report(properties.maxReportedErrors());
+        RowParser parser;
+        long lineNumber = 0;
+        if (format == Format.CSV) {
+            String header = reader.readLine();
+            lineNumber++;
+            if (header == null) {
+                throw new IllegalArgumentException("The CSV file has no header row");
+            }
+            parser = csvParser(header);
+        } else {
+            parser = this::parseJson;
+        }
+
+        List<Row> batch = new ArrayList<>(properties.batchSize());
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                batch.add(new Row(lineNumber, parser.parse(line)));
+            } catch (IllegalArgumentException e) {
+                report.reject(lineNumber, null, e.getMessage());
+            }
+            if (batch.size() == properties.batchSize()) {
+                importBatch(batch, report);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            importBatch(batch, report);
+        }
+        return report.toReport();
+    }
+
+    private void importBatch(List<Row> batch, Report report) {
+        List<Row> valid = new ArrayList<>(batch.size());
+        Set<String> emails = new HashSet<>();
+        for (Row row : batch) {
+            String problem = validate(row.customer());
+            if (problem != null) {
+                report.reject(row, problem);
+            } else if (!emails.add(row.customer().getEmail())) {
+                report.reject(row, "Duplicate email in the file");
+            } else {
+                valid.add(row);
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        // emails from earlier batches are already inserted and in the filter, so this also catches duplicates across
+        // the file; only emails the filter may have seen are looked up
+        List<String> maybeTaken = emails.stream().filter(emailBloomFilter::mightContain).toList();
+        Set<String> taken = maybeTaken.isEmpty() ? Set.of() : new HashSet<>(customerRepository.findExistingEmails(maybeTaken));
+        if (!taken.isEmpty()) {
+            valid.removeIf(row -> {
+                if (taken.contains(row.customer().getEmail())) {
+                    report.reject(row, EMAIL_TAKEN);
+                    return true;
+                }
+                return false;
+            });
+        }
+
+        List<String> hashes = passwordHasher.hashAll(valid.stream().map(row -> row.customer().getPassword()).toList());
+        for (int i = 0; i < valid.size(); i++) {
+            valid.get(i).customer().setPassword(hashes.get(i));
+        }
+        insert(valid, report);
+    }
+
+    private void insert(List<Row> rows, Report report) {
+        List<Customer> customers = rows.stream().map(Row::customer).toList();
+        try {
+            transactionTemplate.executeWithoutResult(status -> bulkWriter.persistAll(customers));
+            customers.forEach(customer -> emailBloomFilter.put(customer.getEmail()));
+            report.imported += rows.size();
+        } catch (DataIntegrityViolationException e) {
+            // an email was registered concurrently; the batch rolled back, so insert row by row to find it
+            for (Row row : rows) {
+                Customer customer = row.customer();
+                customer.setId(null);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> bulkWriter.persistAll(List.of(customer)));
+                    emailBloomFilter.put(customer.getEmail());
+                    report.imported++;
+                } catch (DataIntegrityViolationException duplicate) {
+                    report.reject(row, EMAIL_TAKEN);
+                }
+            }
+        }
+    }
+
+    private String validate(Customer customer) {
+        Set<ConstraintViolation<Customer>> violations = validator.validate(customer);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .sorted(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .collect(Collectors.joining("; "));
+        }
+        if (customer.getPassword() == null || customer.getPassword().isEmpty()) {
+            return "password: must not be blank";
+        }
+        return null;
+    }
+
+    private Customer parseJson(String line) {
+        try {
+            Customer customer = objectMapper.readValue(line, Customer.class);
+            customer.setId(null);
+            return customer;
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private RowParser csvParser(String header) {
+        List<String> columns = splitCsvLine(header.startsWith("\uFEFF") ? header.substring(1) : header);
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < columns.size(); i++) {
+            String column = columns.get(i).trim().toLowerCase(Locale.ROOT);
+            if (!CSV_COLUMNS.contains(column)) {
+                throw new IllegalArgumentException("Unknown CSV column '" + columns.get(i) + "', expected " + CSV_COLUMNS);
+            }
+            positions.put(column, i);
+        }
+        for (String required : List.of("name", "email", "password")) {
+            if (!positions.containsKey(required)) {
+                throw new IllegalArgumentException("The CSV header is missing the '" + required + "' column");
+            }
+        }
+        return line -> {
+            List<String> fields = splitCsvLine(line);
+            if (fields.size() != columns.size()) {
+                throw new IllegalArgumentException("Expected " + columns.size() + " fields but found " + fields.size());
+            }
+            return new Customer(null, field(fields, positions, "name"), field(fields, positions, "email"),
+                    field(fields, positions, "address"), field(fields, positions, "phonenumber"),
+                    field(fields, positions, "password"));
+        };
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> positions, String column) {
+        Integer position = positions.get(column);
+        if (position == null) {
+            return null;
+        }
+        String value = fields.get(position);
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Splits one CSV record into its fields. Fields may be quoted, with {@code ""} for a literal quote; a quoted field
+     * cannot span lines.
+     */
+    static List<String> splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    @FunctionalInterface
+    private interface RowParser {
+        Customer parse(String line);
+    }
+
+    private record Row(long line, Customer customer) {
+    }
+
+    private static final class Report {
+        private final int maxErrors;
+        private final List<CustomerImportError> errors = new ArrayList<>();
+        private long imported;
+        private long rejected;
+
+        private Report(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        private void reject(Row row, String message) {
+            reject(row.line(), row.customer().getEmail(), message);
+        }
+
+        private void reject(long line, String email, String message) {
+            rejected++;
+            if (errors.size() < maxErrors) {
+                errors.add(new CustomerImportError(line, email, message));
+            }
+        }
+
+        private CustomerImportReport toReport() {
+            return new CustomerImportReport(imported, rejected, errors, rejected > errors.size());
+        }
+    }
+}
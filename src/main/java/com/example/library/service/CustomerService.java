@@ -1,10 +1,14 @@
 package com.example.library.service;
 
+import com.example.library.config.CacheConfig;
 import com.example.library.event.CustomerDeleteEvent;
+import com.example.library.event.CustomerUpdateEvent;
+import com.example.library.index.EmailBloomFilter;
 import com.example.library.model.Customer;
 import com.example.library.repository.CustomerRepository;
+import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
-import org.mindrot.jbcrypt.BCrypt;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
@@ -18,42 +22,74 @@ public class CustomerService {
 
     private final CustomerRepository customerRepository;
     private final ApplicationEventPublisher eventPublisher;
+    private final PasswordHasher passwordHasher;
+    private final EmailBloomFilter emailBloomFilter;
 
     public List<Customer> getAllCustomers() {
-        return customerRepository.findAll();
+        return customerRepository.findAllByPendingDeletionFalseOrderById();
     }
 
+    @Cacheable(cacheNames = CacheConfig.CUSTOMERS, unless = "#result == null")
     public Optional<Customer> getCustomerById(Long id) {
-        return customerRepository.findById(id);
+        return customerRepository.findById(id).filter(customer -> !customer.isPendingDeletion());
     }
 
     public Customer createCustomer(Customer customer) {
+        if (isEmailTaken(customer.getEmail())) {
+            throw new IllegalArgumentException("Email must be unique");
+        }
         try {
-            String hashedPassword = BCrypt.hashpw(customer.getPassword(), BCrypt.gensalt());
+            String hashedPassword = passwordHasher.hash(customer.getPassword());
             customer.setPassword(hashedPassword);
 
-            return customerRepository.save(customer);
+            Customer savedCustomer = customerRepository.save(customer);
+            emailBloomFilter.put(savedCustomer.getEmail());
+            return savedCustomer;
         } catch (DataIntegrityViolationException e) {
             throw new IllegalArgumentException("Email must be unique");
         }
     }
 
+    public boolean isEmailAvailable(String email) {
+        if (email == null || email.isBlank()) {
+            throw new IllegalArgumentException("email is required");
+        }
+        return !isEmailTaken(email);
+    }
+
+    /**
+     * Only emails the Bloom filter has (probably) seen cost a lookup; the rest are known to be free.
+     */
+    private boolean isEmailTaken(String email) {
+        return emailBloomFilter.mightContain(email) && customerRepository.existsByEmail(email);
+    }
+
     public Optional<Customer> updateCustomer(Long id, Customer updatedCustomer) {
-        return customerRepository.findById(id).map(existingCustomer -> {
+        return customerRepository.findById(id).filter(customer -> !customer.isPendingDeletion()).map(existingCustomer -> {
             existingCustomer.setName(updatedCustomer.getName());
             existingCustomer.setEmail(updatedCustomer.getEmail());
             existingCustomer.setAddress(updatedCustomer.getAddress());
             existingCustomer.setPhoneNumber(updatedCustomer.getPhoneNumber());
             existingCustomer.setPassword(updatedCustomer.getPassword());
-            return customerRepository.save(existingCustomer);
+            Customer savedCustomer = customerRepository.save(existingCustomer);
+            emailBloomFilter.put(savedCustomer.getEmail());
+            eventPublisher.publishEvent(new CustomerUpdateEvent(this, savedCustomer));
+            return savedCustomer;
         });
     }
 
+    /**
+     * Accepts the deletion of a customer. They are flagged pending deletion right away, which waits for their
+     * borrows and holds in flight; their history and the row itself are purged in the background by
+     * {@link HistoryPurger}. A customer already pending deletion counts as not found.
+     */
+    @Transactional
     public boolean deleteCustomer(Long id) {
-        return customerRepository.findById(id)
+        return customerRepository.findByIdForUpdate(id)
+                .filter(customer -> !customer.isPendingDeletion())
                 .map(customer -> {
+                    customer.setPendingDeletion(true);
                     eventPublisher.publishEvent(new CustomerDeleteEvent(this, customer));
-                    customerRepository.delete(customer);
                     return true;
                 })
                 .orElse(false);
@@ -0,0 +1,247 @@
+package com.example.library.service;
+
+import com.example.library.config.PurgeProperties;
+import com.example.library.event.HistoryPurgedEvent;
+import com.example.library.event.HistoryPurgedEvent.Target;
+import com.example.library.index.ActiveLoanIndex;
+import com.example.library.index.HoldQueues;
+import com.example.library.index.OpenLoan;
+import com.example.library.index.OverdueLoanIndex;
+import com.example.library.repository.BookRepository;
+import com.example.library.repository.BorrowingRecordRepository;
+import com.example.library.repository.CustomerRepository;
+import com.example.library.repository.HoldRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Deletes a book's or customer's borrowing history in the background once its deletion has been accepted.
+ * Returned records go in fixed-size chunks, each in its own short transaction, so a long history neither holds one
+ * huge transaction open nor blocks the deleting request. The row itself is removed last, together with its open loans
+ * and holds, under the locks the borrowing paths take. When all purge threads are busy and the queue is full, the
+ * deleting request runs its purge itself, which slows deleters down instead of queueing without bound.
+ * <p>
+ * A row stays flagged pending deletion until its purge commits, so a purge that failed, or was lost to a restart,
+ * is picked up again by {@link #retryPending()}.
+ */
+@Service
+public class HistoryPurger implements DisposableBean {
+
+    private final BorrowingRecordRepository borrowingRecordRepository;
+    private final HoldRepository holdRepository;
+    private final BookRepository bookRepository;
+    private final CustomerRepository customerRepository;
+    private final BorrowingRecordService borrowingRecordService;
+    private final OverdueLoanIndex overdueLoanIndex;
+    private final ActiveLoanIndex activeLoanIndex;
+    private final HoldQueues holdQueues;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int chunkSize;
+    private final ThreadPoolExecutor executor;
+    private final Set<Long> booksInFlight = ConcurrentHashMap.newKeySet();
+    private final Set<Long> customersInFlight = ConcurrentHashMap.newKeySet();
+
+    public HistoryPurger(BorrowingRecordRepository borrowingRecordRepository,
+                         HoldRepository holdRepository,
+                         BookRepository bookRepository,
+                         CustomerRepository customerRepository,
+                         BorrowingRecordService borrowingRecordService,
+                         OverdueLoanIndex overdueLoanIndex,
+                         ActiveLoanIndex activeLoanIndex,
+                         HoldQueues holdQueues,
+                         ApplicationEventPublisher eventPublisher,
+                         PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry,
+                         PurgeProperties properties) {
+        this.borrowingRecordRepository = borrowingRecordRepository;
+        this.holdRepository = holdRepository;
+        this.bookRepository = bookRepository;
+        this.customerRepository = customerRepository;
+        this.borrowingRecordService = borrowingRecordService;
+        this.overdueLoanIndex = overdueLoanIndex;
+        this.activeLoanIndex = activeLoanIndex;
+        this.holdQueues = holdQueues;
+        this.eventPublisher = eventPublisher;
+        // the purge may run on the deleting thread inside its after-commit callback, so never join that transaction
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.meterRegistry = meterRegistry;
+        this.chunkSize = properties.chunkSize();
+        this.executor = new ThreadPoolExecutor(properties.threads(), properties.threads(), 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.queueCapacity()), purgeThreads(),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        Gauge.builder("library.purge.pending", executor, e -> e.getQueue().size() + e.getActiveCount())
+                .description("Purges queued or running")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Drops the book's holds from memory and schedules the purge of its history and row.
+     */
+    public void purgeBook(long bookId) {
+        holdQueues.removeBook(bookId);
+        schedule(Target.BOOK, bookId, () -> purgeBookHistory(bookId));
+    }
+
+    /**
+     * Drops the customer's loans and holds from memory and schedules the purge of their history and row.
+     */
+    public void purgeCustomer(long customerId) {
+        forgetCustomer(customerId);
+        schedule(Target.CUSTOMER, customerId, () -> purgeCustomerHistory(customerId));
+    }
+
+    /**
+     * Schedules again the purge of every book and customer still pending deletion whose purge is not queued or
+     * running, which covers purges that failed and those lost to a restart.
+     */
+    @Scheduled(fixedDelayString = "${library.purge.retry-delay:PT1M}", initialDelayString = "${library.purge.retry-delay:PT1M}")
+    public void retryPending() {
+        bookRepository.findIdsPendingDeletion().forEach(this::purgeBook);
+        customerRepository.findIdsPendingDeletion().forEach(this::purgeCustomer);
+    }
+
+    void purgeBookHistory(long bookId) {
+        if (!bookRepository.existsById(bookId)) {
+            return;
+        }
+        deleteInChunks(Target.BOOK, limit -> borrowingRecordRepository.findIdsByBookId(bookId, limit));
+        transactionTemplate.executeWithoutResult(status -> borrowingRecordService.withBookLock(bookId, () -> {
+            List<OpenLoan> loans = borrowingRecordRepository.findOpenLoansByBookIdIn(List.of(bookId));
+            purged(Target.BOOK).increment(borrowingRecordRepository.deleteAllByBookId(bookId));
+            holdRepository.deleteAllByBookId(bookId);
+            bookRepository.deleteById(bookId);
+            AfterCommit.run(() -> {
+                holdQueues.removeBook(bookId);
+                loans.forEach(loan -> {
+                    overdueLoanIndex.remove(loan.borrowingRecordId());
+                    activeLoanIndex.remove(loan.customerId(), loan.bookId());
+                });
+            });
+            return null;
+        }));
+        eventPublisher.publishEvent(new HistoryPurgedEvent(this, Target.BOOK, bookId));
+    }
+
+    void purgeCustomerHistory(long customerId) {
+        if (!customerRepository.existsById(customerId)) {
+            return;
+        }
+        deleteInChunks(Target.CUSTOMER, limit -> borrowingRecordRepository.findReturnedIdsByCustomerId(customerId, limit));
+        transactionTemplate.executeWithoutResult(status -> {
+            // the row lock waits out borrows and holds that were already in flight when the customer was deleted
+            if (customerRepository.findByIdForUpdate(customerId).isEmpty()) {
+                return;
+            }
+            List<Long> onLoan = borrowingRecordRepository.findOpenBookIdsByCustomerId(customerId);
+            borrowingRecordService.withBookLocks(onLoan, () -> {
+                purged(Target.CUSTOMER).increment(borrowingRecordRepository.deleteAllByCustomerId(customerId));
+                holdRepository.deleteAllByCustomerId(customerId);
+                customerRepository.deleteById(customerId);
+                borrowingRecordService.releaseBooks(onLoan);
+                AfterCommit.run(() -> forgetCustomer(customerId));
+                return null;
+            });
+        });
+        eventPublisher.publishEvent(new HistoryPurgedEvent(this, Target.CUSTOMER, customerId));
+    }
+
+    private void deleteInChunks(Target target, Function<Limit, List<Long>> nextIds) {
+        Counter purged = purged(target);
+        List<Long> ids;
+        do {
+            ids = transactionTemplate.execute(status -> {
+                List<Long> chunk = nextIds.apply(Limit.of(chunkSize));
+                if (!chunk.isEmpty()) {
+                    borrowingRecordRepository.deleteAllByIdInBatch(chunk);
+                }
+                return chunk;
+            });
+            purged.increment(ids.size());
+        } while (ids.size() == chunkSize);
+    }
+
+    /**
+     * Queues the purge unless one for the same row is already queued or running.
+     */
+    private void schedule(Target target, long id, Runnable purge) {
+        Set<Long> inFlight = target == Target.BOOK ? booksInFlight : customersInFlight;
+        if (!inFlight.add(id)) {
+            return;
+        }
+        try {
+            executor.execute(() -> run(target, purge, () -> inFlight.remove(id)));
+        } catch (RuntimeException e) {
+            inFlight.remove(id);
+            throw e;
+        }
+    }
+
+    private void run(Target target, Runnable purge, Runnable done) {
+        try {
+            purge.run();
+            jobs(target, "completed").increment();
+        } catch (RuntimeException e) {
+            jobs(target, "failed").increment();
+            throw e;
+        } finally {
+            done.run();
+        }
+    }
+
+    private void forgetCustomer(long customerId) {
+        overdueLoanIndex.removeCustomer(customerId);
+        activeLoanIndex.removeCustomer(customerId);
+        holdQueues.removeCustomer(customerId);
+    }
+
+    private Counter purged(Target target) {
+        return Counter.builder("library.purge.records")
+                .description("Borrowing records deleted by purges")
+                .tag("target", target.name().toLowerCase())
+                .register(meterRegistry);
+    }
+
+    private Counter jobs(Target target, String outcome) {
+        return Counter.builder("library.purge.jobs")
+                .description("Finished purges")
+                .tag("target", target.name().toLowerCase())
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static ThreadFactory purgeThreads() {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "history-purge-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.library.service;
+
+import com.example.library.exception.BookNotFoundException;
+import com.example.library.exception.CustomerNotFoundException;
+import com.example.library.exception.HoldAlreadyExistsException;
+import com.example.library.index.ActiveLoanIndex;
+import com.example.library.index.HoldEntry;
+import com.example.library.index.HoldQueues;
+import com.example.library.model.Book;
+import com.example.library.model.Customer;
+import com.example.library.model.Hold;
+import com.example.library.repository.BookRepository;
+import com.example.library.repository.CustomerRepository;
+import com.example.library.repository.HoldRepository;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class HoldService {
+
+    private final HoldRepository holdRepository;
+    private final CustomerRepository customerRepository;
+    private final BookRepository bookRepository;
+    private final HoldQueues holdQueues;
+    private final ActiveLoanIndex activeLoanIndex;
+    private final BorrowingRecordService borrowingRecordService;
+
+    /**
+     * Queues the customer for a borrowed book. Runs under the book's stripe lock, so a hold is never placed on a
+     * book between its return and the promotion of the queue.
+     */
+    @Transactional
+    public Hold placeHold(Long customerId, Long bookId) {
+        if (customerId == null || bookId == null) {
+            throw new IllegalArgumentException("customerId and bookId are required");
+        }
+        Customer customer = customerRepository.findByIdForShare(customerId)
+                .filter(existing -> !existing.isPendingDeletion())
+                .orElseThrow(() -> new CustomerNotFoundException("Customer does not exist"));
+        return borrowingRecordService.withBookLock(bookId, () -> {
+            Book book = bookRepository.findById(bookId)
+                    .filter(existing -> !existing.isPendingDeletion())
+                    .orElseThrow(() -> new BookNotFoundException("Book does not exist"));
+            if (book.isAvailable()) {
+                throw new IllegalArgumentException("Book is available and can be borrowed now");
+            }
+            if (Arrays.binarySearch(activeLoanIndex.bookIds(customerId), bookId) >= 0) {
+                throw new IllegalArgumentException("Customer already has this book on loan");
+            }
+            if (holdQueues.find(bookId, customerId) != null) {
+                throw new HoldAlreadyExistsException("Customer already has a hold on this book");
+            }
+            Hold savedHold = holdRepository.save(new Hold(null, customer, book, LocalDateTime.now()));
+            HoldEntry entry = new HoldEntry(savedHold.getId(), bookId, customerId);
+            AfterCommit.run(() -> holdQueues.enqueue(entry));
+            return savedHold;
+        });
+    }
+
+    /**
+     * Holds on the book in the order they will be promoted.
+     */
+    public List<HoldEntry> getHolds(Long bookId) {
+        return holdQueues.queue(bookId);
+    }
+
+    @Transactional
+    public boolean cancelHold(Long id) {
+        return holdRepository.findById(id)
+                .map(hold -> {
+                    HoldEntry entry = new HoldEntry(hold.getId(), hold.getBook().getId(), hold.getCustomer().getId());
+                    return borrowingRecordService.withBookLock(entry.bookId(), () -> {
+                        if (!holdRepository.existsById(entry.holdId())) {
+                            return false;
+                        }
+                        holdRepository.deleteById(entry.holdId());
+                        AfterCommit.run(() -> holdQueues.remove(entry));
+                        return true;
+                    });
+                })
+                .orElse(false);
+    }
+}
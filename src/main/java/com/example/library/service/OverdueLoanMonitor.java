@@ -0,0 +1,61 @@
+package com.example.library.service;
+
+import com.example.library.dto.OverdueLoan;
+import com.example.library.event.LoansOverdueEvent;
+import com.example.library.index.OpenLoan;
+import com.example.library.index.OverdueLoanIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Serves overdue loans from {@link OverdueLoanIndex} and, at each day boundary, publishes a
+ * {@link LoansOverdueEvent} for the loans that have just become overdue.
+ */
+@Service
+@RequiredArgsConstructor
+public class OverdueLoanMonitor {
+
+    private final OverdueLoanIndex overdueLoanIndex;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Loans due before this day have already been announced, or were overdue when the application started.
+     */
+    private LocalDate announcedBefore = LocalDate.now();
+
+    public List<OverdueLoan> getOverdueLoans() {
+        LocalDate today = LocalDate.now();
+        return toOverdueLoans(overdueLoanIndex.overdue(today), today);
+    }
+
+    @Scheduled(cron = "${library.overdue.cron:0 0 0 * * *}")
+    public void checkOverdue() {
+        announceOverdue(LocalDate.now());
+    }
+
+    synchronized List<OverdueLoan> announceOverdue(LocalDate today) {
+        if (!today.isAfter(announcedBefore)) {
+            return List.of();
+        }
+        List<OverdueLoan> loans = toOverdueLoans(overdueLoanIndex.dueBetween(announcedBefore, today), today);
+        announcedBefore = today;
+        if (!loans.isEmpty()) {
+            eventPublisher.publishEvent(new LoansOverdueEvent(this, loans));
+        }
+        return loans;
+    }
+
+    private static List<OverdueLoan> toOverdueLoans(List<OpenLoan> loans, LocalDate today) {
+        return loans.stream()
+                .map(loan -> new OverdueLoan(loan.borrowingRecordId(), loan.bookId(), loan.customerId(),
+                        loan.dueDate(), ChronoUnit.DAYS.between(loan.dueDate(), today)))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.library.service;
+
+import com.example.library.config.PasswordProperties;
+import com.example.library.exception.ServerBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.mindrot.jbcrypt.BCrypt;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Computes BCrypt hashes on a small dedicated pool, so signup spikes cannot take every CPU away from the request
+ * threads serving other endpoints. The waiting caller only parks. Once the pool's queue is full further hashes are
+ * refused with a {@link ServerBusyException} rather than queued, so a burst is answered with 503 instead of piling
+ * up latency for everyone. Bulk imports hash on a separate pool, one thread per core by default, so an import
+ * never fills the signup queue.
+ */
+@Service
+public class PasswordHasher implements DisposableBean {
+
+    private final int cost;
+    private final Duration retryAfter;
+    private final ThreadPoolExecutor executor;
+    private final ExecutorService bulkExecutor;
+    private final Counter rejected;
+
+    @Autowired
+    public PasswordHasher(PasswordProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, new ThreadPoolExecutor(properties.threads(), properties.threads(),
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(properties.queueCapacity()), hashingThreads("password-hash-")));
+    }
+
+    PasswordHasher(PasswordProperties properties, MeterRegistry meterRegistry, ThreadPoolExecutor executor) {
+        if (properties.cost() < 4 || properties.cost() > 31) {
+            throw new IllegalArgumentException("library.password.cost must be between 4 and 31");
+        }
+        this.cost = properties.cost();
+        this.retryAfter = properties.retryAfter();
+        this.executor = executor;
+        int bulkThreads = properties.bulkThreads() > 0 ? properties.bulkThreads() : Runtime.getRuntime().availableProcessors();
+        this.bulkExecutor = Executors.newFixedThreadPool(bulkThreads, hashingThreads("password-bulk-hash-"));
+        this.rejected = Counter.builder("library.password.hash.rejected")
+                .description("Hashes refused because the hashing pool was saturated")
+                .register(meterRegistry);
+        Gauge.builder("library.password.hash.queued", executor, e -> e.getQueue().size())
+                .description("Hashes waiting for a hashing thread")
+                .register(meterRegistry);
+    }
+
+    public String hash(String password) {
+        Future<String> hash;
+        try {
+            hash = executor.submit(() -> BCrypt.hashpw(password, BCrypt.gensalt(cost)));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ServerBusyException("Too many signups in progress, please retry shortly", retryAfter);
+        }
+        try {
+            return hash.get();
+        } catch (InterruptedException e) {
+            hash.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing the password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    /**
+     * Hashes a batch of passwords in parallel, returning the hashes in the same order. Meant for imports, whose
+     * callers bound the batch size themselves.
+     */
+    public List<String> hashAll(List<String> passwords) {
+        List<Callable<String>> tasks = passwords.stream()
+                .<Callable<String>>map(password -> () -> BCrypt.hashpw(password, BCrypt.gensalt(cost)))
+                .toList();
+        List<String> hashes = new ArrayList<>(passwords.size());
+        try {
+            for (Future<String> hash : bulkExecutor.invokeAll(tasks)) {
+                hashes.add(hash.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing passwords", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+        return hashes;
+    }
+
+    private static ThreadFactory hashingThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+        bulkExecutor.shutdownNow();
+    }
+}
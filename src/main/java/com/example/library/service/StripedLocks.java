@@ -0,0 +1,90 @@
+package com.example.library.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Fixed array of locks selected by key hash, so work on different keys rarely contends while work on the same key
+ * is serialized. Inside a transaction the lock is held until the transaction completes, so the next holder always
+ * reads the committed state.
+ */
+public class StripedLocks {
+
+    private final ReentrantLock[] locks;
+    private final int mask;
+
+    public StripedLocks(int stripes) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        mask = size - 1;
+    }
+
+    public ReentrantLock lockFor(long key) {
+        return locks[stripe(key)];
+    }
+
+    public <T> T withLock(long key, Supplier<T> action) {
+        return withLocks(List.of(lockFor(key)), action);
+    }
+
+    /**
+     * Locks the stripes of all keys in stripe order, so overlapping multi-key callers cannot deadlock.
+     */
+    public <T> T withLocks(Collection<Long> keys, Supplier<T> action) {
+        TreeSet<Integer> stripes = new TreeSet<>();
+        for (Long key : keys) {
+            stripes.add(stripe(key == null ? 0L : key));
+        }
+        List<ReentrantLock> ordered = new ArrayList<>(stripes.size());
+        for (int stripe : stripes) {
+            ordered.add(locks[stripe]);
+        }
+        return withLocks(ordered, action);
+    }
+
+    private <T> T withLocks(List<ReentrantLock> ordered, Supplier<T> action) {
+        for (ReentrantLock lock : ordered) {
+            lock.lock();
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            try {
+                return action.get();
+            } finally {
+                unlockAll(ordered);
+            }
+        }
+        try {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    unlockAll(ordered);
+                }
+            });
+        } catch (RuntimeException e) {
+            unlockAll(ordered);
+            throw e;
+        }
+        return action.get();
+    }
+
+    private static void unlockAll(List<ReentrantLock> ordered) {
+        for (int i = ordered.size() - 1; i >= 0; i--) {
+            ordered.get(i).unlock();
+        }
+    }
+
+    private int stripe(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
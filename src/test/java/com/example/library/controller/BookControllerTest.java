@@ -1,8 +1,13 @@
 package com.example.library.controller;
 
+import com.example.library.dto.AvailabilityCounts;
+import com.example.library.dto.AvailabilitySummary;
+import com.example.library.dto.BookSearchCriteria;
+import com.example.library.dto.BookSummary;
 import com.example.library.model.Author;
 import com.example.library.model.Book;
 import com.example.library.service.BookService;
+import org.hamcrest.Matchers;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentMatchers;
 import org.mockito.Mockito;
@@ -12,11 +17,13 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -48,7 +55,7 @@ public class BookControllerTest {
         Book book1 = new Book(1L, "Book 1", author1, "1234567890", LocalDate.of(2020, 1, 1), "Fiction", true);
         Book book2 = new Book(2L, "Book 2", author2, "0987654321", LocalDate.of(2018, 5, 15), "Non-fiction", false);
         List<Book> books = Arrays.asList(book1, book2);
-        Mockito.when(bookService.getAllBooks()).thenReturn(books);
+        Mockito.when(bookService.getAllBooks()).thenReturn(summaries(books));
 
 
         ResultActions result = mockMvc.perform(get("/api/v1/books")
@@ -61,6 +68,121 @@ public class BookControllerTest {
                 .andExpect(jsonPath("$[1].title").value("Book 2"));
     }
 
+    @Test
+    public void testGetAllBooks_NoAcceptHeader_ReturnsJsonList() throws Exception {
+        Mockito.when(bookService.getAllBooks()).thenReturn(List.of());
+
+        ResultActions result = mockMvc.perform(get("/api/v1/books"));
+
+        result.andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    public void testGetAllBooks_KeysetPage_HasNextLink() throws Exception {
+        Author author = new Author();
+        author.setId(1L);
+        author.setName("John Doe");
+        Book book3 = new Book(3L, "Book 3", author, "1234567890", LocalDate.of(2020, 1, 1), "Fiction", true);
+        Book book4 = new Book(4L, "Book 4", author, "0987654321", LocalDate.of(2018, 5, 15), "Fiction", true);
+        Mockito.when(bookService.getBooksAfter(2L, 2)).thenReturn(summaries(Arrays.asList(book3, book4)));
+
+        ResultActions result = mockMvc.perform(get("/api/v1/books?after=2&limit=2")
+                .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.bookList[0].title").value("Book 3"))
+                .andExpect(jsonPath("$._embedded.bookList[1].title").value("Book 4"))
+                .andExpect(jsonPath("$._links.next.href").value("http://localhost/api/v1/books?after=4&limit=2"));
+    }
+
+    @Test
+    public void testGetAllBooks_LastPage_HasNoNextLink() throws Exception {
+        Book book = new Book(5L, "Book 5", null, "1234567890", LocalDate.of(2020, 1, 1), "Fiction", true);
+        Mockito.when(bookService.getBooksAfter(4L, 2)).thenReturn(summaries(List.of(book)));
+
+        ResultActions result = mockMvc.perform(get("/api/v1/books?after=4&limit=2")
+                .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isOk())
+                .andExpect(jsonPath("$._links.next").doesNotExist());
+    }
+
+    @Test
+    public void testGetAllBooks_InvalidLimit_BadRequest() throws Exception {
+        ResultActions result = mockMvc.perform(get("/api/v1/books?limit=0")
+                .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testGetAllBooks_CompactLinks() throws Exception {
+        Book book = new Book(1L, "Book 1", null, "1234567890", LocalDate.of(2020, 1, 1), "Fiction", true);
+        Mockito.when(bookService.getAllBooks()).thenReturn(summaries(List.of(book)));
+
+        ResultActions result = mockMvc.perform(get("/api/v1/books?links=compact")
+                .contentType(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].links.size()").value(1))
+                .andExpect(jsonPath("$[0].links[0].rel").value("self"))
+                .andExpect(jsonPath("$[0].links[0].href").value("http://localhost/api/v1/books/1"));
+    }
+
+    @Test
+    public void testGetAllBooks_FullLinks() throws Exception {
+        Book book = new Book(1L, "Book 1", null, "1234567890", LocalDate.of(2020, 1, 1), "Fiction", true);
+        Mockito.when(bookService.getAllBooks()).thenReturn(summaries(List.of(book)));
+
+        ResultActions result = mockMvc.perform(get("/api/v1/books")
+                .contentType(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].links.size()").value(5))
+                .andExpect(jsonPath("$[0].links[2].rel").value("update"))
+                .andExpect(jsonPath("$[0].links[2].href").value("http://localhost/api/v1/books/1"));
+    }
+
+    @Test
+    public void testSearchBooks_NoLinks() throws Exception {
+        Book book = new Book(1L, "Book 1", null, "1234567890", LocalDate.of(2020, 1, 1), "Fiction", true);
+        Mockito.when(bookService.searchBooks(ArgumentMatchers.any(BookSearchCriteria.class))).thenReturn(summaries(List.of(book)));
+
+        ResultActions result = mockMvc.perform(get("/api/v1/books/search?title=Book&links=none")
+                .contentType(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].title").value("Book 1"))
+                .andExpect(jsonPath("$[0].links").isEmpty());
+    }
+
+    @Test
+    public void testGetAllBooks_UnknownLinkMode_BadRequest() throws Exception {
+        ResultActions result = mockMvc.perform(get("/api/v1/books?links=some")
+                .contentType(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testStreamAllBooks_Ndjson() throws Exception {
+        Book book1 = new Book(1L, "Book 1", null, "1234567890", LocalDate.of(2020, 1, 1), "Fiction", true);
+        Book book2 = new Book(2L, "Book 2", null, "0987654321", LocalDate.of(2018, 5, 15), "Fiction", true);
+        Mockito.when(bookService.getBooksAfter(ArgumentMatchers.eq(0L), ArgumentMatchers.anyInt())).thenReturn(summaries(Arrays.asList(book1, book2)));
+
+        MvcResult mvcResult = mockMvc.perform(get("/api/v1/books")
+                        .accept(MediaType.parseMediaType("application/x-ndjson")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string(Matchers.startsWith("{\"id\":1,\"title\":\"Book 1\"")))
+                .andExpect(content().string(Matchers.containsString("\n{\"id\":2,\"title\":\"Book 2\"")));
+    }
+
     @Test
     public void testGetBookById_ExistingId_Success() throws Exception {
 
@@ -88,6 +210,25 @@ public class BookControllerTest {
         result.andExpect(status().isNotFound());
     }
 
+    @Test
+    public void testCreateBooks_ReturnsIds() throws Exception {
+        Mockito.when(bookService.createBooks(ArgumentMatchers.anyList())).thenAnswer(invocation -> {
+            List<Book> books = invocation.getArgument(0);
+            for (int i = 0; i < books.size(); i++) {
+                books.get(i).setId(100L + i);
+            }
+            return books;
+        });
+
+        ResultActions result = mockMvc.perform(post("/api/v1/books/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"title\": \"Part 1\", \"isbn\": \"555-1\"}, {\"title\": \"Part 2\", \"isbn\": \"555-2\"}]"));
+
+        result.andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.ids[1]").value(101));
+    }
+
     @Test
     public void testCreateBook_ValidBook_Success() throws Exception {
         Author author = new Author();
@@ -145,7 +286,7 @@ public class BookControllerTest {
         ResultActions result = mockMvc.perform(delete("/api/v1/books/1"));
 
 
-        result.andExpect(status().isNoContent());
+        result.andExpect(status().isAccepted());
     }
 
     @Test
@@ -169,7 +310,7 @@ public class BookControllerTest {
         Book book1 = new Book(1L, "Book 1", author, "1234567890", LocalDate.of(2020, 1, 1), "Fiction", true);
         Book book2 = new Book(2L, "Book 2", author, "0987654321", LocalDate.of(2018, 5, 15), "Non-fiction", false);
         List<Book> books = Arrays.asList(book1, book2);
-        Mockito.when(bookService.searchBooksByTitle("Book")).thenReturn(books);
+        Mockito.when(bookService.searchBooks(new BookSearchCriteria("Book", null, null, null, null, null))).thenReturn(summaries(books));
 
 
         ResultActions result = mockMvc.perform(get("/api/v1/books/search?title=Book")
@@ -183,9 +324,104 @@ public class BookControllerTest {
     }
 
 
+    @Test
+    public void testSearchBooks_CombinedCriteria_Success() throws Exception {
+        Author author = new Author();
+        author.setId(1L);
+        author.setName("John Doe");
+        Book book = new Book(1L, "Book 1", author, "1234567890", LocalDate.of(2020, 1, 1), "Fiction", true);
+        BookSearchCriteria criteria = new BookSearchCriteria("Book", "John", null, "Fiction",
+                LocalDate.of(2019, 1, 1), LocalDate.of(2021, 1, 1));
+        Mockito.when(bookService.searchBooks(criteria)).thenReturn(summaries(List.of(book)));
+
+        ResultActions result = mockMvc.perform(get("/api/v1/books/search?title=Book&author=John&genre=Fiction&publishedFrom=2019-01-01&publishedTo=2021-01-01")
+                .contentType(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()").value(1))
+                .andExpect(jsonPath("$[0].title").value("Book 1"));
+    }
+
+    @Test
+    public void testSearchBooks_NoCriteria_BadRequest() throws Exception {
+        ResultActions result = mockMvc.perform(get("/api/v1/books/search")
+                .contentType(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testSearchBooks_InvertedDateRange_BadRequest() throws Exception {
+        ResultActions result = mockMvc.perform(get("/api/v1/books/search?publishedFrom=2021-01-01&publishedTo=2019-01-01")
+                .contentType(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testSearchBooks_AvailableOnly_Success() throws Exception {
+        Book book = new Book(1L, "Book 1", null, "1234567890", LocalDate.of(2020, 1, 1), "Fiction", true);
+        Mockito.when(bookService.searchBooks(new BookSearchCriteria(null, null, null, "Fiction", null, null, true))).thenReturn(summaries(List.of(book)));
+
+        ResultActions result = mockMvc.perform(get("/api/v1/books/search?genre=Fiction&available=true")
+                .contentType(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].title").value("Book 1"));
+    }
+
+    @Test
+    public void testGetAllBooks_AvailableKeysetPage_KeepsFilterInNextLink() throws Exception {
+        Book book = new Book(3L, "Book 3", null, "1234567890", LocalDate.of(2020, 1, 1), "Fiction", true);
+        Mockito.when(bookService.getBooksAfter(0L, 1, true)).thenReturn(summaries(List.of(book)));
+
+        ResultActions result = mockMvc.perform(get("/api/v1/books?limit=1&available=true")
+                .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.bookList[0].title").value("Book 3"))
+                .andExpect(jsonPath("$._links.next.href").value("http://localhost/api/v1/books?after=3&limit=1&available=true"));
+    }
+
+    @Test
+    public void testGetAvailability_Summary() throws Exception {
+        Mockito.when(bookService.getAvailabilitySummary()).thenReturn(
+                new AvailabilitySummary(3, 2, Map.of("fiction", new AvailabilityCounts(3, 2))));
+
+        ResultActions result = mockMvc.perform(get("/api/v1/books/availability")
+                .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(3))
+                .andExpect(jsonPath("$.available").value(2))
+                .andExpect(jsonPath("$.genres.fiction.available").value(2));
+    }
+
+    @Test
+    public void testGetAvailability_ByGenre() throws Exception {
+        Mockito.when(bookService.getAvailabilityCounts("Fiction")).thenReturn(new AvailabilityCounts(3, 1));
+
+        ResultActions result = mockMvc.perform(get("/api/v1/books/availability?genre=Fiction")
+                .accept(MediaType.APPLICATION_JSON));
+
+        result.andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(3))
+                .andExpect(jsonPath("$.available").value(1));
+    }
+
+
     private EntityModel<Book> toBookModel(Book book) {
 
 
         return EntityModel.of(book);
     }
-}
\ No newline at end of file
+
+    private static List<BookSummary> summaries(List<Book> books) {
+        return books.stream()
+                .map(book -> new BookSummary(book.getId(), book.getTitle(),
+                        book.getAuthor() == null ? null : book.getAuthor().getId(),
+                        book.getAuthor() == null ? null : book.getAuthor().getName(),
+                        book.getIsbn(), book.getPublicationDate(), book.getGenre(), book.isAvailable()))
+                .toList();
+    }
+}
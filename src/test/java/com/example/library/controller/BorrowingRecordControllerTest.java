@@ -1,9 +1,18 @@
 package com.example.library.controller;
 
+import com.example.library.dto.BatchBorrowRequest;
+import com.example.library.dto.BatchBorrowResponse;
+import com.example.library.dto.BatchBorrowResult;
+import com.example.library.dto.BatchReturnRequest;
+import com.example.library.dto.BatchReturnResponse;
+import com.example.library.dto.BorrowingSummary;
+import com.example.library.dto.OverdueLoan;
+import com.example.library.exception.LoanAlreadyReturnedException;
 import com.example.library.model.Book;
 import com.example.library.model.BorrowingRecord;
 import com.example.library.model.Customer;
 import com.example.library.service.BorrowingRecordService;
+import com.example.library.service.OverdueLoanMonitor;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentMatchers;
 import org.mockito.Mockito;
@@ -31,11 +40,14 @@ public class BorrowingRecordControllerTest {
     @MockBean
     private BorrowingRecordService borrowingRecordService;
 
+    @MockBean
+    private OverdueLoanMonitor overdueLoanMonitor;
+
     @Test
     public void testGetAllBorrowingRecords_ValidRequest_Success() throws Exception {
-        BorrowingRecord record1 = new BorrowingRecord(1L, new Customer(), new Book(), LocalDate.now(), LocalDate.now().plusDays(14));
-        BorrowingRecord record2 = new BorrowingRecord(2L, new Customer(), new Book(), LocalDate.now(), LocalDate.now().plusDays(21));
-        List<BorrowingRecord> records = Arrays.asList(record1, record2);
+        BorrowingSummary record1 = new BorrowingSummary(1L, 1L, "John Doe", 1L, "Book 1", "1234567890", LocalDate.now(), LocalDate.now().plusDays(14), null);
+        BorrowingSummary record2 = new BorrowingSummary(2L, 1L, "John Doe", 2L, "Book 2", "0987654321", LocalDate.now(), LocalDate.now().plusDays(21), null);
+        List<BorrowingSummary> records = Arrays.asList(record1, record2);
         Mockito.when(borrowingRecordService.getAllBorrowingRecords()).thenReturn(records);
 
         ResultActions result = mockMvc.perform(get("/api/v1/borrowings")
@@ -43,7 +55,10 @@ public class BorrowingRecordControllerTest {
 
         result.andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$.size()").value(2));
+                .andExpect(jsonPath("$.size()").value(2))
+                .andExpect(jsonPath("$[0].customer.name").value("John Doe"))
+                .andExpect(jsonPath("$[0].customer.password").doesNotExist())
+                .andExpect(jsonPath("$[1].book.title").value("Book 2"));
     }
 
     @Test
@@ -130,4 +145,85 @@ public class BorrowingRecordControllerTest {
         result.andExpect(status().isNotFound());
     }
 
+    @Test
+    public void testBorrowBooks_ReturnsPerItemResults() throws Exception {
+        BatchBorrowResponse response = new BatchBorrowResponse(1L, 1, List.of(
+                new BatchBorrowResult(1L, BatchBorrowResult.Status.BORROWED, 10L),
+                new BatchBorrowResult(2L, BatchBorrowResult.Status.ALREADY_BORROWED, null)));
+        Mockito.when(borrowingRecordService.borrowBooks(ArgumentMatchers.any(BatchBorrowRequest.class))).thenReturn(response);
+
+        ResultActions result = mockMvc.perform(post("/api/v1/borrowings/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"customerId\":1,\"bookIds\":[1,2]}"));
+
+        result.andExpect(status().isOk())
+                .andExpect(jsonPath("$.borrowed").value(1))
+                .andExpect(jsonPath("$.results[0].status").value("BORROWED"))
+                .andExpect(jsonPath("$.results[0].borrowingRecordId").value(10))
+                .andExpect(jsonPath("$.results[1].status").value("ALREADY_BORROWED"));
+    }
+
+    @Test
+    public void testReturnBorrowingRecord() throws Exception {
+        BorrowingRecord record = new BorrowingRecord(1L, new Customer(), new Book(), LocalDate.now(), LocalDate.now().plusDays(14));
+        record.setReturnedOn(LocalDate.of(2024, 1, 2));
+        Mockito.when(borrowingRecordService.returnBorrowingRecord(1L, LocalDate.of(2024, 1, 2))).thenReturn(Optional.of(record));
+
+        ResultActions result = mockMvc.perform(post("/api/v1/borrowings/1/return").param("returnedOn", "2024-01-02"));
+
+        result.andExpect(status().isOk())
+                .andExpect(jsonPath("$.returnedOn").value("2024-01-02"));
+    }
+
+    @Test
+    public void testReturnBorrowingRecord_AlreadyReturned() throws Exception {
+        Mockito.when(borrowingRecordService.returnBorrowingRecord(1L, null))
+                .thenThrow(new LoanAlreadyReturnedException("Borrowing record has already been returned"));
+
+        ResultActions result = mockMvc.perform(post("/api/v1/borrowings/1/return"));
+
+        result.andExpect(status().isConflict());
+    }
+
+    @Test
+    public void testSearchBorrowingRecords_ActiveOnly() throws Exception {
+        BorrowingSummary record = new BorrowingSummary(1L, 1L, "John Doe", 1L, "Book 1", "1234567890", LocalDate.now(), LocalDate.now().plusDays(14), null);
+        Mockito.when(borrowingRecordService.findActiveBorrowingRecordsByUserId(1L)).thenReturn(List.of(record));
+
+        ResultActions result = mockMvc.perform(get("/api/v1/borrowings/search")
+                .param("userId", "1")
+                .param("active", "true"));
+
+        result.andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+        Mockito.verify(borrowingRecordService, Mockito.never()).findBorrowingRecordsByUserId(ArgumentMatchers.anyLong());
+    }
+
+    @Test
+    public void testGetOverdueLoans() throws Exception {
+        Mockito.when(overdueLoanMonitor.getOverdueLoans())
+                .thenReturn(List.of(new OverdueLoan(1L, 11L, 100L, LocalDate.of(2024, 1, 2), 5)));
+
+        ResultActions result = mockMvc.perform(get("/api/v1/borrowings/overdue"));
+
+        result.andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].borrowingRecordId").value(1))
+                .andExpect(jsonPath("$[0].dueDate").value("2024-01-02"))
+                .andExpect(jsonPath("$[0].daysOverdue").value(5));
+    }
+
+    @Test
+    public void testReturnBooks() throws Exception {
+        Mockito.when(borrowingRecordService.returnBooks(ArgumentMatchers.any(BatchReturnRequest.class)))
+                .thenReturn(new BatchReturnResponse(2, List.of(3L)));
+
+        ResultActions result = mockMvc.perform(post("/api/v1/borrowings/returns")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"bookIds\":[1,2,3]}"));
+
+        result.andExpect(status().isOk())
+                .andExpect(jsonPath("$.returned").value(2))
+                .andExpect(jsonPath("$.notOnLoan[0]").value(3));
+    }
+
 }
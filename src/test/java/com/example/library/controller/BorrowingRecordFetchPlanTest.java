@@ -0,0 +1,110 @@
+package com.example.library.controller;
+
+import com.example.library.model.Author;
+import com.example.library.model.Book;
+import com.example.library.model.BorrowingRecord;
+import com.example.library.model.Customer;
+import com.example.library.repository.AuthorRepository;
+import com.example.library.repository.BookRepository;
+import com.example.library.repository.BorrowingRecordRepository;
+import com.example.library.repository.CustomerRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:fetch-plans;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+public class BorrowingRecordFetchPlanTest {
+
+    private static final int LOANS = 1000;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private BorrowingRecordRepository borrowingRecordRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Customer reader;
+
+    @BeforeEach
+    public void createLoans() {
+        if (borrowingRecordRepository.count() >= LOANS) {
+            return;
+        }
+        reader = new TransactionTemplate(transactionManager).execute(status -> {
+            List<Author> authors = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                authors.add(authorRepository.save(new Author(null, "Author " + i, LocalDate.of(1950, 1, 1), "British")));
+            }
+            List<Customer> customers = new ArrayList<>();
+            for (int i = 0; i < LOANS / 5; i++) {
+                customers.add(customerRepository.save(new Customer(null, "Reader " + i, "fetch.reader" + i + "@example.com",
+                        "1 Main St", String.format("0100%07d", i), "password123")));
+            }
+            for (int i = 0; i < LOANS; i++) {
+                Book book = bookRepository.save(new Book(null, "Loaned " + i, authors.get(i % authors.size()), "555-" + i,
+                        LocalDate.of(2000, 1, 1), "Test", false));
+                borrowingRecordRepository.save(new BorrowingRecord(null, customers.get(i / 5), book,
+                        LocalDate.now(), LocalDate.now().plusDays(14)));
+            }
+            return customers.get(0);
+        });
+    }
+
+    @Test
+    public void testGetAllBorrowingRecords_LoadsEveryLoanInOneStatement() throws Exception {
+        mockMvc.perform(get("/api/v1/borrowings?links=none"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()").value(borrowingRecordRepository.count()));
+
+        assertTrue(statements("/api/v1/borrowings").max() <= 2);
+    }
+
+    @Test
+    public void testSearchByUser_LoadsTheCustomersLoansInOneStatement() throws Exception {
+        Long userId = reader != null ? reader.getId() : customerRepository.findAll().get(0).getId();
+
+        mockMvc.perform(get("/api/v1/borrowings/search?userId=" + userId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].book.title").exists());
+
+        assertEquals(1.0, statements("/api/v1/borrowings/search").max());
+    }
+
+    private DistributionSummary statements(String uri) {
+        DistributionSummary summary = meterRegistry.find("library.http.sql.statements")
+                .tags("method", "GET", "uri", uri).summary();
+        assertNotNull(summary);
+        return summary;
+    }
+}
@@ -1,6 +1,10 @@
 package com.example.library.controller;
 
+import com.example.library.dto.CustomerImportError;
+import com.example.library.dto.CustomerImportReport;
+import com.example.library.exception.ServerBusyException;
 import com.example.library.model.Customer;
+import com.example.library.service.CustomerImporter;
 import com.example.library.service.CustomerService;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentMatchers;
@@ -13,6 +17,8 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 
+import java.io.InputStream;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -29,6 +35,9 @@ public class CustomerControllerTest {
     @MockBean
     private CustomerService customerService;
 
+    @MockBean
+    private CustomerImporter customerImporter;
+
     @Test
     public void testGetAllCustomers_ValidRequest_Success() throws Exception {
         Customer customer1 = new Customer(1L, "John Doe", "john@example.com", "123 Main St", "0123456789", "password123");
@@ -83,6 +92,19 @@ public class CustomerControllerTest {
                 .andExpect(jsonPath("$.name").value("New Customer"));
     }
 
+    @Test
+    public void testCreateCustomer_HashingSaturated_ServiceUnavailable() throws Exception {
+        Mockito.when(customerService.createCustomer(ArgumentMatchers.any(Customer.class)))
+                .thenThrow(new ServerBusyException("Too many signups in progress, please retry shortly", Duration.ofMillis(1500)));
+
+        ResultActions result = mockMvc.perform(post("/api/v1/customers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"New Customer\", \"email\": \"new@example.com\", \"address\": \"789 Oak St\", \"phoneNumber\": \"01115000153\", \"password\": \"newpassword\"}"));
+
+        result.andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "2"));
+    }
+
     @Test
     public void testUpdateCustomer_ExistingId_ValidCustomer_Success() throws Exception {
         Customer updatedCustomer = new Customer(1L, "Updated Customer", "updated@example.com", "789 Oak St", "01115000153", "updatedpassword");
@@ -116,7 +138,7 @@ public class CustomerControllerTest {
 
         ResultActions result = mockMvc.perform(delete("/api/v1/customers/1"));
 
-        result.andExpect(status().isNoContent());
+        result.andExpect(status().isAccepted());
     }
 
     @Test
@@ -132,4 +154,51 @@ public class CustomerControllerTest {
 
         return EntityModel.of(customer);
     }
+
+    @Test
+    public void testIsEmailAvailable_ReturnsAvailability() throws Exception {
+        Mockito.when(customerService.isEmailAvailable("new@example.com")).thenReturn(true);
+
+        ResultActions result = mockMvc.perform(get("/api/v1/customers/email-available").param("email", "new@example.com"));
+
+        result.andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value("new@example.com"))
+                .andExpect(jsonPath("$.available").value(true));
+    }
+
+    @Test
+    public void testImportCustomers_Csv_ReturnsReport() throws Exception {
+        Mockito.when(customerImporter.importCustomers(ArgumentMatchers.any(InputStream.class), ArgumentMatchers.eq(CustomerImporter.Format.CSV)))
+                .thenReturn(new CustomerImportReport(1, 1, List.of(new CustomerImportError(3, "bad@example.com", "Email must be unique")), false));
+
+        ResultActions result = mockMvc.perform(post("/api/v1/customers/import")
+                .contentType("text/csv")
+                .content("name,email,password\nAda,ada@example.com,secret\nBad,bad@example.com,secret\n"));
+
+        result.andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(3));
+    }
+
+    @Test
+    public void testImportCustomers_Ndjson_UsesNdjsonFormat() throws Exception {
+        Mockito.when(customerImporter.importCustomers(ArgumentMatchers.any(InputStream.class), ArgumentMatchers.eq(CustomerImporter.Format.NDJSON)))
+                .thenReturn(new CustomerImportReport(1, 0, List.of(), false));
+
+        ResultActions result = mockMvc.perform(post("/api/v1/customers/import")
+                .contentType("application/x-ndjson")
+                .content("{\"name\": \"Ada\", \"email\": \"ada@example.com\", \"password\": \"secret\"}\n"));
+
+        result.andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1));
+    }
+
+    @Test
+    public void testImportCustomers_UnsupportedType_UnsupportedMediaType() throws Exception {
+        ResultActions result = mockMvc.perform(post("/api/v1/customers/import")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]"));
+
+        result.andExpect(status().isUnsupportedMediaType());
+    }
 }
@@ -0,0 +1,76 @@
+package com.example.library.controller;
+
+import com.example.library.exception.HoldAlreadyExistsException;
+import com.example.library.index.HoldEntry;
+import com.example.library.model.Book;
+import com.example.library.model.Customer;
+import com.example.library.model.Hold;
+import com.example.library.service.HoldService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(HoldController.class)
+public class HoldControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private HoldService holdService;
+
+    @Test
+    public void testPlaceHold() throws Exception {
+        Hold hold = new Hold(100L, new Customer(), new Book(), LocalDateTime.of(2024, 1, 2, 10, 0));
+        Mockito.when(holdService.placeHold(1L, 5L)).thenReturn(hold);
+
+        ResultActions result = mockMvc.perform(post("/api/v1/holds")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"customerId\":1,\"bookId\":5}"));
+
+        result.andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(100));
+    }
+
+    @Test
+    public void testPlaceHold_Duplicate() throws Exception {
+        Mockito.when(holdService.placeHold(1L, 5L)).thenThrow(new HoldAlreadyExistsException("Customer already has a hold on this book"));
+
+        ResultActions result = mockMvc.perform(post("/api/v1/holds")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"customerId\":1,\"bookId\":5}"));
+
+        result.andExpect(status().isConflict());
+    }
+
+    @Test
+    public void testGetHolds() throws Exception {
+        Mockito.when(holdService.getHolds(5L)).thenReturn(List.of(new HoldEntry(100L, 5L, 1L), new HoldEntry(101L, 5L, 2L)));
+
+        ResultActions result = mockMvc.perform(get("/api/v1/holds").param("bookId", "5"));
+
+        result.andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].holdId").value(100))
+                .andExpect(jsonPath("$[1].customerId").value(2));
+    }
+
+    @Test
+    public void testCancelHold_NonExistingId() throws Exception {
+        Mockito.when(holdService.cancelHold(7L)).thenReturn(false);
+
+        ResultActions result = mockMvc.perform(delete("/api/v1/holds/7"));
+
+        result.andExpect(status().isNotFound());
+    }
+}
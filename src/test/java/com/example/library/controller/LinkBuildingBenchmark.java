@@ -0,0 +1,81 @@
+package com.example.library.controller;
+
+import com.example.library.model.Author;
+import com.example.library.model.Book;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.server.mvc.WebMvcLinkBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-entity cost of building the book links: the former per-entity {@link WebMvcLinkBuilder} calls versus
+ * {@link LinkTemplate}s resolved once per request. Run with {@code ./mvnw -Pbenchmark test -DskipTests -Dbenchmark=LinkBuildingBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LinkBuildingBenchmark {
+
+    private Book book;
+    private EntityLinks bookLinks;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/books");
+        request.setServerName("library.example.com");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        book = new Book(42L, "A Game of Thrones", new Author(1L, "George R.R. Martin", LocalDate.of(1948, 9, 20), "American"),
+                "978-0553103540", LocalDate.of(1996, 8, 6), "Fantasy", true);
+        bookLinks = BookController.bookLinks();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Benchmark
+    public EntityModel<Book> webMvcLinkBuilderPerEntity() {
+        return EntityModel.of(book,
+                WebMvcLinkBuilder.linkTo(WebMvcLinkBuilder.methodOn(BookController.class).getBookById(book.getId())).withSelfRel(),
+                WebMvcLinkBuilder.linkTo(WebMvcLinkBuilder.methodOn(BookController.class).getAllBooks(Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty())).withRel("books"),
+                WebMvcLinkBuilder.linkTo(WebMvcLinkBuilder.methodOn(BookController.class).updateBook(book.getId(), book)).withRel("update"),
+                WebMvcLinkBuilder.linkTo(WebMvcLinkBuilder.methodOn(BookController.class).deleteBook(book.getId())).withRel("delete"),
+                WebMvcLinkBuilder.linkTo(WebMvcLinkBuilder.methodOn(BookController.class).searchBooks(Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty())).withRel("search"));
+    }
+
+    @Benchmark
+    public EntityModel<Book> templatePerEntityFull() {
+        return bookLinks.toModel(book, book.getId(), LinkMode.FULL);
+    }
+
+    @Benchmark
+    public EntityModel<Book> templatePerEntityCompact() {
+        return bookLinks.toModel(book, book.getId(), LinkMode.COMPACT);
+    }
+
+    @Benchmark
+    public EntityLinks templateResolutionPerRequest() {
+        return BookController.bookLinks();
+    }
+}
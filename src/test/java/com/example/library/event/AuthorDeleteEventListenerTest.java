@@ -0,0 +1,55 @@
+package com.example.library.event;
+
+import com.example.library.model.Author;
+import com.example.library.model.Book;
+import com.example.library.repository.AuthorRepository;
+import com.example.library.repository.BookRepository;
+import com.example.library.service.AuthorService;
+import com.example.library.service.BookService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class AuthorDeleteEventListenerTest {
+
+    @Autowired
+    private AuthorService authorService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Test
+    public void testDeleteAuthor_DetachesBooksAndRefreshesCache() {
+        Author author = authorRepository.save(new Author(null, "Prolific Writer", LocalDate.of(1950, 1, 1), "British"));
+        List<Long> bookIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            bookIds.add(bookRepository.save(new Book(null, "Volume " + i, author, "222-" + i, LocalDate.of(2000, 1, 1), "Saga", true)).getId());
+        }
+        Book cached = bookService.getBookById(bookIds.get(0)).orElseThrow();
+        Long version = cached.getVersion();
+        assertNotNull(cached.getAuthor());
+
+        assertTrue(authorService.deleteAuthor(author.getId()));
+
+        assertFalse(authorRepository.existsById(author.getId()));
+        for (Long bookId : bookIds) {
+            Book book = bookRepository.findById(bookId).orElseThrow();
+            assertNull(book.getAuthor());
+            assertEquals(version + 1, book.getVersion());
+        }
+        assertNull(bookService.getBookById(bookIds.get(0)).orElseThrow().getAuthor());
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.library.event;
+
+import com.example.library.config.CacheConfig;
+import com.example.library.model.Author;
+import com.example.library.model.Book;
+import com.example.library.model.Customer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CacheInvalidationListenerTest {
+
+    private CacheManager cacheManager;
+    private CacheInvalidationListener listener;
+
+    @BeforeEach
+    public void setup() {
+        cacheManager = new ConcurrentMapCacheManager(CacheConfig.BOOKS, CacheConfig.AUTHORS, CacheConfig.CUSTOMERS);
+        listener = new CacheInvalidationListener(cacheManager);
+    }
+
+    @Test
+    public void testBookUpdateEvent_EvictsOnlyThatBook() {
+        Book book = new Book(1L, "Book 1", new Author(), "1234567890", LocalDate.now(), "genre", true);
+        cacheManager.getCache(CacheConfig.BOOKS).put(1L, book);
+        cacheManager.getCache(CacheConfig.BOOKS).put(2L, new Book());
+
+        listener.handleBookUpdateEvent(new BookUpdateEvent(this, book));
+
+        assertNull(cacheManager.getCache(CacheConfig.BOOKS).get(1L));
+        assertNotNull(cacheManager.getCache(CacheConfig.BOOKS).get(2L));
+    }
+
+    @Test
+    public void testAuthorDeleteEvent_EvictsAuthorAndDetachedBooks() {
+        Author author = new Author(1L, "John Doe", LocalDate.of(1980, 5, 15), "American");
+        cacheManager.getCache(CacheConfig.AUTHORS).put(1L, author);
+        cacheManager.getCache(CacheConfig.BOOKS).put(2L, new Book());
+        cacheManager.getCache(CacheConfig.BOOKS).put(3L, new Book());
+
+        listener.handleAuthorDeleteEvent(new AuthorDeleteEvent(this, author));
+        listener.handleBooksUpdatedEvent(new BooksUpdatedEvent(this, List.of(2L)));
+
+        assertNull(cacheManager.getCache(CacheConfig.AUTHORS).get(1L));
+        assertNull(cacheManager.getCache(CacheConfig.BOOKS).get(2L));
+        assertNotNull(cacheManager.getCache(CacheConfig.BOOKS).get(3L));
+    }
+
+    @Test
+    public void testCustomerUpdateEvent_EvictsCustomer() {
+        Customer customer = new Customer(1L, "John Doe", "john@example.com", "123 Main St", "0123456789", "password123");
+        cacheManager.getCache(CacheConfig.CUSTOMERS).put(1L, customer);
+
+        listener.handleCustomerUpdateEvent(new CustomerUpdateEvent(this, customer));
+
+        assertNull(cacheManager.getCache(CacheConfig.CUSTOMERS).get(1L));
+    }
+
+    @Test
+    public void testHistoryPurgedEvent_EvictsPurgedEntity() {
+        cacheManager.getCache(CacheConfig.BOOKS).put(1L, new Book());
+        cacheManager.getCache(CacheConfig.CUSTOMERS).put(1L, new Customer());
+
+        listener.handleHistoryPurgedEvent(new HistoryPurgedEvent(this, HistoryPurgedEvent.Target.CUSTOMER, 1L));
+
+        assertNotNull(cacheManager.getCache(CacheConfig.BOOKS).get(1L));
+        assertNull(cacheManager.getCache(CacheConfig.CUSTOMERS).get(1L));
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.library.event;
+
+import com.example.library.dto.ChangeEvent;
+import com.example.library.index.OpenLoan;
+import com.example.library.service.ChangeStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ChangeStreamListenerTest {
+
+    @Mock
+    private ChangeStream changeStream;
+
+    @InjectMocks
+    private ChangeStreamListener changeStreamListener;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+    }
+
+    @Test
+    public void testLoansCreated_PublishesLoanAndAvailability() {
+        changeStreamListener.handleLoansCreatedEvent(new LoansCreatedEvent(this, List.of(new OpenLoan(10L, 1L, 7L, LocalDate.now()))));
+
+        List<ChangeEvent> events = published(2);
+        assertEquals(ChangeEvent.Type.LOAN_CREATED, events.get(0).type());
+        assertEquals(10L, events.get(0).borrowingRecordId());
+        assertEquals(ChangeEvent.Type.AVAILABILITY, events.get(1).type());
+        assertFalse(events.get(1).available());
+    }
+
+    @Test
+    public void testBooksReturned_OnlyFreedBooksBecomeAvailable() {
+        changeStreamListener.handleBooksReturnedEvent(new BooksReturnedEvent(this, List.of(1L, 2L), List.of(2L)));
+
+        List<ChangeEvent> events = published(3);
+        assertEquals(List.of(ChangeEvent.Type.LOAN_RETURNED, ChangeEvent.Type.LOAN_RETURNED, ChangeEvent.Type.AVAILABILITY),
+                events.stream().map(ChangeEvent::type).toList());
+        assertEquals(2L, events.get(2).bookId());
+        assertTrue(events.get(2).available());
+    }
+
+    private List<ChangeEvent> published(int count) {
+        ArgumentCaptor<ChangeEvent> captor = ArgumentCaptor.forClass(ChangeEvent.class);
+        verify(changeStream, times(count)).publish(captor.capture());
+        return captor.getAllValues();
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.library.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ActiveLoanIndexTest {
+
+    private ActiveLoanIndex index;
+
+    @BeforeEach
+    public void setup() {
+        index = new ActiveLoanIndex();
+    }
+
+    @Test
+    public void testTryReserve_StopsAtLimit() {
+        assertTrue(index.tryReserve(1L, 2));
+        assertTrue(index.tryReserve(1L, 2));
+        assertFalse(index.tryReserve(1L, 2));
+        assertTrue(index.tryReserve(2L, 2));
+
+        index.release(1L, 1);
+
+        assertEquals(1, index.count(1L));
+        assertTrue(index.tryReserve(1L, 2));
+    }
+
+    @Test
+    public void testAdd_ConfirmsReservation() {
+        index.tryReserve(1L, 5);
+        index.add(1L, 30L);
+        index.tryReserve(1L, 5);
+        index.add(1L, 10L);
+
+        assertArrayEquals(new long[]{10L, 30L}, index.bookIds(1L));
+        assertEquals(2, index.count(1L));
+    }
+
+    @Test
+    public void testTrackAndRemove_KeepCountInStep() {
+        index.track(1L, 10L);
+        index.track(1L, 10L);
+        index.track(1L, 20L);
+        index.remove(1L, 10L);
+        index.remove(1L, 99L);
+
+        assertArrayEquals(new long[]{20L}, index.bookIds(1L));
+        assertEquals(1, index.count(1L));
+    }
+
+    @Test
+    public void testRemoveCustomer_ForgetsLoans() {
+        index.track(1L, 10L);
+        index.removeCustomer(1L);
+
+        assertEquals(0, index.count(1L));
+        assertEquals(0, index.bookIds(1L).length);
+    }
+}
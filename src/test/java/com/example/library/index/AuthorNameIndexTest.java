@@ -0,0 +1,32 @@
+package com.example.library.index;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AuthorNameIndexTest {
+
+    @Test
+    public void testPutIfAbsent_KeepsFirstId() {
+        AuthorNameIndex index = new AuthorNameIndex();
+
+        index.putIfAbsent("New Author", 1L);
+        index.putIfAbsent("New Author", 2L);
+        index.putIfAbsent(null, 3L);
+
+        assertEquals(1L, index.get("New Author"));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void testRemove_IgnoresStaleId() {
+        AuthorNameIndex index = new AuthorNameIndex();
+        index.put("John Doe", 2L);
+
+        index.remove("John Doe", 1L);
+        assertEquals(2L, index.get("John Doe"));
+
+        index.remove("John Doe", 2L);
+        assertNull(index.get("John Doe"));
+    }
+}
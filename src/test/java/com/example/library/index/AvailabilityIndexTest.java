@@ -0,0 +1,61 @@
+package com.example.library.index;
+
+import com.example.library.dto.AvailabilityCounts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AvailabilityIndexTest {
+
+    private AvailabilityIndex index;
+
+    @BeforeEach
+    public void setup() {
+        index = new AvailabilityIndex();
+        index.index(1L, "Fantasy", true);
+        index.index(2L, "fantasy", false);
+        index.index(3L, "Science Fiction", true);
+        index.index(4L, null, false);
+    }
+
+    @Test
+    public void testCounts_OverallAndPerGenre() {
+        assertEquals(new AvailabilityCounts(4, 2), index.counts());
+        assertEquals(new AvailabilityCounts(2, 1), index.counts("FANTASY"));
+        assertEquals(new AvailabilityCounts(0, 0), index.counts("Horror"));
+        assertEquals(2, index.countsByGenre().size());
+    }
+
+    @Test
+    public void testSetAvailable_UpdatesCounts() {
+        index.setAvailable(2L, true);
+        index.setAvailable(99L, true);
+
+        assertTrue(index.isAvailable(2L));
+        assertFalse(index.contains(99L));
+        assertEquals(new AvailabilityCounts(2, 2), index.counts("fantasy"));
+    }
+
+    @Test
+    public void testIds_ByAvailability() {
+        assertArrayEquals(new long[]{1L, 3L}, index.ids(true));
+        assertArrayEquals(new long[]{2L, 4L}, index.ids(false));
+        assertArrayEquals(new long[]{3L}, index.filter(new long[]{2L, 3L, 5L}, true));
+    }
+
+    @Test
+    public void testIdsAfter_PagesInIdOrder() {
+        assertArrayEquals(new long[]{3L}, index.idsAfter(1L, 1, true));
+        assertArrayEquals(new long[]{4L}, index.idsAfter(2L, 5, false));
+        assertArrayEquals(new long[0], index.idsAfter(4L, 5, true));
+    }
+
+    @Test
+    public void testRemove_DropsGenreWhenEmpty() {
+        index.remove(3L);
+
+        assertEquals(new AvailabilityCounts(3, 1), index.counts());
+        assertFalse(index.countsByGenre().containsKey("science fiction"));
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.library.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BookTitleIndexTest {
+
+    private BookTitleIndex index;
+
+    @BeforeEach
+    public void setup() {
+        index = new BookTitleIndex();
+        index.index(1L, "Harry Potter and the Philosopher's Stone");
+        index.index(2L, "A Game of Thrones");
+        index.index(3L, "Harry Potter and the Chamber of Secrets");
+        index.index(4L, "Potter");
+    }
+
+    @Test
+    public void testSearch_SingleTerm() {
+        List<Long> result = index.search("potter");
+
+        assertEquals(3, result.size());
+        assertEquals(4L, result.get(0));
+    }
+
+    @Test
+    public void testSearch_MultiTermIsAnd() {
+        assertEquals(List.of(3L), index.search("Potter Chamber"));
+        assertTrue(index.search("Potter Thrones").isEmpty());
+    }
+
+    @Test
+    public void testSearch_LastTermMatchesPrefix() {
+        assertEquals(List.of(2L), index.search("game of thr"));
+        assertTrue(index.search("thr game").isEmpty());
+    }
+
+    @Test
+    public void testSearch_IgnoresCaseAndDiacritics() {
+        index.index(5L, "Les Misérables");
+
+        assertEquals(List.of(5L), index.search("MISERABLES"));
+    }
+
+    @Test
+    public void testIndex_ReindexReplacesTerms() {
+        index.index(2L, "A Clash of Kings");
+
+        assertTrue(index.search("thrones").isEmpty());
+        assertEquals(List.of(2L), index.search("kings"));
+    }
+
+    @Test
+    public void testRemove() {
+        index.remove(4L);
+
+        assertEquals(List.of(1L, 3L), index.search("potter"));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    public void testIntersect() {
+        assertArrayEquals(new long[]{3, 7}, PostingList.intersect(new long[]{1, 3, 5, 7}, new long[]{3, 4, 7, 9}));
+        long[] large = new long[1000];
+        for (int i = 0; i < large.length; i++) {
+            large[i] = i * 2L;
+        }
+        assertArrayEquals(new long[]{10, 998}, PostingList.intersect(new long[]{10, 11, 998}, large));
+    }
+}
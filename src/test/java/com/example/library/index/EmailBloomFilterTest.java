@@ -0,0 +1,48 @@
+package com.example.library.index;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EmailBloomFilterTest {
+
+    @Test
+    public void testMightContain_AddedEmailsAlwaysFound() {
+        EmailBloomFilter filter = new EmailBloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("user" + i + "@example.com");
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("user" + i + "@example.com"));
+        }
+    }
+
+    @Test
+    public void testMightContain_FalsePositiveRateNearTarget() {
+        EmailBloomFilter filter = new EmailBloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("user" + i + "@example.com");
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("stranger" + i + "@example.org")) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+    }
+
+    @Test
+    public void testMightContain_IgnoresCaseAndClears() {
+        EmailBloomFilter filter = new EmailBloomFilter(100, 0.01);
+        filter.put("Ada@Example.com");
+
+        assertTrue(filter.mightContain("ada@example.com"));
+        assertFalse(filter.mightContain(null));
+
+        filter.clear();
+        assertFalse(filter.mightContain("ada@example.com"));
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.library.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IsbnIndexTest {
+
+    private IsbnIndex index;
+
+    @BeforeEach
+    public void setup() {
+        index = new IsbnIndex();
+        index.index(1L, "978-0747532699");
+        index.index(2L, "978-0553103540");
+        index.index(3L, "0-306-40615-X");
+    }
+
+    @Test
+    public void testSearch_ExactIsbn13() {
+        assertArrayEquals(new long[]{1}, index.search("9780747532699"));
+        assertArrayEquals(new long[]{2}, index.search("978-0-553-10354-0"));
+    }
+
+    @Test
+    public void testSearch_Substring() {
+        assertArrayEquals(new long[]{1, 2}, index.search("978-0"));
+        assertArrayEquals(new long[]{1}, index.search("7475"));
+        assertArrayEquals(new long[]{3}, index.search("15x"));
+        assertArrayEquals(new long[0], index.search("999"));
+    }
+
+    @Test
+    public void testSearch_ShortQueryScans() {
+        assertArrayEquals(new long[]{1, 2}, index.search("97"));
+        assertArrayEquals(new long[]{1, 2, 3}, index.search(""));
+    }
+
+    @Test
+    public void testSearch_TrigramsMustBeContiguous() {
+        assertArrayEquals(new long[0], index.search("978747"));
+    }
+
+    @Test
+    public void testReindexAndRemove() {
+        index.index(1L, "978-1111111111");
+        index.remove(2L);
+
+        assertArrayEquals(new long[0], index.search("9780747532699"));
+        assertArrayEquals(new long[]{1}, index.search("978"));
+    }
+
+    @Test
+    public void testLongKeyedMap_RemoveKeepsProbeChains() {
+        LongKeyedMap<String> map = new LongKeyedMap<>(4);
+        for (long key = 0; key < 1000; key++) {
+            map.put(key, "v" + key);
+        }
+        for (long key = 0; key < 1000; key += 2) {
+            map.remove(key);
+        }
+        assertEquals(500, map.size());
+        for (long key = 0; key < 1000; key++) {
+            assertEquals(key % 2 == 0 ? null : "v" + key, map.get(key));
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.library.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OverdueLoanIndexTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 3, 10);
+
+    private OverdueLoanIndex index;
+
+    @BeforeEach
+    public void setup() {
+        index = new OverdueLoanIndex();
+        index.add(new OpenLoan(1L, 11L, 100L, TODAY.minusDays(3)));
+        index.add(new OpenLoan(2L, 12L, 100L, TODAY.minusDays(1)));
+        index.add(new OpenLoan(3L, 13L, 200L, TODAY));
+        index.add(new OpenLoan(4L, 14L, 200L, TODAY.plusDays(5)));
+    }
+
+    @Test
+    public void testOverdue_EarliestDueFirst() {
+        List<OpenLoan> overdue = index.overdue(TODAY);
+
+        assertEquals(List.of(1L, 2L), overdue.stream().map(OpenLoan::borrowingRecordId).toList());
+        assertEquals(3, index.overdue(TODAY.plusDays(1)).size());
+    }
+
+    @Test
+    public void testDueBetween_HalfOpenRange() {
+        assertEquals(List.of(2L, 3L), index.dueBetween(TODAY.minusDays(1), TODAY.plusDays(1)).stream()
+                .map(OpenLoan::borrowingRecordId).toList());
+        assertTrue(index.dueBetween(TODAY, TODAY).isEmpty());
+    }
+
+    @Test
+    public void testRemoveBooks_DropsTheirLoans() {
+        index.removeBooks(List.of(11L, 99L));
+
+        assertEquals(List.of(2L), index.overdue(TODAY).stream().map(OpenLoan::borrowingRecordId).toList());
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    public void testAdd_ReplacesLoanWithNewDueDate() {
+        index.add(new OpenLoan(1L, 11L, 100L, TODAY.plusDays(7)));
+
+        assertEquals(List.of(2L), index.overdue(TODAY).stream().map(OpenLoan::borrowingRecordId).toList());
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    public void testAdd_KeepsOtherOpenLoansOfTheSameBook() {
+        index.add(new OpenLoan(5L, 11L, 300L, TODAY.minusDays(2)));
+
+        assertEquals(List.of(1L, 5L, 2L), index.overdue(TODAY).stream().map(OpenLoan::borrowingRecordId).toList());
+        assertEquals(5, index.size());
+
+        index.remove(1L);
+        assertEquals(List.of(5L, 2L), index.overdue(TODAY).stream().map(OpenLoan::borrowingRecordId).toList());
+
+        index.removeBooks(List.of(11L));
+        assertEquals(List.of(2L), index.overdue(TODAY).stream().map(OpenLoan::borrowingRecordId).toList());
+    }
+
+    @Test
+    public void testRemoveCustomer_DropsAllTheirLoans() {
+        index.removeCustomer(100L);
+        index.remove(3L);
+
+        assertTrue(index.overdue(TODAY.plusDays(1)).isEmpty());
+        assertEquals(1, index.size());
+    }
+}
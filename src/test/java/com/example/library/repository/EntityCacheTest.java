@@ -0,0 +1,96 @@
+package com.example.library.repository;
+
+import com.example.library.config.SqlStatementCounter;
+import com.example.library.model.Author;
+import com.example.library.model.Book;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:entity-cache;DB_CLOSE_DELAY=-1")
+public class EntityCacheTest {
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private Author author;
+    private Book book;
+
+    @BeforeEach
+    public void createBook() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        author = authorRepository.save(new Author(null, "Author " + UUID.randomUUID(), LocalDate.of(1950, 1, 1), "British"));
+        book = bookRepository.save(new Book(null, "Cached", author, "978-" + UUID.randomUUID(), LocalDate.of(2000, 1, 1), "Cached", true));
+    }
+
+    @Test
+    public void bookAndAuthorByIdAreServedFromTheSecondLevelCache() {
+        statements(() -> bookRepository.findById(book.getId()));
+
+        assertEquals(0, statements(() -> bookRepository.findById(book.getId()).orElseThrow().getAuthor().getName()));
+        assertEquals(0, statements(() -> authorRepository.findById(author.getId())));
+    }
+
+    @Test
+    public void searchesSeeARenamedAuthor() {
+        String renamed = "Renamed " + UUID.randomUUID();
+        assertEquals(List.of(), bookRepository.findIdsByAuthorNameContaining(renamed));
+
+        author.setName(renamed);
+        authorRepository.save(author);
+
+        assertEquals(List.of(book.getId()), bookRepository.findIdsByAuthorNameContaining(renamed));
+        assertEquals(renamed, bookRepository.findById(book.getId()).orElseThrow().getAuthor().getName());
+    }
+
+    @Test
+    public void bulkUpdatesEvictTheBooksTheyChange() {
+        bookRepository.findById(book.getId());
+        transactionTemplate.executeWithoutResult(status -> bookRepository.clearAuthor(author.getId()));
+
+        assertNull(bookRepository.findById(book.getId()).orElseThrow().getAuthor());
+    }
+
+    @Test
+    public void regionStatisticsArePublished() {
+        statements(() -> bookRepository.findById(book.getId()));
+        statements(() -> bookRepository.findById(book.getId()));
+
+        assertTrue(meterRegistry.get("cache.gets").tags("cache", Book.CACHE_REGION, "result", "hit").functionCounter().count() > 0);
+        assertTrue(meterRegistry.get("cache.hit.ratio").tag("cache", Book.CACHE_REGION).gauge().value() > 0);
+        assertTrue(meterRegistry.get("cache.size").tag("cache", Book.CACHE_REGION).gauge().value() > 0);
+        assertNotNull(meterRegistry.get("cache.evictions").tag("cache", Book.CACHE_REGION).functionCounter());
+    }
+
+    private int statements(Supplier<?> query) {
+        return transactionTemplate.execute(status -> {
+            sqlStatementCounter.start();
+            query.get();
+            return sqlStatementCounter.stop();
+        });
+    }
+}
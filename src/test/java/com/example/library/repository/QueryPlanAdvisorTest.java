@@ -0,0 +1,203 @@
+package com.example.library.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Index advisor for the repository package. Every query method declared on a repository is run once with placeholder
+ * arguments in a transaction that is rolled back, the SQL Hibernate sends is captured, and each statement is passed to
+ * H2's {@code EXPLAIN}. A table the plan reads with a full scan fails the test unless the method is listed in
+ * {@link #EXPECTED_SCANS}, so a new query either gets an index or an explicit reason why it cannot use one.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.library.repository.QueryPlanAdvisorTest$CapturingInspector")
+public class QueryPlanAdvisorTest {
+
+    private static final Map<String, String> EXPECTED_SCANS = Map.of(
+            "BookRepository.findAllSummaries", "lists every book",
+            "BookRepository.findIdsByAuthorNameContaining", "substring match on the author name",
+            "BookRepository.findIdsByGenre", "case-insensitive match; genre queries are answered by AvailabilityIndex first",
+            "BorrowingRecordRepository.findAllSummaries", "lists every borrowing record",
+            "CustomerRepository.findAllByPendingDeletionFalseOrderById", "lists every customer");
+
+    /**
+     * H2 comments each table access in a plan with the table name and {@code .tableScan} for a scan of its rows, or
+     * with an index name and the lookup condition. An index named without a condition is walked end to end, which is
+     * a full scan as well.
+     */
+    private static final Pattern TABLE_ACCESS = Pattern.compile("/\\* PUBLIC\\.(\\w+)(\\.tableScan)?(: [^*]*)? \\*/");
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    public void testRepositoryQueries_UseIndexes() {
+        Map<String, Set<String>> unexpectedScans = new TreeMap<>();
+        int explained = 0;
+        for (Map.Entry<Class<?>, Object> repository : repositories().entrySet()) {
+            Method[] methods = repository.getKey().getDeclaredMethods();
+            Arrays.sort(methods, Comparator.comparing(Method::getName));
+            for (Method method : methods) {
+                if (method.isDefault() || method.isSynthetic() || Modifier.isStatic(method.getModifiers())) {
+                    continue;
+                }
+                String name = repository.getKey().getSimpleName() + "." + method.getName();
+                for (String sql : capture(repository.getValue(), method)) {
+                    Set<String> scanned = scannedTables(explain(sql));
+                    explained++;
+                    if (!scanned.isEmpty() && !EXPECTED_SCANS.containsKey(name)) {
+                        unexpectedScans.computeIfAbsent(name, key -> new TreeSet<>()).addAll(scanned);
+                    }
+                }
+            }
+        }
+        assertTrue(explained > 0, "No repository query was captured");
+        assertTrue(unexpectedScans.isEmpty(), "Full table scans: " + unexpectedScans);
+    }
+
+    private Map<Class<?>, Object> repositories() {
+        Repositories repositories = new Repositories(applicationContext);
+        Map<Class<?>, Object> byInterface = new TreeMap<>(Comparator.comparing(Class::getName));
+        for (Class<?> domainType : repositories) {
+            Class<?> repositoryInterface = repositories.getRequiredRepositoryInformation(domainType).getRepositoryInterface();
+            if (repositoryInterface.getPackageName().equals(getClass().getPackageName())) {
+                byInterface.put(repositoryInterface, repositories.getRepositoryFor(domainType).orElseThrow());
+            }
+        }
+        return byInterface;
+    }
+
+    private List<String> capture(Object repository, Method method) {
+        Object[] arguments = new Object[method.getParameterCount()];
+        for (int i = 0; i < arguments.length; i++) {
+            arguments[i] = placeholder(method, method.getGenericParameterTypes()[i]);
+        }
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        return transactionTemplate.execute(status -> {
+            status.setRollbackOnly();
+            CapturingInspector.start();
+            try {
+                method.invoke(repository, arguments);
+                return CapturingInspector.stop();
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                CapturingInspector.stop();
+                throw new AssertionError("Could not run " + method, e);
+            }
+        });
+    }
+
+    private static Object placeholder(Method method, Type type) {
+        Class<?> raw = type instanceof ParameterizedType parameterized ? (Class<?>) parameterized.getRawType() : (Class<?>) type;
+        if (raw == Long.class || raw == long.class) {
+            return 0L;
+        }
+        if (raw == String.class) {
+            return "x";
+        }
+        if (raw == LocalDate.class) {
+            return LocalDate.now();
+        }
+        if (raw == LocalDateTime.class) {
+            return LocalDateTime.now();
+        }
+        if (raw == Limit.class) {
+            return Limit.of(1);
+        }
+        if (Collection.class.isAssignableFrom(raw) && type instanceof ParameterizedType parameterized) {
+            return List.of(placeholder(method, parameterized.getActualTypeArguments()[0]));
+        }
+        throw new AssertionError("No placeholder argument of type " + type + " for " + method);
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                for (int i = 1; i <= statement.getParameterMetaData().getParameterCount(); i++) {
+                    statement.setObject(i, null);
+                }
+                try (ResultSet plan = statement.executeQuery()) {
+                    StringBuilder text = new StringBuilder();
+                    while (plan.next()) {
+                        text.append(plan.getString(1)).append('\n');
+                    }
+                    return text.toString();
+                }
+            }
+        });
+    }
+
+    private static Set<String> scannedTables(String plan) {
+        Set<String> tables = new TreeSet<>();
+        Matcher matcher = TABLE_ACCESS.matcher(plan);
+        while (matcher.find()) {
+            if (matcher.group(2) != null || matcher.group(3) == null) {
+                tables.add(matcher.group(1));
+            }
+        }
+        return tables;
+    }
+
+    /**
+     * Records the statements Hibernate prepares on the current thread between {@link #start()} and {@link #stop()}.
+     */
+    public static class CapturingInspector implements StatementInspector {
+
+        private static final ThreadLocal<List<String>> STATEMENTS = new ThreadLocal<>();
+
+        static void start() {
+            STATEMENTS.set(new ArrayList<>());
+        }
+
+        static List<String> stop() {
+            List<String> statements = STATEMENTS.get();
+            STATEMENTS.remove();
+            return statements;
+        }
+
+        @Override
+        public String inspect(String sql) {
+            List<String> statements = STATEMENTS.get();
+            if (statements != null) {
+                statements.add(sql);
+            }
+            return sql;
+        }
+    }
+}
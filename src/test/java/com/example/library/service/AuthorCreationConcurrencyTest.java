@@ -0,0 +1,58 @@
+package com.example.library.service;
+
+import com.example.library.model.Author;
+import com.example.library.model.Book;
+import com.example.library.repository.AuthorRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class AuthorCreationConcurrencyTest {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Test
+    public void testConcurrentBooksBySameNewAuthor_ShareOneAuthor() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Book>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                int n = i;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return bookService.createBook(new Book(null, "Debut " + n, new Author(null, "Concurrent Debutant", null, null),
+                            "777-" + n, LocalDate.of(2020, 1, 1), "Test", true));
+                }));
+            }
+            start.countDown();
+            List<Long> authorIds = new ArrayList<>();
+            for (Future<Book> result : results) {
+                authorIds.add(result.get(30, TimeUnit.SECONDS).getAuthor().getId());
+            }
+
+            Long authorId = authorRepository.findByName("Concurrent Debutant").orElseThrow().getId();
+            assertTrue(authorIds.stream().allMatch(authorId::equals));
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
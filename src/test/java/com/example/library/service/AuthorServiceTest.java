@@ -1,6 +1,9 @@
 package com.example.library.service;
 
 import com.example.library.event.AuthorDeleteEvent;
+import com.example.library.event.AuthorUpdateEvent;
+import com.example.library.exception.AuthorAlreadyExistsException;
+import com.example.library.index.AuthorNameIndex;
 import com.example.library.model.Author;
 import com.example.library.repository.AuthorRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -8,11 +11,14 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -26,6 +32,9 @@ public class AuthorServiceTest {
     @Mock
     private ApplicationEventPublisher eventPublisher;
 
+    @Spy
+    private AuthorNameIndex authorNameIndex = new AuthorNameIndex();
+
     @InjectMocks
     private AuthorService authorService;
 
@@ -82,6 +91,42 @@ public class AuthorServiceTest {
         assertEquals("New Author", result.getName());
         assertEquals(LocalDate.of(1990, 3, 25), result.getBirthDate());
         assertEquals("French", result.getNationality());
+        assertEquals(1L, authorNameIndex.get("New Author"));
+    }
+
+    @Test
+    public void testCreateAuthor_DuplicateName() {
+        Author inputAuthor = new Author(null, "John Doe", LocalDate.of(1980, 5, 15), "American");
+        when(authorRepository.save(inputAuthor)).thenThrow(new DataIntegrityViolationException("duplicate"));
+
+        assertThrows(IllegalArgumentException.class, () -> authorService.createAuthor(inputAuthor));
+    }
+
+    @Test
+    public void testFindOrCreateAuthorIds_ExistingName() {
+        when(authorRepository.findByName("John Doe")).thenReturn(Optional.of(new Author(3L, "John Doe", null, null)));
+
+        assertEquals(Map.of("John Doe", 3L), authorService.findOrCreateAuthorIds(List.of(new Author(null, "John Doe", null, null))));
+        verify(authorRepository, never()).save(any(Author.class));
+    }
+
+    @Test
+    public void testFindOrCreateAuthorIds_NewNameInsertedOnce() {
+        Author author = new Author(null, "Jane Doe", null, null);
+        when(authorRepository.findByName("Jane Doe")).thenReturn(Optional.empty());
+        when(authorRepository.saveAndFlush(author)).thenReturn(new Author(4L, "Jane Doe", null, null));
+
+        assertEquals(Map.of("Jane Doe", 4L), authorService.findOrCreateAuthorIds(List.of(author, author)));
+        verify(authorRepository, times(1)).saveAndFlush(author);
+    }
+
+    @Test
+    public void testFindOrCreateAuthorIds_InsertedOutsideTheLock_Conflict() {
+        Author author = new Author(null, "Jane Doe", null, null);
+        when(authorRepository.findByName("Jane Doe")).thenReturn(Optional.empty());
+        when(authorRepository.saveAndFlush(author)).thenThrow(new DataIntegrityViolationException("duplicate"));
+
+        assertThrows(AuthorAlreadyExistsException.class, () -> authorService.findOrCreateAuthorIds(List.of(author)));
     }
 
     @Test
@@ -97,6 +142,9 @@ public class AuthorServiceTest {
         assertEquals("Updated Author", result.get().getName());
         assertEquals(LocalDate.of(1985, 10, 30), result.get().getBirthDate());
         assertEquals("Canadian", result.get().getNationality());
+        verify(eventPublisher).publishEvent(any(AuthorUpdateEvent.class));
+        assertNull(authorNameIndex.get("John Doe"));
+        assertEquals(1L, authorNameIndex.get("Updated Author"));
     }
 
     @Test
@@ -111,6 +159,7 @@ public class AuthorServiceTest {
     @Test
     public void testDeleteAuthor_ExistingId() {
         Author existingAuthor = new Author(1L, "John Doe", LocalDate.of(1980, 5, 15), "American");
+        authorNameIndex.put("John Doe", 1L);
         when(authorRepository.findById(1L)).thenReturn(Optional.of(existingAuthor));
 
         boolean result = authorService.deleteAuthor(1L);
@@ -118,6 +167,7 @@ public class AuthorServiceTest {
         assertTrue(result);
         verify(eventPublisher, times(1)).publishEvent(any(AuthorDeleteEvent.class));
         verify(authorRepository, times(1)).delete(existingAuthor);
+        assertNull(authorNameIndex.get("John Doe"));
     }
 
     @Test
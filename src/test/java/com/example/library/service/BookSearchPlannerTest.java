@@ -0,0 +1,127 @@
+package com.example.library.service;
+
+import com.example.library.dto.BookSearchCriteria;
+import com.example.library.index.AvailabilityIndex;
+import com.example.library.index.BookTitleIndex;
+import com.example.library.index.IsbnIndex;
+import com.example.library.repository.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class BookSearchPlannerTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Spy
+    private BookTitleIndex bookTitleIndex = new BookTitleIndex();
+
+    @Spy
+    private IsbnIndex isbnIndex = new IsbnIndex();
+
+    @Spy
+    private AvailabilityIndex availabilityIndex = new AvailabilityIndex();
+
+    @InjectMocks
+    private BookSearchPlanner bookSearchPlanner;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+        bookTitleIndex.index(1L, "Harry Potter and the Philosopher's Stone");
+        bookTitleIndex.index(2L, "A Game of Thrones");
+        bookTitleIndex.index(3L, "Harry Potter and the Chamber of Secrets");
+        isbnIndex.index(1L, "978-0747532699");
+        isbnIndex.index(2L, "978-0553103540");
+        isbnIndex.index(3L, "978-0747538493");
+        availabilityIndex.index(1L, "Fantasy", false);
+        availabilityIndex.index(2L, "Fantasy", true);
+        availabilityIndex.index(3L, "Fantasy", true);
+    }
+
+    @Test
+    public void testFindIds_FiltersByAvailabilityInMemory() {
+        List<Long> result = bookSearchPlanner.findIds(new BookSearchCriteria("potter", null, null, null, null, null, true));
+
+        assertEquals(List.of(3L), result);
+        verifyNoInteractions(bookRepository);
+    }
+
+    @Test
+    public void testFindIds_AvailabilityAloneSeedsCandidates() {
+        when(bookRepository.findIdsByGenreAndIdIn(eq("Fantasy"), eq(List.of(1L)))).thenReturn(List.of(1L));
+
+        List<Long> result = bookSearchPlanner.findIds(new BookSearchCriteria(null, null, null, "Fantasy", null, null, false));
+
+        assertEquals(List.of(1L), result);
+    }
+
+    @Test
+    public void testFindIds_IntersectsIndexedPredicates() {
+        List<Long> result = bookSearchPlanner.findIds(new BookSearchCriteria("potter", null, "0747", null, null, null));
+
+        assertEquals(2, result.size());
+        verifyNoInteractions(bookRepository);
+    }
+
+    @Test
+    public void testFindIds_RestrictsDatabasePredicatesToCandidates() {
+        when(bookRepository.findIdsByGenreAndIdIn(eq("Fantasy"), eq(List.of(1L, 3L)))).thenReturn(List.of(3L));
+
+        List<Long> result = bookSearchPlanner.findIds(new BookSearchCriteria("potter", null, null, "Fantasy", null, null));
+
+        assertEquals(List.of(3L), result);
+        verify(bookRepository, never()).findIdsByGenre(anyString());
+    }
+
+    @Test
+    public void testFindIds_RunsCheapestDatabasePredicateFirst() {
+        when(bookRepository.findIdsByAuthorNameContaining("Martin")).thenReturn(List.of(2L));
+        when(bookRepository.findIdsByGenreAndIdIn(eq("Fantasy"), eq(List.of(2L)))).thenReturn(List.of(2L));
+
+        List<Long> result = bookSearchPlanner.findIds(new BookSearchCriteria(null, "Martin", null, "Fantasy", null, null));
+
+        assertEquals(List.of(2L), result);
+        verify(bookRepository, never()).findIdsByGenre(anyString());
+    }
+
+    @Test
+    public void testFindIds_RunsRareGenreBeforeAuthor() {
+        for (long id = 10; id < 10 + 2 * BookSearchPlanner.AUTHOR_SELECTIVITY; id++) {
+            availabilityIndex.index(id, "Fantasy", true);
+        }
+        availabilityIndex.index(500L, "Poetry", true);
+        when(bookRepository.findIdsByGenre("Poetry")).thenReturn(List.of(500L));
+        when(bookRepository.findIdsByAuthorNameContainingAndIdIn(eq("Martin"), eq(List.of(500L)))).thenReturn(List.of(500L));
+
+        List<Long> result = bookSearchPlanner.findIds(new BookSearchCriteria(null, "Martin", null, "Poetry", null, null));
+
+        assertEquals(List.of(500L), result);
+        verify(bookRepository, never()).findIdsByAuthorNameContaining(anyString());
+    }
+
+    @Test
+    public void testFindIds_StopsWhenNoCandidatesRemain() {
+        List<Long> result = bookSearchPlanner.findIds(new BookSearchCriteria("dune", "Herbert", null, null,
+                LocalDate.of(1960, 1, 1), LocalDate.of(1970, 1, 1)));
+
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(bookRepository);
+    }
+
+    @Test
+    public void testFindIds_EmptyCriteria() {
+        assertTrue(bookSearchPlanner.findIds(new BookSearchCriteria(null, " ", null, null, null, null)).isEmpty());
+    }
+}
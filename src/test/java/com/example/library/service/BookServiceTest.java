@@ -1,21 +1,34 @@
 package com.example.library.service;
 
+import com.example.library.dto.BookSearchCriteria;
+import com.example.library.dto.BookSummary;
 import com.example.library.event.BookDeleteEvent;
+import com.example.library.event.BookUpdateEvent;
+import com.example.library.exception.AuthorAlreadyExistsException;
+import com.example.library.index.AuthorNameIndex;
+import com.example.library.index.AvailabilityIndex;
+import com.example.library.index.BookTitleIndex;
+import com.example.library.index.IsbnIndex;
 import com.example.library.model.Author;
 import com.example.library.model.Book;
 import com.example.library.repository.AuthorRepository;
 import com.example.library.repository.BookRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -31,26 +44,65 @@ public class BookServiceTest {
     @Mock
     private ApplicationEventPublisher eventPublisher;
 
+    @Spy
+    private BookTitleIndex bookTitleIndex = new BookTitleIndex();
+
+    @Spy
+    private IsbnIndex isbnIndex = new IsbnIndex();
+
+    @Mock
+    private BookSearchPlanner bookSearchPlanner;
+
+    @Spy
+    private AuthorNameIndex authorNameIndex = new AuthorNameIndex();
+
+    @Mock
+    private AuthorService authorService;
+
+    @Spy
+    private AvailabilityIndex availabilityIndex = new AvailabilityIndex();
+
+    @Mock
+    private BulkWriter bulkWriter;
+
+    @Mock
+    private BorrowingRecordService borrowingRecordService;
+
     @InjectMocks
     private BookService bookService;
 
     @BeforeEach
     public void setup() {
         MockitoAnnotations.initMocks(this);
+        when(borrowingRecordService.withBookLock(anyLong(), ArgumentMatchers.<Supplier<Object>>any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
     }
 
     @Test
     public void testGetAllBooks() {
-        List<Book> mockBooks = new ArrayList<>();
-        mockBooks.add(new Book(1L, "Book 1", new Author(), "1234567890", LocalDate.of(2020, 1, 1), "genre", true));
-        mockBooks.add(new Book(2L, "Book 2", new Author(), "0987654321", LocalDate.of(2019, 5, 10), "genre", true));
-        when(bookRepository.findAll()).thenReturn(mockBooks);
+        List<BookSummary> mockBooks = new ArrayList<>();
+        mockBooks.add(new BookSummary(1L, "Book 1", 1L, "John Doe", "1234567890", LocalDate.of(2020, 1, 1), "genre", true));
+        mockBooks.add(new BookSummary(2L, "Book 2", null, null, "0987654321", LocalDate.of(2019, 5, 10), "genre", true));
+        when(bookRepository.findAllSummaries()).thenReturn(mockBooks);
 
-        List<Book> result = bookService.getAllBooks();
+        List<BookSummary> result = bookService.getAllBooks();
 
         assertEquals(2, result.size());
-        assertEquals("Book 1", result.get(0).getTitle());
-        assertEquals("Book 2", result.get(1).getTitle());
+        assertEquals("Book 1", result.get(0).title());
+        assertEquals("John Doe", result.get(0).author().name());
+        assertNull(result.get(1).author());
+    }
+
+    @Test
+    public void testGetBooksAfter() {
+        List<BookSummary> mockBooks = new ArrayList<>();
+        mockBooks.add(new BookSummary(3L, "Book 3", null, null, "1234567890", LocalDate.of(2020, 1, 1), "genre", true));
+        when(bookRepository.findSummariesAfter(2L, Limit.of(1))).thenReturn(mockBooks);
+
+        List<BookSummary> result = bookService.getBooksAfter(2L, 1);
+
+        assertEquals(1, result.size());
+        assertEquals(3L, result.get(0).id());
     }
 
     @Test
@@ -76,7 +128,8 @@ public class BookServiceTest {
     @Test
     public void testCreateBook_WithExistingAuthor() {
         Author existingAuthor = new Author(1L, "John Doe", LocalDate.of(1980, 5, 15), "American");
-        when(authorRepository.findByName("John Doe")).thenReturn(Optional.of(existingAuthor));
+        authorNameIndex.put("John Doe", 1L);
+        when(authorRepository.getReferenceById(1L)).thenReturn(existingAuthor);
 
         Book inputBook = new Book(null, "New Book", existingAuthor, "0987654321", LocalDate.of(2022, 3, 15), "genre", true);
         Book createdBook = new Book(1L, "New Book", existingAuthor, "0987654321", LocalDate.of(2022, 3, 15), "genre", true);
@@ -89,15 +142,16 @@ public class BookServiceTest {
         assertEquals(existingAuthor, result.getAuthor());
         assertEquals("0987654321", result.getIsbn());
         assertEquals(LocalDate.of(2022, 3, 15), result.getPublicationDate());
+        verify(authorRepository, never()).findByName(anyString());
+        verify(authorService, never()).findOrCreateAuthorIds(any());
     }
 
     @Test
     public void testCreateBook_WithNewAuthor() {
-        when(authorRepository.findByName("New Author")).thenReturn(Optional.empty());
-
         Author inputAuthor = new Author(null, "New Author", LocalDate.of(1990, 3, 25), "French");
         Author createdAuthor = new Author(1L, "New Author", LocalDate.of(1990, 3, 25), "French");
-        when(authorRepository.save(inputAuthor)).thenReturn(createdAuthor);
+        when(authorService.findOrCreateAuthorIds(List.of(inputAuthor))).thenReturn(Map.of("New Author", 1L));
+        when(authorRepository.getReferenceById(1L)).thenReturn(createdAuthor);
 
         Book inputBook = new Book(null, "New Book", inputAuthor, "0987654321", LocalDate.of(2022, 3, 15), "genre", true);
         Book createdBook = new Book(1L, "New Book", createdAuthor, "0987654321", LocalDate.of(2022, 3, 15), "genre", true);
@@ -110,6 +164,64 @@ public class BookServiceTest {
         assertEquals(createdAuthor, result.getAuthor());
         assertEquals("0987654321", result.getIsbn());
         assertEquals(LocalDate.of(2022, 3, 15), result.getPublicationDate());
+        assertEquals(1L, authorNameIndex.get("New Author"));
+    }
+
+    @Test
+    public void testCreateBooks_ResolvesAuthorsOnceAndWritesInBulk() {
+        Author author = new Author(null, "Bulk Author", LocalDate.of(1970, 1, 1), "Irish");
+        Author reference = new Author(3L, "Bulk Author", LocalDate.of(1970, 1, 1), "Irish");
+        when(authorService.findOrCreateAuthorIds(List.of(author))).thenReturn(Map.of("Bulk Author", 3L));
+        when(authorRepository.getReferenceById(3L)).thenReturn(reference);
+        List<Book> books = List.of(
+                new Book(99L, "Part 1", author, "555-1", LocalDate.of(2020, 1, 1), "Saga", true),
+                new Book(null, "Part 2", author, "555-2", LocalDate.of(2020, 1, 1), "Saga", true));
+        when(bulkWriter.persistAll(books)).thenAnswer(invocation -> {
+            books.get(0).setId(10L);
+            books.get(1).setId(11L);
+            return books;
+        });
+
+        List<Book> result = bookService.createBooks(books);
+
+        assertEquals(List.of(10L, 11L), result.stream().map(Book::getId).toList());
+        assertSame(reference, result.get(1).getAuthor());
+        verify(authorService, times(1)).findOrCreateAuthorIds(List.of(author));
+        verify(bookRepository, never()).save(any(Book.class));
+        assertTrue(availabilityIndex.contains(11L));
+    }
+
+    @Test
+    public void testCreateBooks_TooMany_Rejected() {
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i <= BookService.MAX_BULK_SIZE; i++) {
+            books.add(new Book());
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> bookService.createBooks(books));
+        verifyNoInteractions(bulkWriter);
+    }
+
+    @Test
+    public void testCreateBook_ConcurrentlyInsertedAuthor_Conflict() {
+        Author inputAuthor = new Author(null, "New Author", LocalDate.of(1990, 3, 25), "French");
+        when(authorService.findOrCreateAuthorIds(List.of(inputAuthor)))
+                .thenThrow(new AuthorAlreadyExistsException("Author New Author was created concurrently, please retry"));
+
+        Book inputBook = new Book(null, "New Book", inputAuthor, "0987654321", LocalDate.of(2022, 3, 15), "genre", true);
+
+        assertThrows(AuthorAlreadyExistsException.class, () -> bookService.createBook(inputBook));
+        assertNull(authorNameIndex.get("New Author"));
+        verify(bookRepository, never()).save(any(Book.class));
+    }
+
+    @Test
+    public void testCreateBook_AuthorWithoutName_Rejected() {
+        Book inputBook = new Book(null, "New Book", new Author(), "0987654321", LocalDate.of(2022, 3, 15), "genre", true);
+
+        assertThrows(IllegalArgumentException.class, () -> bookService.createBook(inputBook));
+        verifyNoInteractions(authorService);
+        verify(bookRepository, never()).save(any(Book.class));
     }
 
     @Test
@@ -125,6 +237,7 @@ public class BookServiceTest {
         assertEquals("Updated Book", result.get().getTitle());
         assertEquals("0987654321", result.get().getIsbn());
         assertEquals(LocalDate.of(2022, 5, 20), result.get().getPublicationDate());
+        verify(eventPublisher).publishEvent(any(BookUpdateEvent.class));
     }
 
     @Test
@@ -144,8 +257,10 @@ public class BookServiceTest {
         boolean result = bookService.deleteBook(1L);
 
         assertTrue(result);
+        assertFalse(existingBook.isAvailable());
+        verify(bookRepository, times(1)).save(existingBook);
         verify(eventPublisher, times(1)).publishEvent(any(BookDeleteEvent.class));
-        verify(bookRepository, times(1)).delete(existingBook);
+        verify(bookRepository, never()).delete(existingBook);
     }
 
     @Test
@@ -181,48 +296,92 @@ public class BookServiceTest {
         boolean result = bookService.deleteBook(1L);
 
         assertTrue(result);
-        verify(bookRepository, times(1)).delete(availableBook);
+        verify(bookRepository, never()).delete(availableBook);
         verify(eventPublisher, times(1)).publishEvent(any(BookDeleteEvent.class));
     }
 
     @Test
-    public void testSearchBooksByTitle() {
-        List<Book> mockBooks = new ArrayList<>();
-        mockBooks.add(new Book(1L, "Book 1", new Author(), "1234567890", LocalDate.of(2020, 1, 1), "genre", true));
-        mockBooks.add(new Book(2L, "Book 2", new Author(), "0987654321", LocalDate.of(2019, 5, 10), "genre", true));
-        when(bookRepository.findByTitleContaining("Book")).thenReturn(mockBooks);
+    public void testCreateBook_IndexesTitle() {
+        Book inputBook = new Book(null, "The Hobbit", null, "0987654321", LocalDate.of(2022, 3, 15), "genre", true);
+        Book createdBook = new Book(7L, "The Hobbit", null, "0987654321", LocalDate.of(2022, 3, 15), "genre", true);
+        when(bookRepository.save(inputBook)).thenReturn(createdBook);
 
-        List<Book> result = bookService.searchBooksByTitle("Book");
+        bookService.createBook(inputBook);
 
-        assertEquals(2, result.size());
-        assertEquals("Book 1", result.get(0).getTitle());
-        assertEquals("Book 2", result.get(1).getTitle());
+        assertEquals(List.of(7L), bookTitleIndex.search("hobbit"));
+    }
+
+    @Test
+    public void testDeleteBook_RemovesTitleFromIndex() {
+        Book existingBook = new Book(1L, "The Hobbit", new Author(), "1234567890", LocalDate.of(2020, 1, 1), "genre", true);
+        bookTitleIndex.index(1L, "The Hobbit");
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(existingBook));
+
+        bookService.deleteBook(1L);
+
+        assertTrue(bookTitleIndex.search("hobbit").isEmpty());
     }
 
     @Test
-    public void testSearchBooksByAuthor() {
-        List<Book> mockBooks = new ArrayList<>();
-        Author author = new Author(1L, "John Doe", LocalDate.of(1980, 5, 15), "American");
-        mockBooks.add(new Book(1L, "Book 1", author, "1234567890", LocalDate.of(2020, 1, 1), "genre", true));
-        when(bookRepository.findByAuthor_NameContaining("John")).thenReturn(mockBooks);
+    public void testSearchBooks_LoadsPlannedIdsInOrder() {
+        BookSearchCriteria criteria = new BookSearchCriteria("Book", null, null, "genre", null, null);
+        BookSummary book1 = new BookSummary(1L, "Book 1", null, null, "1234567890", LocalDate.of(2020, 1, 1), "genre", true);
+        BookSummary book2 = new BookSummary(2L, "Book 2", null, null, "0987654321", LocalDate.of(2019, 5, 10), "genre", true);
+        when(bookSearchPlanner.findIds(criteria)).thenReturn(List.of(2L, 1L));
+        when(bookRepository.findSummariesByIdIn(List.of(2L, 1L))).thenReturn(List.of(book1, book2));
 
-        List<Book> result = bookService.searchBooksByAuthor("John");
+        List<BookSummary> result = bookService.searchBooks(criteria);
 
-        assertEquals(1, result.size());
-        assertEquals("Book 1", result.get(0).getTitle());
-        assertEquals(author, result.get(0).getAuthor());
+        assertEquals(List.of(book2, book1), result);
     }
 
     @Test
-    public void testSearchBooksByIsbn() {
-        List<Book> mockBooks = new ArrayList<>();
-        mockBooks.add(new Book(1L, "Book 1", new Author(), "1234567890", LocalDate.of(2020, 1, 1), "genre", true));
-        when(bookRepository.findByIsbnContaining("123")).thenReturn(mockBooks);
+    public void testGetBooksAfter_FiltersByAvailability() {
+        availabilityIndex.index(1L, "genre", true);
+        availabilityIndex.index(2L, "genre", false);
+        availabilityIndex.index(3L, "genre", true);
+        BookSummary book3 = new BookSummary(3L, "Book 3", null, null, "1234567890", LocalDate.of(2020, 1, 1), "genre", true);
+        when(bookRepository.findSummariesByIdIn(List.of(3L))).thenReturn(List.of(book3));
 
-        List<Book> result = bookService.searchBooksByIsbn("123");
+        List<BookSummary> result = bookService.getBooksAfter(1L, 10, true);
 
-        assertEquals(1, result.size());
-        assertEquals("Book 1", result.get(0).getTitle());
-        assertEquals("1234567890", result.get(0).getIsbn());
+        assertEquals(List.of(book3), result);
+    }
+
+    @Test
+    public void testGetBooksByAvailability_CappedAtMaxUnpagedSize() {
+        for (long id = 1; id <= BookService.MAX_UNPAGED_SIZE + 1; id++) {
+            availabilityIndex.index(id, "genre", true);
+        }
+        when(bookRepository.findSummariesByIdIn(anyList())).thenReturn(List.of());
+
+        bookService.getBooksByAvailability(true);
+
+        verify(bookRepository).findSummariesByIdIn(argThat(ids -> ids.size() == BookService.MAX_UNPAGED_SIZE && ids.iterator().next() == 1L));
+    }
+
+    @Test
+    public void testDeleteBook_TakesBookLockAndRemovesFromIndexes() {
+        Book existingBook = new Book(1L, "The Hobbit", new Author(), "1234567890", LocalDate.of(2020, 1, 1), "genre", true);
+        isbnIndex.index(1L, "1234567890");
+        availabilityIndex.index(1L, "genre", true);
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(existingBook));
+
+        bookService.deleteBook(1L);
+
+        verify(borrowingRecordService).withBookLock(eq(1L), any());
+        assertEquals(0, isbnIndex.search("1234567890").length);
+        assertFalse(availabilityIndex.isAvailable(1L));
+    }
+
+    @Test
+    public void testCreateBook_IndexesAvailability() {
+        Book inputBook = new Book(null, "New Book", null, "0987654321", LocalDate.of(2022, 3, 15), "Fantasy", true);
+        when(bookRepository.save(inputBook)).thenReturn(new Book(1L, "New Book", null, "0987654321", LocalDate.of(2022, 3, 15), "Fantasy", true));
+
+        bookService.createBook(inputBook);
+
+        assertTrue(availabilityIndex.isAvailable(1L));
+        assertEquals(1L, bookService.getAvailabilityCounts("fantasy").available());
     }
 }
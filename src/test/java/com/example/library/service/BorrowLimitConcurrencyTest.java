@@ -0,0 +1,82 @@
+package com.example.library.service;
+
+import com.example.library.exception.BorrowLimitExceededException;
+import com.example.library.index.ActiveLoanIndex;
+import com.example.library.model.Book;
+import com.example.library.model.BorrowingRecord;
+import com.example.library.model.Customer;
+import com.example.library.repository.BookRepository;
+import com.example.library.repository.CustomerRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "library.loans.max-per-customer=3")
+public class BorrowLimitConcurrencyTest {
+
+    @Autowired
+    private BorrowingRecordService borrowingRecordService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private ActiveLoanIndex activeLoanIndex;
+
+    @Test
+    public void testConcurrentBorrowsBySameCustomer_StopAtLimit() throws Exception {
+        Customer customer = customerRepository.save(new Customer(null, "Limit Tester", "limit@example.com", "1 Main St", "01012345678", "password123"));
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            books.add(bookRepository.save(new Book(null, "Limited " + i, null, "111-" + i, LocalDate.of(2020, 1, 1), "Test", true)));
+        }
+        AtomicInteger lent = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(12);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (Book book : books) {
+                Book reference = new Book();
+                reference.setId(book.getId());
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        borrowingRecordService.createBorrowingRecord(new BorrowingRecord(null, customer, reference,
+                                LocalDate.now(), LocalDate.now().plusDays(14)));
+                        lent.incrementAndGet();
+                    } catch (BorrowLimitExceededException e) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(3, lent.get());
+        assertEquals(9, rejected.get());
+        assertEquals(3, activeLoanIndex.count(customer.getId()));
+        assertEquals(3, borrowingRecordService.findActiveBorrowingRecordsByUserId(customer.getId()).size());
+    }
+}
@@ -0,0 +1,326 @@
+package com.example.library.service;
+
+import com.example.library.dto.BatchBorrowRequest;
+import com.example.library.dto.BatchReturnRequest;
+import com.example.library.dto.BatchReturnResponse;
+import com.example.library.dto.BorrowingSummary;
+import com.example.library.exception.BookAlreadyBorrowedException;
+import com.example.library.exception.BorrowingRecordAlreadyExistsException;
+import com.example.library.exception.LoanAlreadyReturnedException;
+import com.example.library.index.HoldQueues;
+import com.example.library.model.Book;
+import com.example.library.model.BorrowingRecord;
+import com.example.library.model.Customer;
+import com.example.library.repository.BookRepository;
+import com.example.library.repository.BorrowingRecordRepository;
+import com.example.library.repository.CustomerRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "library.loans.max-per-customer=1000")
+public class BorrowingRecordConcurrencyTest {
+
+    private static final int THREADS = 32;
+
+    @Autowired
+    private BorrowingRecordService borrowingRecordService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private BorrowingRecordRepository borrowingRecordRepository;
+
+    @Autowired
+    private HoldService holdService;
+
+    @Autowired
+    private HoldQueues holdQueues;
+
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    public void testConcurrentBorrowsOfSameBook_LendOnce() throws Exception {
+        Book book = newBook("Contended");
+
+        Map<Long, AtomicInteger> lent = borrowConcurrently(List.of(book), 64);
+
+        assertEquals(1, lent.get(book.getId()).get());
+        assertEquals(1, borrowingRecordRepository.findByBookId(book.getId()).size());
+        assertFalse(bookRepository.findById(book.getId()).orElseThrow().isAvailable());
+    }
+
+    @Test
+    public void testConcurrentBorrowsOfManyBooks_LendEachOnce() throws Exception {
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            books.add(newBook("Spread " + i));
+        }
+
+        Map<Long, AtomicInteger> lent = borrowConcurrently(books, 256);
+
+        for (Book book : books) {
+            assertEquals(1, lent.get(book.getId()).get());
+            assertEquals(1, borrowingRecordRepository.findByBookId(book.getId()).size());
+        }
+    }
+
+    @Test
+    public void testConcurrentOverlappingBatches_LendEachOnce() throws Exception {
+        List<Long> bookIds = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            bookIds.add(newBook("Batch " + i).getId());
+        }
+        List<Customer> customers = customerRepository.findAll();
+        AtomicInteger borrowed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < 48; i++) {
+                List<Long> window = new ArrayList<>(bookIds.subList(i % 9, i % 9 + 4));
+                Collections.reverse(window);
+                Long customerId = customers.get(i % customers.size()).getId();
+                results.add(executor.submit(() -> {
+                    start.await();
+                    borrowed.addAndGet(borrowingRecordService.borrowBooks(
+                            new BatchBorrowRequest(customerId, window, null, null)).borrowed());
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(bookIds.size(), borrowed.get());
+        for (Long bookId : bookIds) {
+            assertEquals(1, borrowingRecordRepository.findByBookId(bookId).size());
+        }
+    }
+
+    @Test
+    public void testReturnBooks_ClosesLoansAndRestoresAvailability() {
+        List<Long> bookIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            bookIds.add(newBook("Returned " + i).getId());
+        }
+        Long customerId = customerRepository.findAll().get(0).getId();
+        borrowingRecordService.borrowBooks(new BatchBorrowRequest(customerId, bookIds.subList(0, 4), null, null));
+        BorrowingRecord single = borrowingRecordRepository.findByBookId(bookIds.get(0)).get(0);
+
+        assertTrue(borrowingRecordService.returnBorrowingRecord(single.getId(), null).isPresent());
+        BatchReturnResponse response = borrowingRecordService.returnBooks(new BatchReturnRequest(bookIds, null));
+
+        assertEquals(3, response.returned());
+        assertEquals(List.of(bookIds.get(0), bookIds.get(4)), response.notOnLoan());
+        for (Long bookId : bookIds) {
+            assertTrue(bookRepository.findById(bookId).orElseThrow().isAvailable());
+            borrowingRecordRepository.findByBookId(bookId)
+                    .forEach(record -> assertEquals(LocalDate.now(), record.getReturnedOn()));
+        }
+        assertThrows(LoanAlreadyReturnedException.class,
+                () -> borrowingRecordService.returnBorrowingRecord(single.getId(), null));
+    }
+
+    @Test
+    public void testReturnBorrowingRecord_TwoOpenLoansOnOneBook_ClosesOnlyThatRecord() {
+        List<Customer> customers = customerRepository.findAll();
+        List<BorrowingRecord> loans = transactionTemplate.execute(status -> {
+            Book book = bookRepository.save(new Book(null, "Doubly lent", null, "000-2", LocalDate.of(2020, 1, 1), "Test", false));
+            return List.of(
+                    borrowingRecordRepository.save(new BorrowingRecord(null, customerRepository.getReferenceById(customers.get(0).getId()), book,
+                            LocalDate.now().minusDays(1), LocalDate.now().plusDays(13))),
+                    borrowingRecordRepository.save(new BorrowingRecord(null, customerRepository.getReferenceById(customers.get(1).getId()), book,
+                            LocalDate.now(), LocalDate.now().plusDays(14))));
+        });
+        BorrowingRecord first = loans.get(0);
+        BorrowingRecord second = loans.get(1);
+        Book book = first.getBook();
+
+        borrowingRecordService.returnBorrowingRecord(first.getId(), null);
+
+        assertEquals(LocalDate.now(), borrowingRecordRepository.findById(first.getId()).orElseThrow().getReturnedOn());
+        assertNull(borrowingRecordRepository.findById(second.getId()).orElseThrow().getReturnedOn());
+        assertFalse(bookRepository.findById(book.getId()).orElseThrow().isAvailable());
+
+        borrowingRecordService.returnBorrowingRecord(second.getId(), null);
+
+        assertTrue(bookRepository.findById(book.getId()).orElseThrow().isAvailable());
+    }
+
+    @Test
+    public void testConcurrentReturnsOfSameRecord_ReturnOnce() throws Exception {
+        Book book = newBook("Returned twice");
+        Customer customer = customerRepository.findAll().get(0);
+        BorrowingRecord record = borrowingRecordService.createBorrowingRecord(new BorrowingRecord(null, customer,
+                reference(book), LocalDate.now(), LocalDate.now().plusDays(14)));
+        AtomicInteger returned = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        borrowingRecordService.returnBorrowingRecord(record.getId(), null);
+                        returned.incrementAndGet();
+                    } catch (LoanAlreadyReturnedException e) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(1, returned.get());
+        assertEquals(THREADS - 1, rejected.get());
+        assertTrue(bookRepository.findById(book.getId()).orElseThrow().isAvailable());
+    }
+
+    @Test
+    public void testReturn_PromotesFirstHold() throws Exception {
+        Book book = newBook("Held");
+        List<Customer> customers = customerRepository.findAll();
+        borrowingRecordService.createBorrowingRecord(new BorrowingRecord(null, customers.get(0), reference(book),
+                LocalDate.now(), LocalDate.now().plusDays(14)));
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (Customer customer : customers.subList(1, customers.size())) {
+                results.add(executor.submit(() -> holdService.placeHold(customer.getId(), book.getId())));
+            }
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        List<Long> queue = holdQueues.queue(book.getId()).stream().map(entry -> entry.customerId()).toList();
+        assertEquals(customers.size() - 1, queue.size());
+
+        borrowingRecordService.returnBooks(new BatchReturnRequest(List.of(book.getId()), null));
+
+        assertFalse(bookRepository.findById(book.getId()).orElseThrow().isAvailable());
+        List<BorrowingSummary> open = borrowingRecordService.findActiveBorrowingRecordsByBookId(book.getId());
+        assertEquals(1, open.size());
+        assertEquals(queue.get(0), open.get(0).customer().id());
+        assertEquals(queue.subList(1, queue.size()),
+                holdQueues.queue(book.getId()).stream().map(entry -> entry.customerId()).toList());
+    }
+
+    @Test
+    public void testReturn_HoldOfSameDayBorrowerStaysQueued() {
+        Book book = newBook("Borrowed twice today");
+        List<Customer> customers = customerRepository.findAll();
+        Customer earlier = customers.get(0);
+        Customer current = customers.get(1);
+        BorrowingRecord first = borrowingRecordService.createBorrowingRecord(new BorrowingRecord(null, earlier,
+                reference(book), LocalDate.now(), LocalDate.now().plusDays(14)));
+        borrowingRecordService.returnBorrowingRecord(first.getId(), null);
+        borrowingRecordService.createBorrowingRecord(new BorrowingRecord(null, current, reference(book),
+                LocalDate.now(), LocalDate.now().plusDays(14)));
+        holdService.placeHold(earlier.getId(), book.getId());
+
+        BatchReturnResponse response = borrowingRecordService.returnBooks(new BatchReturnRequest(List.of(book.getId()), null));
+
+        assertEquals(1, response.returned());
+        assertTrue(bookRepository.findById(book.getId()).orElseThrow().isAvailable());
+        assertTrue(borrowingRecordService.findActiveBorrowingRecordsByBookId(book.getId()).isEmpty());
+        assertEquals(List.of(earlier.getId()),
+                holdQueues.queue(book.getId()).stream().map(entry -> entry.customerId()).toList());
+    }
+
+    @Test
+    public void testStaleBookWrite_RejectedByVersion() {
+        Book book = newBook("Versioned");
+        Book stale = bookRepository.findById(book.getId()).orElseThrow();
+        Book current = bookRepository.findById(book.getId()).orElseThrow();
+        current.setAvailable(false);
+        bookRepository.save(current);
+
+        stale.setAvailable(false);
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> bookRepository.save(stale));
+    }
+
+    private Map<Long, AtomicInteger> borrowConcurrently(List<Book> books, int attempts) throws Exception {
+        List<Customer> customers = customerRepository.findAll();
+        Map<Long, AtomicInteger> lent = new ConcurrentHashMap<>();
+        books.forEach(book -> lent.put(book.getId(), new AtomicInteger()));
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < attempts; i++) {
+                Book book = books.get(i % books.size());
+                Customer customer = customers.get(i % customers.size());
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        borrowingRecordService.createBorrowingRecord(new BorrowingRecord(null, customer, reference(book),
+                                LocalDate.now(), LocalDate.now().plusDays(14)));
+                        lent.get(book.getId()).incrementAndGet();
+                    } catch (BookAlreadyBorrowedException | BorrowingRecordAlreadyExistsException e) {
+                        // expected for every borrower but the first
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return lent;
+    }
+
+    private Book newBook(String title) {
+        return bookRepository.save(new Book(null, title, null, "000-" + title.hashCode(), LocalDate.of(2020, 1, 1), "Test", true));
+    }
+
+    private static Book reference(Book book) {
+        Book reference = new Book();
+        reference.setId(book.getId());
+        return reference;
+    }
+}
@@ -1,9 +1,28 @@
 package com.example.library.service;
 
+import com.example.library.config.LoanProperties;
+import com.example.library.dto.BatchBorrowRequest;
+import com.example.library.dto.BatchBorrowResponse;
+import com.example.library.dto.BatchBorrowResult;
+import com.example.library.dto.BatchReturnRequest;
+import com.example.library.dto.BatchReturnResponse;
+import com.example.library.dto.BorrowingSummary;
+import com.example.library.event.BookUpdateEvent;
+import com.example.library.event.BooksReturnedEvent;
+import com.example.library.event.HoldsPromotedEvent;
 import com.example.library.exception.BookAlreadyBorrowedException;
 import com.example.library.exception.BookNotFoundException;
+import com.example.library.exception.BorrowLimitExceededException;
 import com.example.library.exception.BorrowingRecordAlreadyExistsException;
 import com.example.library.exception.CustomerNotFoundException;
+import com.example.library.exception.LoanAlreadyReturnedException;
+import com.example.library.index.ActiveLoanIndex;
+import com.example.library.index.AvailabilityIndex;
+import com.example.library.index.HoldEntry;
+import com.example.library.index.HoldQueues;
+import com.example.library.index.LoanKey;
+import com.example.library.index.OpenLoan;
+import com.example.library.index.OverdueLoanIndex;
 import com.example.library.model.Author;
 import com.example.library.model.Book;
 import com.example.library.model.BorrowingRecord;
@@ -11,13 +30,18 @@ import com.example.library.model.Customer;
 import com.example.library.repository.BookRepository;
 import com.example.library.repository.BorrowingRecordRepository;
 import com.example.library.repository.CustomerRepository;
+import com.example.library.repository.HoldRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
@@ -37,6 +61,27 @@ public class BorrowingRecordServiceTest {
     @Mock
     private BookRepository bookRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private AvailabilityIndex availabilityIndex = new AvailabilityIndex();
+
+    @Spy
+    private OverdueLoanIndex overdueLoanIndex = new OverdueLoanIndex();
+
+    @Spy
+    private ActiveLoanIndex activeLoanIndex = new ActiveLoanIndex();
+
+    @Spy
+    private LoanProperties loanProperties = new LoanProperties(2);
+
+    @Mock
+    private HoldRepository holdRepository;
+
+    @Spy
+    private HoldQueues holdQueues = new HoldQueues();
+
     @InjectMocks
     private BorrowingRecordService borrowingRecordService;
 
@@ -47,16 +92,16 @@ public class BorrowingRecordServiceTest {
 
     @Test
     public void testGetAllBorrowingRecords() {
-        List<BorrowingRecord> borrowingRecords = new ArrayList<>();
-        borrowingRecords.add(new BorrowingRecord(1L, new Customer(), new Book(), LocalDate.now(), LocalDate.now().plusDays(14)));
-        borrowingRecords.add(new BorrowingRecord(2L, new Customer(), new Book(), LocalDate.now(), LocalDate.now().plusDays(7)));
-        when(borrowingRecordRepository.findAll()).thenReturn(borrowingRecords);
+        List<BorrowingSummary> borrowingRecords = new ArrayList<>();
+        borrowingRecords.add(new BorrowingSummary(1L, 1L, "John Doe", 1L, "Book 1", "1234567890", LocalDate.now(), LocalDate.now().plusDays(14), null));
+        borrowingRecords.add(new BorrowingSummary(2L, 1L, "John Doe", 2L, "Book 2", "0987654321", LocalDate.now(), LocalDate.now().plusDays(7), null));
+        when(borrowingRecordRepository.findAllSummaries()).thenReturn(borrowingRecords);
 
-        List<BorrowingRecord> result = borrowingRecordService.getAllBorrowingRecords();
+        List<BorrowingSummary> result = borrowingRecordService.getAllBorrowingRecords();
 
         assertEquals(2, result.size());
-        assertEquals(1L, result.get(0).getId());
-        assertEquals(LocalDate.now(), result.get(1).getBorrowDate());
+        assertEquals(1L, result.get(0).id());
+        assertEquals(LocalDate.now(), result.get(1).borrowDate());
     }
 
     @Test
@@ -84,22 +129,79 @@ public class BorrowingRecordServiceTest {
         Customer customer = new Customer(1L, "John Doe", "john@example.com", "123 Main St", "0123456789", "password123");
         Book book = new Book(1L, "Book Title", new Author(), "1234567890", LocalDate.now(), "Genre", true);
         BorrowingRecord borrowingRecord = new BorrowingRecord(null, customer, book, LocalDate.now(), LocalDate.now().plusDays(14));
-        when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
+        when(customerRepository.findByIdForShare(1L)).thenReturn(Optional.of(customer));
         when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
-        when(borrowingRecordRepository.save(borrowingRecord)).thenReturn(borrowingRecord);
+        when(borrowingRecordRepository.saveAndFlush(borrowingRecord)).thenReturn(borrowingRecord);
 
         BorrowingRecord result = borrowingRecordService.createBorrowingRecord(borrowingRecord);
 
         assertNotNull(result);
         assertEquals(1L, result.getCustomer().getId());
         assertEquals("Book Title", result.getBook().getTitle());
+        assertFalse(result.getBook().isAvailable());
+        verify(eventPublisher).publishEvent(any(BookUpdateEvent.class));
+        assertArrayEquals(new long[]{1L}, activeLoanIndex.bookIds(1L));
+        assertEquals(1, activeLoanIndex.count(1L));
+    }
+
+    @Test
+    public void testCreateBorrowingRecord_BorrowLimitReached() {
+        Customer customer = new Customer(1L, "John Doe", "john@example.com", "123 Main St", "0123456789", "password123");
+        Book book = new Book(3L, "Book Title", new Author(), "1234567890", LocalDate.now(), "Genre", true);
+        activeLoanIndex.track(1L, 1L);
+        activeLoanIndex.track(1L, 2L);
+        BorrowingRecord borrowingRecord = new BorrowingRecord(null, customer, book, LocalDate.now(), LocalDate.now().plusDays(14));
+        when(customerRepository.findByIdForShare(1L)).thenReturn(Optional.of(customer));
+
+        assertThrows(BorrowLimitExceededException.class, () -> borrowingRecordService.createBorrowingRecord(borrowingRecord));
+        verify(bookRepository, never()).findById(anyLong());
+        assertEquals(2, activeLoanIndex.count(1L));
+    }
+
+    @Test
+    public void testCreateBorrowingRecord_FailedBorrowReleasesSlot() {
+        Customer customer = new Customer(1L, "John Doe", "john@example.com", "123 Main St", "0123456789", "password123");
+        Book book = new Book(1L, "Book Title", new Author(), "1234567890", LocalDate.now(), "Genre", false);
+        BorrowingRecord borrowingRecord = new BorrowingRecord(null, customer, book, LocalDate.now(), LocalDate.now().plusDays(14));
+        when(customerRepository.findByIdForShare(1L)).thenReturn(Optional.of(customer));
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+
+        assertThrows(BookAlreadyBorrowedException.class, () -> borrowingRecordService.createBorrowingRecord(borrowingRecord));
+        assertEquals(0, activeLoanIndex.count(1L));
+    }
+
+    @Test
+    public void testCreateBorrowingRecord_BorrowedInIndex_SkipsBookLoad() {
+        Customer customer = new Customer(1L, "John Doe", "john@example.com", "123 Main St", "0123456789", "password123");
+        Book book = new Book(1L, "Book Title", new Author(), "1234567890", LocalDate.now(), "Genre", true);
+        availabilityIndex.index(1L, "Genre", false);
+        BorrowingRecord borrowingRecord = new BorrowingRecord(null, customer, book, LocalDate.now(), LocalDate.now().plusDays(14));
+        when(customerRepository.findByIdForShare(1L)).thenReturn(Optional.of(customer));
+
+        assertThrows(BookAlreadyBorrowedException.class, () -> borrowingRecordService.createBorrowingRecord(borrowingRecord));
+        verify(bookRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    public void testCreateBorrowingRecord_MarksBookUnavailableInIndex() {
+        Customer customer = new Customer(1L, "John Doe", "john@example.com", "123 Main St", "0123456789", "password123");
+        Book book = new Book(1L, "Book Title", new Author(), "1234567890", LocalDate.now(), "Genre", true);
+        availabilityIndex.index(1L, "Genre", true);
+        BorrowingRecord borrowingRecord = new BorrowingRecord(null, customer, book, LocalDate.now(), LocalDate.now().plusDays(14));
+        when(customerRepository.findByIdForShare(1L)).thenReturn(Optional.of(customer));
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        when(borrowingRecordRepository.saveAndFlush(borrowingRecord)).thenReturn(borrowingRecord);
+
+        borrowingRecordService.createBorrowingRecord(borrowingRecord);
+
+        assertFalse(availabilityIndex.isAvailable(1L));
     }
 
     @Test
     public void testCreateBorrowingRecord_CustomerNotFound() {
         Book book = new Book(1L, "Book Title", new Author(), "1234567890", LocalDate.now(), "Genre", true);
         BorrowingRecord borrowingRecord = new BorrowingRecord(null, new Customer(), book, LocalDate.now(), LocalDate.now().plusDays(14));
-        when(customerRepository.findById(ArgumentMatchers.anyLong())).thenReturn(Optional.empty());
+        when(customerRepository.findByIdForShare(ArgumentMatchers.anyLong())).thenReturn(Optional.empty());
 
         assertThrows(CustomerNotFoundException.class, () -> borrowingRecordService.createBorrowingRecord(borrowingRecord));
     }
@@ -108,7 +210,7 @@ public class BorrowingRecordServiceTest {
     public void testCreateBorrowingRecord_BookNotFound() {
         Customer customer = new Customer(1L, "John Doe", "john@example.com", "123 Main St", "0123456789", "password123");
         BorrowingRecord borrowingRecord = new BorrowingRecord(null, customer, new Book(), LocalDate.now(), LocalDate.now().plusDays(14));
-        when(customerRepository.findById(ArgumentMatchers.anyLong())).thenReturn(Optional.of(customer));
+        when(customerRepository.findByIdForShare(ArgumentMatchers.anyLong())).thenReturn(Optional.of(customer));
         when(bookRepository.findById(ArgumentMatchers.anyLong())).thenReturn(Optional.empty());
 
         assertThrows(BookNotFoundException.class, () -> borrowingRecordService.createBorrowingRecord(borrowingRecord));
@@ -119,7 +221,7 @@ public class BorrowingRecordServiceTest {
         Customer customer = new Customer(1L, "John Doe", "john@example.com", "123 Main St", "0123456789", "password123");
         Book book = new Book(1L, "Book Title", new Author(), "1234567890", LocalDate.now(), "Genre", false);
         BorrowingRecord borrowingRecord = new BorrowingRecord(null, customer, book, LocalDate.now(), LocalDate.now().plusDays(14));
-        when(customerRepository.findById(ArgumentMatchers.anyLong())).thenReturn(Optional.of(customer));
+        when(customerRepository.findByIdForShare(ArgumentMatchers.anyLong())).thenReturn(Optional.of(customer));
         when(bookRepository.findById(ArgumentMatchers.anyLong())).thenReturn(Optional.of(book));
 
         assertThrows(BookAlreadyBorrowedException.class, () -> borrowingRecordService.createBorrowingRecord(borrowingRecord));
@@ -129,13 +231,27 @@ public class BorrowingRecordServiceTest {
     public void testCreateBorrowingRecord_RecordAlreadyExists() {
         Customer customer = new Customer(1L, "John Doe", "john@example.com", "123 Main St", "0123456789", "password123");
         Book book = new Book(1L, "Book Title", new Author(), "1234567890", LocalDate.now(), "Genre", true);
-        BorrowingRecord existingRecord = new BorrowingRecord(1L, customer, book, LocalDate.now(), LocalDate.now().plusDays(14));
         BorrowingRecord newRecord = new BorrowingRecord(null, customer, book, LocalDate.now(), LocalDate.now().plusDays(14));
-        when(customerRepository.findById(ArgumentMatchers.anyLong())).thenReturn(Optional.of(customer));
+        when(customerRepository.findByIdForShare(ArgumentMatchers.anyLong())).thenReturn(Optional.of(customer));
         when(bookRepository.findById(ArgumentMatchers.anyLong())).thenReturn(Optional.of(book));
-        when(borrowingRecordRepository.findByCustomerAndBookAndBorrowDate(customer, book, newRecord.getBorrowDate())).thenReturn(Optional.of(existingRecord));
+        when(borrowingRecordRepository.saveAndFlush(newRecord)).thenThrow(new DataIntegrityViolationException("duplicate",
+                new SQLException("Unique index or primary key violation: \"PUBLIC.UK_BORROWING_RECORD_CUSTOMER_BOOK_DATE_INDEX_A\"")));
 
         assertThrows(BorrowingRecordAlreadyExistsException.class, () -> borrowingRecordService.createBorrowingRecord(newRecord));
+        assertEquals(0, activeLoanIndex.count(1L));
+    }
+
+    @Test
+    public void testCreateBorrowingRecord_OtherIntegrityViolation_Propagates() {
+        Customer customer = new Customer(1L, "John Doe", "john@example.com", "123 Main St", "0123456789", "password123");
+        Book book = new Book(1L, "Book Title", new Author(), "1234567890", LocalDate.now(), "Genre", true);
+        BorrowingRecord newRecord = new BorrowingRecord(null, customer, book, LocalDate.now(), LocalDate.now().plusDays(14));
+        when(customerRepository.findByIdForShare(ArgumentMatchers.anyLong())).thenReturn(Optional.of(customer));
+        when(bookRepository.findById(ArgumentMatchers.anyLong())).thenReturn(Optional.of(book));
+        when(borrowingRecordRepository.saveAndFlush(newRecord)).thenThrow(new DataIntegrityViolationException("fk",
+                new SQLException("Referential integrity constraint violation")));
+
+        assertThrows(DataIntegrityViolationException.class, () -> borrowingRecordService.createBorrowingRecord(newRecord));
     }
 
     @Test
@@ -165,6 +281,7 @@ public class BorrowingRecordServiceTest {
         Book book = new Book(1L, "Book 1", new Author(), "1234567890", LocalDate.of(2020, 1, 1), "genre", true);
 
         BorrowingRecord borrowingRecord = new BorrowingRecord(1L, new Customer(), book, LocalDate.now().minusDays(14), LocalDate.now().minusDays(10));
+        borrowingRecord.setReturnedOn(LocalDate.now().minusDays(11));
         when(borrowingRecordRepository.findById(1L)).thenReturn(Optional.of(borrowingRecord));
         when(borrowingRecordRepository.existsById(1L)).thenReturn(true);
 
@@ -174,6 +291,18 @@ public class BorrowingRecordServiceTest {
         verify(borrowingRecordRepository, times(1)).deleteById(1L);
     }
 
+    @Test
+    public void testDeleteBorrowingRecord_OpenLoanRefused() {
+        Book book = new Book(1L, "Book 1", new Author(), "1234567890", LocalDate.of(2020, 1, 1), "genre", false);
+        BorrowingRecord borrowingRecord = new BorrowingRecord(1L, new Customer(), book, LocalDate.now().minusDays(14), LocalDate.now().minusDays(10));
+        when(borrowingRecordRepository.findById(1L)).thenReturn(Optional.of(borrowingRecord));
+        when(borrowingRecordRepository.existsById(1L)).thenReturn(true);
+
+        assertThrows(IllegalArgumentException.class, () -> borrowingRecordService.deleteBorrowingRecord(1L));
+
+        verify(borrowingRecordRepository, never()).deleteById(1L);
+    }
+
 
     @Test
     public void testDeleteBorrowingRecord_NonExistingId() {
@@ -202,29 +331,281 @@ public class BorrowingRecordServiceTest {
 
     @Test
     public void testFindBorrowingRecordsByUserId() {
-        List<BorrowingRecord> borrowingRecords = new ArrayList<>();
-        borrowingRecords.add(new BorrowingRecord(1L, new Customer(1L, "John Doe", "john@example.com", "123 Main St", "0123456789", "password123"), new Book(), LocalDate.now(), LocalDate.now().plusDays(14)));
-        borrowingRecords.add(new BorrowingRecord(2L, new Customer(1L, "John Doe", "john@example.com", "123 Main St", "0123456789", "password123"), new Book(), LocalDate.now(), LocalDate.now().plusDays(7)));
-        when(borrowingRecordRepository.findByCustomerId(1L)).thenReturn(borrowingRecords);
+        List<BorrowingSummary> borrowingRecords = new ArrayList<>();
+        borrowingRecords.add(new BorrowingSummary(1L, 1L, "John Doe", 1L, "Book 1", "1234567890", LocalDate.now(), LocalDate.now().plusDays(14), null));
+        borrowingRecords.add(new BorrowingSummary(2L, 1L, "John Doe", 2L, "Book 2", "0987654321", LocalDate.now(), LocalDate.now().plusDays(7), null));
+        when(borrowingRecordRepository.findSummariesByCustomerId(1L)).thenReturn(borrowingRecords);
 
-        List<BorrowingRecord> result = borrowingRecordService.findBorrowingRecordsByUserId(1L);
+        List<BorrowingSummary> result = borrowingRecordService.findBorrowingRecordsByUserId(1L);
 
         assertEquals(2, result.size());
-        assertEquals(1L, result.get(0).getId());
-        assertEquals("john@example.com", result.get(1).getCustomer().getEmail());
+        assertEquals(1L, result.get(0).id());
+        assertEquals("John Doe", result.get(1).customer().name());
     }
 
     @Test
     public void testFindBorrowingRecordsByBookId() {
-        List<BorrowingRecord> borrowingRecords = new ArrayList<>();
-        borrowingRecords.add(new BorrowingRecord(1L, new Customer(), new Book(1L, "Book Title", new Author(), "1234567890", LocalDate.now(), "Genre", true), LocalDate.now(), LocalDate.now().plusDays(14)));
-        borrowingRecords.add(new BorrowingRecord(2L, new Customer(), new Book(1L, "Book Title", new Author(), "1234567890", LocalDate.now(), "Genre", true), LocalDate.now(), LocalDate.now().plusDays(7)));
-        when(borrowingRecordRepository.findByBookId(1L)).thenReturn(borrowingRecords);
+        List<BorrowingSummary> borrowingRecords = new ArrayList<>();
+        borrowingRecords.add(new BorrowingSummary(1L, 1L, "John Doe", 1L, "Book Title", "1234567890", LocalDate.now(), LocalDate.now().plusDays(14), null));
+        borrowingRecords.add(new BorrowingSummary(2L, 2L, "Jane Smith", 1L, "Book Title", "1234567890", LocalDate.now(), LocalDate.now().plusDays(7), null));
+        when(borrowingRecordRepository.findSummariesByBookId(1L)).thenReturn(borrowingRecords);
 
-        List<BorrowingRecord> result = borrowingRecordService.findBorrowingRecordsByBookId(1L);
+        List<BorrowingSummary> result = borrowingRecordService.findBorrowingRecordsByBookId(1L);
 
         assertEquals(2, result.size());
-        assertEquals(1L, result.get(0).getId());
-        assertEquals("Book Title", result.get(1).getBook().getTitle());
+        assertEquals(1L, result.get(0).id());
+        assertEquals("Book Title", result.get(1).book().title());
+    }
+
+    @Test
+    public void testFindActiveBorrowingRecordsByBookId_BookFlaggedAvailable() {
+        availabilityIndex.index(1L, "Genre", true);
+        BorrowingSummary open = new BorrowingSummary(1L, 1L, "John Doe", 1L, "Book Title", "1234567890", LocalDate.now(), LocalDate.now().plusDays(14), null);
+        when(borrowingRecordRepository.findOpenSummariesByBookId(1L)).thenReturn(List.of(open));
+
+        List<BorrowingSummary> result = borrowingRecordService.findActiveBorrowingRecordsByBookId(1L);
+
+        assertEquals(List.of(open), result);
+    }
+
+    @Test
+    public void testBorrowBooks_ResolvesEachItem() {
+        Customer customer = new Customer(1L, "John Doe", "john@example.com", "123 Main St", "0123456789", "password123");
+        Book available = new Book(1L, "Available", new Author(), "1", LocalDate.now(), "Genre", true);
+        Book borrowed = new Book(2L, "Borrowed", new Author(), "2", LocalDate.now(), "Genre", false);
+        Book recorded = new Book(4L, "Recorded", new Author(), "4", LocalDate.now(), "Genre", true);
+        when(customerRepository.findByIdForShare(1L)).thenReturn(Optional.of(customer));
+        when(bookRepository.findAllById(ArgumentMatchers.anyCollection())).thenReturn(List.of(available, borrowed, recorded));
+        when(borrowingRecordRepository.findBookIdsByCustomerIdAndBorrowDateAndBookIdIn(eq(1L), eq(LocalDate.now()), ArgumentMatchers.anyCollection()))
+                .thenReturn(List.of(4L));
+        when(borrowingRecordRepository.saveAll(ArgumentMatchers.anyList())).thenAnswer(invocation -> {
+            List<BorrowingRecord> records = invocation.getArgument(0);
+            records.forEach(record -> record.setId(100L + record.getBook().getId()));
+            return records;
+        });
+
+        BatchBorrowResponse response = borrowingRecordService.borrowBooks(
+                new BatchBorrowRequest(1L, List.of(1L, 2L, 3L, 1L, 4L), null, null));
+
+        assertEquals(1, response.borrowed());
+        assertEquals(List.of(
+                new BatchBorrowResult(1L, BatchBorrowResult.Status.BORROWED, 101L),
+                new BatchBorrowResult(2L, BatchBorrowResult.Status.ALREADY_BORROWED, null),
+                new BatchBorrowResult(3L, BatchBorrowResult.Status.BOOK_NOT_FOUND, null),
+                new BatchBorrowResult(1L, BatchBorrowResult.Status.DUPLICATE_IN_REQUEST, null),
+                new BatchBorrowResult(4L, BatchBorrowResult.Status.ALREADY_EXISTS, null)), response.results());
+        assertFalse(available.isAvailable());
+        assertTrue(recorded.isAvailable());
+        verify(bookRepository, never()).findById(anyLong());
+        verify(eventPublisher, times(1)).publishEvent(any(BookUpdateEvent.class));
+    }
+
+    @Test
+    public void testBorrowBooks_StopsAtBorrowLimit() {
+        Customer customer = new Customer(1L, "John Doe", "john@example.com", "123 Main St", "0123456789", "password123");
+        List<Book> books = List.of(
+                new Book(1L, "One", new Author(), "1", LocalDate.now(), "Genre", true),
+                new Book(2L, "Two", new Author(), "2", LocalDate.now(), "Genre", true),
+                new Book(3L, "Three", new Author(), "3", LocalDate.now(), "Genre", true));
+        activeLoanIndex.track(1L, 9L);
+        when(customerRepository.findByIdForShare(1L)).thenReturn(Optional.of(customer));
+        when(bookRepository.findAllById(ArgumentMatchers.anyCollection())).thenReturn(books);
+        when(borrowingRecordRepository.saveAll(ArgumentMatchers.anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        BatchBorrowResponse response = borrowingRecordService.borrowBooks(new BatchBorrowRequest(1L, List.of(1L, 2L, 3L), null, null));
+
+        assertEquals(1, response.borrowed());
+        assertEquals(BatchBorrowResult.Status.BORROW_LIMIT_REACHED, response.results().get(1).status());
+        assertEquals(BatchBorrowResult.Status.BORROW_LIMIT_REACHED, response.results().get(2).status());
+        assertTrue(books.get(1).isAvailable());
+        assertArrayEquals(new long[]{1L, 9L}, activeLoanIndex.bookIds(1L));
+    }
+
+    @Test
+    public void testBorrowBooks_CustomerNotFound() {
+        when(customerRepository.findByIdForShare(1L)).thenReturn(Optional.empty());
+
+        assertThrows(CustomerNotFoundException.class,
+                () -> borrowingRecordService.borrowBooks(new BatchBorrowRequest(1L, List.of(1L), null, null)));
+    }
+
+    @Test
+    public void testBorrowBooks_TooManyBooks() {
+        List<Long> bookIds = new ArrayList<>();
+        for (long i = 0; i <= BorrowingRecordService.MAX_BATCH_SIZE; i++) {
+            bookIds.add(i);
+        }
+
+        assertThrows(IllegalArgumentException.class,
+                () -> borrowingRecordService.borrowBooks(new BatchBorrowRequest(1L, bookIds, null, null)));
+        verifyNoInteractions(customerRepository);
+    }
+
+    @Test
+    public void testReturnBorrowingRecord_OpenLoan() {
+        Book book = new Book();
+        book.setId(1L);
+        BorrowingRecord open = new BorrowingRecord(1L, new Customer(), book, LocalDate.now().minusDays(20), LocalDate.now().plusDays(1));
+        BorrowingRecord closed = new BorrowingRecord(1L, new Customer(), book, open.getBorrowDate(), open.getReturnDate());
+        closed.setReturnedOn(LocalDate.now());
+        when(borrowingRecordRepository.findById(1L)).thenReturn(Optional.of(open), Optional.of(closed));
+        when(borrowingRecordRepository.findOpenLoanById(1L))
+                .thenReturn(Optional.of(new OpenLoan(1L, 1L, 7L, open.getReturnDate())));
+        when(borrowingRecordRepository.closeOpenLoan(1L, LocalDate.now())).thenReturn(1);
+        activeLoanIndex.track(7L, 1L);
+        availabilityIndex.index(1L, "Fiction", false);
+
+        Optional<BorrowingRecord> result = borrowingRecordService.returnBorrowingRecord(1L, null);
+
+        assertTrue(result.isPresent());
+        assertEquals(LocalDate.now(), result.get().getReturnedOn());
+        verify(borrowingRecordRepository, times(1)).closeOpenLoan(1L, LocalDate.now());
+        verify(borrowingRecordRepository, never()).closeOpenLoans(anyCollection(), any());
+        verify(bookRepository, times(1)).markAvailable(List.of(1L));
+        verify(eventPublisher, times(1)).publishEvent(any(BooksReturnedEvent.class));
+        assertTrue(availabilityIndex.isAvailable(1L));
+        assertEquals(0, activeLoanIndex.count(7L));
+    }
+
+    @Test
+    public void testReturnBorrowingRecord_OtherLoanOfBookStillOpen() {
+        Book book = new Book();
+        book.setId(1L);
+        BorrowingRecord open = new BorrowingRecord(1L, new Customer(), book, LocalDate.now().minusDays(3), LocalDate.now().plusDays(11));
+        when(borrowingRecordRepository.findById(1L)).thenReturn(Optional.of(open));
+        when(borrowingRecordRepository.findOpenLoanById(1L))
+                .thenReturn(Optional.of(new OpenLoan(1L, 1L, 7L, open.getReturnDate())));
+        when(borrowingRecordRepository.closeOpenLoan(1L, LocalDate.now())).thenReturn(1);
+        when(borrowingRecordRepository.existsByBookIdAndReturnedOnIsNull(1L)).thenReturn(true);
+        activeLoanIndex.track(7L, 1L);
+        activeLoanIndex.track(8L, 1L);
+        availabilityIndex.index(1L, "Fiction", false);
+        holdQueues.enqueue(new HoldEntry(100L, 1L, 9L));
+
+        borrowingRecordService.returnBorrowingRecord(1L, null);
+
+        verify(borrowingRecordRepository, never()).closeOpenLoans(anyCollection(), any());
+        verify(bookRepository, never()).markAvailable(anyCollection());
+        verify(borrowingRecordRepository, never()).saveAll(ArgumentMatchers.anyList());
+        assertFalse(availabilityIndex.isAvailable(1L));
+        assertEquals(0, activeLoanIndex.count(7L));
+        assertEquals(1, activeLoanIndex.count(8L));
+        assertTrue(holdQueues.hasHolds(1L));
+    }
+
+    @Test
+    public void testReturnBorrowingRecord_AlreadyReturned() {
+        BorrowingRecord record = new BorrowingRecord(1L, new Customer(), new Book(), LocalDate.now(), LocalDate.now().plusDays(14));
+        record.setReturnedOn(LocalDate.now());
+        when(borrowingRecordRepository.findById(1L)).thenReturn(Optional.of(record));
+
+        assertThrows(LoanAlreadyReturnedException.class, () -> borrowingRecordService.returnBorrowingRecord(1L, null));
+        verify(borrowingRecordRepository, never()).closeOpenLoan(any(), any());
+        verify(borrowingRecordRepository, never()).closeOpenLoans(anyCollection(), any());
+    }
+
+    @Test
+    public void testReturnBorrowingRecord_NonExistingId() {
+        when(borrowingRecordRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertFalse(borrowingRecordService.returnBorrowingRecord(1L, null).isPresent());
+    }
+
+    @Test
+    public void testReturnBooks_ReportsBooksNotOnLoan() {
+        when(borrowingRecordRepository.findOpenLoansByBookIdIn(List.of(1L, 2L, 3L))).thenReturn(List.of(
+                new OpenLoan(10L, 1L, 7L, LocalDate.now()), new OpenLoan(30L, 3L, 8L, LocalDate.now())));
+
+        BatchReturnResponse response = borrowingRecordService.returnBooks(new BatchReturnRequest(List.of(1L, 2L, 3L, 1L), null));
+
+        assertEquals(2, response.returned());
+        assertEquals(List.of(2L), response.notOnLoan());
+        verify(borrowingRecordRepository, times(1)).closeOpenLoans(List.of(1L, 3L), LocalDate.now());
+        verify(bookRepository, times(1)).markAvailable(List.of(1L, 3L));
+        verify(eventPublisher, times(1)).publishEvent(any(BooksReturnedEvent.class));
+    }
+
+    @Test
+    public void testReturnBooks_PromotesOldestEligibleHold() {
+        when(borrowingRecordRepository.findOpenLoansByBookIdIn(List.of(1L, 2L))).thenReturn(List.of(
+                new OpenLoan(10L, 1L, 7L, LocalDate.now()), new OpenLoan(20L, 2L, 7L, LocalDate.now())));
+        activeLoanIndex.track(8L, 50L);
+        activeLoanIndex.track(8L, 51L);
+        holdQueues.enqueue(new HoldEntry(100L, 1L, 8L));
+        holdQueues.enqueue(new HoldEntry(101L, 1L, 9L));
+        Customer customer = new Customer(9L, "Jane Doe", "jane@example.com", "1 Main St", "01012345678", "password123");
+        Book book = new Book(1L, "Held", new Author(), "1", LocalDate.now(), "Genre", false);
+        when(customerRepository.getReferenceById(9L)).thenReturn(customer);
+        when(bookRepository.getReferenceById(1L)).thenReturn(book);
+        when(borrowingRecordRepository.saveAll(ArgumentMatchers.anyList())).thenAnswer(invocation -> {
+            List<BorrowingRecord> records = invocation.getArgument(0);
+            records.forEach(record -> record.setId(30L));
+            return records;
+        });
+
+        BatchReturnResponse response = borrowingRecordService.returnBooks(new BatchReturnRequest(List.of(1L, 2L), null));
+
+        assertEquals(2, response.returned());
+        verify(bookRepository, times(1)).markAvailable(List.of(2L));
+        verify(holdRepository, times(1)).deleteAllByIdInBatch(List.of(101L));
+        verify(eventPublisher, times(1)).publishEvent(any(HoldsPromotedEvent.class));
+        assertEquals(List.of(new HoldEntry(100L, 1L, 8L)), holdQueues.queue(1L));
+        assertArrayEquals(new long[]{1L}, activeLoanIndex.bookIds(9L));
+        assertEquals(1, overdueLoanIndex.size());
+    }
+
+    @Test
+    public void testReturnBooks_SkipsHoldOfCustomerWhoBorrowedTheBookToday() {
+        when(borrowingRecordRepository.findOpenLoansByBookIdIn(List.of(1L))).thenReturn(List.of(
+                new OpenLoan(10L, 1L, 7L, LocalDate.now())));
+        when(borrowingRecordRepository.findLoanKeysByBorrowDateAndBookIdIn(LocalDate.now(), List.of(1L)))
+                .thenReturn(List.of(new LoanKey(1L, 8L), new LoanKey(1L, 7L)));
+        holdQueues.enqueue(new HoldEntry(100L, 1L, 8L));
+        holdQueues.enqueue(new HoldEntry(101L, 1L, 9L));
+        when(customerRepository.getReferenceById(9L)).thenReturn(new Customer());
+        when(bookRepository.getReferenceById(1L)).thenReturn(new Book());
+        when(borrowingRecordRepository.saveAll(ArgumentMatchers.anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        borrowingRecordService.returnBooks(new BatchReturnRequest(List.of(1L), null));
+
+        verify(holdRepository, times(1)).deleteAllByIdInBatch(List.of(101L));
+        verify(bookRepository, never()).markAvailable(anyCollection());
+        assertEquals(List.of(new HoldEntry(100L, 1L, 8L)), holdQueues.queue(1L));
+        assertEquals(0, activeLoanIndex.count(8L));
+    }
+
+    @Test
+    public void testCreateBorrowingRecord_FulfilsOwnHold() {
+        Customer customer = new Customer(1L, "John Doe", "john@example.com", "123 Main St", "0123456789", "password123");
+        Book book = new Book(1L, "Book Title", new Author(), "1234567890", LocalDate.now(), "Genre", true);
+        holdQueues.enqueue(new HoldEntry(100L, 1L, 1L));
+        BorrowingRecord borrowingRecord = new BorrowingRecord(null, customer, book, LocalDate.now(), LocalDate.now().plusDays(14));
+        when(customerRepository.findByIdForShare(1L)).thenReturn(Optional.of(customer));
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        when(borrowingRecordRepository.saveAndFlush(borrowingRecord)).thenReturn(borrowingRecord);
+
+        borrowingRecordService.createBorrowingRecord(borrowingRecord);
+
+        verify(holdRepository, times(1)).deleteById(100L);
+        assertFalse(holdQueues.hasHolds(1L));
+    }
+
+    @Test
+    public void testFindActiveBorrowingRecordsByUserId_NoLoansSkipsQuery() {
+        assertTrue(borrowingRecordService.findActiveBorrowingRecordsByUserId(1L).isEmpty());
+        verifyNoInteractions(borrowingRecordRepository);
+
+        activeLoanIndex.track(1L, 5L);
+        BorrowingSummary open = new BorrowingSummary(1L, 1L, "John Doe", 5L, "Book 5", "1234567890", LocalDate.now(), LocalDate.now().plusDays(14), null);
+        when(borrowingRecordRepository.findOpenSummariesByCustomerId(1L)).thenReturn(List.of(open));
+
+        assertEquals(List.of(open), borrowingRecordService.findActiveBorrowingRecordsByUserId(1L));
+    }
+
+    @Test
+    public void testReturnBooks_FutureDate() {
+        assertThrows(IllegalArgumentException.class,
+                () -> borrowingRecordService.returnBooks(new BatchReturnRequest(List.of(1L), LocalDate.now().plusDays(1))));
+        verifyNoInteractions(borrowingRecordRepository);
     }
 }
@@ -0,0 +1,86 @@
+package com.example.library.service;
+
+import com.example.library.model.Author;
+import com.example.library.model.Book;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to insert 100k books through {@link BulkWriter} with the pooled sequence ids the entities use now, against the
+ * former IDENTITY columns ({@code identity-ids.orm.xml}), which make Hibernate send every insert on its own.
+ * Inserts per second are 100,000,000 divided by the score. Run with
+ * {@code ./mvnw -Pbenchmark test -DskipTests -Dbenchmark=BulkInsertBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class BulkInsertBenchmark {
+
+    private static final int BOOKS = 100_000;
+
+    @Param({"IDENTITY", "SEQUENCE"})
+    private String ids;
+
+    private SessionFactory sessionFactory;
+    private List<Book> books;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        Configuration configuration = new Configuration()
+                .addAnnotatedClass(Author.class)
+                .addAnnotatedClass(Book.class)
+                .setProperty(AvailableSettings.JAKARTA_JDBC_URL, "jdbc:h2:mem:bulk-insert-" + ids + ";DB_CLOSE_DELAY=-1")
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .setProperty(AvailableSettings.STATEMENT_BATCH_SIZE, "50")
+                .setProperty(AvailableSettings.ORDER_INSERTS, "true");
+        if (ids.equals("IDENTITY")) {
+            configuration.addResource("identity-ids.orm.xml");
+        }
+        sessionFactory = configuration.buildSessionFactory();
+        books = new ArrayList<>(BOOKS);
+        for (int i = 0; i < BOOKS; i++) {
+            books.add(new Book(null, "Catalogue entry " + i, null, "978-" + i, LocalDate.of(2000, 1, 1), "Catalogue", true));
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public List<Book> insertBooks() {
+        EntityManager entityManager = sessionFactory.createEntityManager();
+        try {
+            entityManager.getTransaction().begin();
+            List<Book> inserted = new BulkWriter(entityManager, 50).persistAll(books);
+            entityManager.getTransaction().commit();
+            return inserted;
+        } finally {
+            entityManager.close();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.library.service;
+
+import com.example.library.model.Book;
+import com.example.library.repository.BookRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class BulkWriterTest {
+
+    @Autowired
+    private BulkWriter bulkWriter;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Test
+    public void testPersistAll_AssignsSequenceIdsAndInsertsEveryRow() {
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            books.add(new Book(null, "Bulk " + i, null, "666-" + i, LocalDate.of(2020, 1, 1), "Bulk", true));
+        }
+
+        bulkWriter.persistAll(books);
+
+        List<Long> ids = books.stream().map(Book::getId).toList();
+        assertFalse(ids.contains(null));
+        assertEquals(120, new HashSet<>(ids).size());
+        assertEquals(120, bookRepository.findAllById(ids).size());
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.library.service;
+
+import com.example.library.config.StreamProperties;
+import com.example.library.dto.ChangeEvent;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ChangeStreamTest {
+
+    private static final ChangeEvent EVENT = new ChangeEvent(ChangeEvent.Type.AVAILABILITY, 1L, null, null, true, Instant.now());
+
+    @Test
+    public void testPublish_DropsSubscriberThatFallsBehind() {
+        ExecutorService stalled = mock(ExecutorService.class);
+        ChangeStream changeStream = new ChangeStream(new StreamProperties(2, 1, Duration.ofMinutes(1)), stalled);
+        changeStream.subscribe();
+
+        changeStream.publish(EVENT);
+        changeStream.publish(EVENT);
+        assertEquals(1, changeStream.subscriberCount());
+
+        changeStream.publish(EVENT);
+        assertEquals(0, changeStream.subscriberCount());
+        verify(stalled, times(1)).execute(any(Runnable.class));
+    }
+
+    @Test
+    public void testPublish_DrainsBufferForLiveSubscriber() {
+        ExecutorService direct = mock(ExecutorService.class);
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(direct).execute(any(Runnable.class));
+        ChangeStream changeStream = new ChangeStream(new StreamProperties(2, 1, Duration.ofMinutes(1)), direct);
+        changeStream.subscribe();
+
+        for (int i = 0; i < 100; i++) {
+            changeStream.publish(EVENT);
+        }
+
+        assertEquals(1, changeStream.subscriberCount());
+        verify(direct, times(100)).execute(any(Runnable.class));
+        changeStream.destroy();
+        assertEquals(0, changeStream.subscriberCount());
+    }
+}
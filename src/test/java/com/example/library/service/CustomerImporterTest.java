@@ -0,0 +1,127 @@
+package com.example.library.service;
+
+import com.example.library.dto.CustomerImportError;
+import com.example.library.dto.CustomerImportReport;
+import com.example.library.model.Customer;
+import com.example.library.repository.CustomerRepository;
+import org.junit.jupiter.api.Test;
+import org.mindrot.jbcrypt.BCrypt;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest(properties = {"library.import.batch-size=2", "library.import.max-reported-errors=3", "library.password.cost=4"})
+public class CustomerImporterTest {
+
+    @Autowired
+    private CustomerImporter customerImporter;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @SpyBean
+    private PasswordHasher passwordHasher;
+
+    @Test
+    public void testImportCsv_ImportsValidRowsAndReportsTheRest() throws IOException {
+        customerService.createCustomer(new Customer(null, "Existing", "existing@school.example", "1 Main St", "01012345678", "password123"));
+        String csv = """
+                name,email,address,phoneNumber,password
+                Ada Lovelace,ada@school.example,"1 Analytical Way, London",01012345671,secret1
+                Bad Phone,phone@school.example,,0999,secret2
+                Existing Again,existing@school.example,,01012345672,secret3
+
+                Ada Twice,ada@school.example,,01012345673,secret4
+                "Grace ""Amazing"" Hopper",grace@school.example,,01512345674,secret5
+                Too,Many,Fields,Here,x,y
+                """;
+
+        CustomerImportReport report = customerImporter.importCustomers(stream(csv), CustomerImporter.Format.CSV);
+
+        assertEquals(2, report.imported());
+        assertEquals(4, report.rejected());
+        assertTrue(report.errorsTruncated());
+        List<CustomerImportError> errors = report.errors();
+        assertEquals(3, errors.get(0).line());
+        assertTrue(errors.get(0).message().startsWith("phoneNumber: "));
+        assertEquals("existing@school.example", errors.get(1).email());
+        assertEquals("Email must be unique", errors.get(1).message());
+        assertEquals(6, errors.get(2).line());
+        assertEquals("Email must be unique", errors.get(2).message());
+
+        Customer ada = customerRepository.findAll().stream()
+                .filter(customer -> customer.getEmail().equals("ada@school.example")).findFirst().orElseThrow();
+        assertEquals("1 Analytical Way, London", ada.getAddress());
+        assertTrue(BCrypt.checkpw("secret1", ada.getPassword()));
+        assertTrue(customerRepository.findAll().stream().anyMatch(customer -> customer.getName().equals("Grace \"Amazing\" Hopper")));
+    }
+
+    @Test
+    public void testImportNdjson_ReportsMalformedAndDuplicateRows() throws IOException {
+        String ndjson = """
+                {"name": "Alan Turing", "email": "alan@school.example", "phoneNumber": "01112345670", "password": "enigma"}
+                {"name": "Alan Again", "email": "alan@school.example", "password": "enigma"}
+                {"name": "Broken",
+                {"name": "No Password", "email": "nopass@school.example"}
+                """;
+
+        CustomerImportReport report = customerImporter.importCustomers(stream(ndjson), CustomerImporter.Format.NDJSON);
+
+        assertEquals(1, report.imported());
+        assertEquals(3, report.rejected());
+        assertEquals("Duplicate email in the file", report.errors().get(0).message());
+        assertEquals(3, report.errors().get(1).line());
+        assertTrue(report.errors().get(1).message().startsWith("Malformed JSON"));
+    }
+
+    @Test
+    public void testImportCsv_EmailRegisteredDuringImport_InsertsRowByRow() throws IOException {
+        // registers one of the batch's emails after the pre-check has passed it, just before the batch insert
+        doAnswer(invocation -> {
+            customerRepository.save(new Customer(null, "Faster", "race@school.example", "2 Main St", "01012345675", "password123"));
+            return invocation.callRealMethod();
+        }).when(passwordHasher).hashAll(anyList());
+        String csv = """
+                name,email,address,phoneNumber,password
+                Slower,race@school.example,,01012345676,secret6
+                Bystander,bystander@school.example,,01012345677,secret7
+                """;
+
+        CustomerImportReport report = customerImporter.importCustomers(stream(csv), CustomerImporter.Format.CSV);
+
+        assertEquals(1, report.imported());
+        assertEquals(1, report.rejected());
+        assertEquals("race@school.example", report.errors().get(0).email());
+        assertEquals("Email must be unique", report.errors().get(0).message());
+        assertTrue(customerRepository.existsByEmail("bystander@school.example"));
+    }
+
+    @Test
+    public void testImportCsv_UnknownColumn_Rejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> customerImporter.importCustomers(stream("name,email,password,shoeSize\n"), CustomerImporter.Format.CSV));
+    }
+
+    @Test
+    public void testSplitCsvLine_HandlesQuotes() {
+        assertEquals(List.of("a", "b, c", "say \"hi\"", ""), CustomerImporter.splitCsvLine("a,\"b, c\",\"say \"\"hi\"\"\","));
+        assertThrows(IllegalArgumentException.class, () -> CustomerImporter.splitCsvLine("\"open"));
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
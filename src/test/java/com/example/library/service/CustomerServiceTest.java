@@ -1,16 +1,23 @@
 package com.example.library.service;
 
+import com.example.library.config.PasswordProperties;
 import com.example.library.event.CustomerDeleteEvent;
+import com.example.library.event.CustomerUpdateEvent;
+import com.example.library.index.EmailBloomFilter;
 import com.example.library.model.Customer;
 import com.example.library.repository.CustomerRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mindrot.jbcrypt.BCrypt;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -26,6 +33,12 @@ public class CustomerServiceTest {
     @Mock
     private ApplicationEventPublisher eventPublisher;
 
+    @Spy
+    private PasswordHasher passwordHasher = new PasswordHasher(new PasswordProperties(4, 1, 4, Duration.ofSeconds(1), 1), new SimpleMeterRegistry());
+
+    @Spy
+    private EmailBloomFilter emailBloomFilter = new EmailBloomFilter(1000, 0.01);
+
     @InjectMocks
     private CustomerService customerService;
 
@@ -39,7 +52,7 @@ public class CustomerServiceTest {
         List<Customer> customers = new ArrayList<>();
         customers.add(new Customer(1L, "John Doe", "john@example.com", "123 Main St", "0123456789", "password123"));
         customers.add(new Customer(2L, "Jane Smith", "jane@example.com", "456 Elm St", "0112345678", "password456"));
-        when(customerRepository.findAll()).thenReturn(customers);
+        when(customerRepository.findAllByPendingDeletionFalseOrderById()).thenReturn(customers);
 
         List<Customer> result = customerService.getAllCustomers();
 
@@ -79,6 +92,10 @@ public class CustomerServiceTest {
         assertNotNull(result);
         assertEquals(1L, result.getId());
         assertEquals("new@example.com", result.getEmail());
+        assertTrue(BCrypt.checkpw("newpassword", inputCustomer.getPassword()));
+        assertTrue(inputCustomer.getPassword().startsWith("$2a$04$"));
+        assertTrue(emailBloomFilter.mightContain("new@example.com"));
+        verify(customerRepository, never()).existsByEmail(anyString());
     }
 
     @Test
@@ -89,6 +106,35 @@ public class CustomerServiceTest {
         assertThrows(IllegalArgumentException.class, () -> customerService.createCustomer(inputCustomer));
     }
 
+    @Test
+    public void testCreateCustomer_KnownEmail_RejectedBeforeHashing() {
+        emailBloomFilter.put("taken@example.com");
+        when(customerRepository.existsByEmail("taken@example.com")).thenReturn(true);
+        Customer inputCustomer = new Customer(null, "New Customer", "taken@example.com", "789 Oak St", "0198765432", "newpassword");
+
+        assertThrows(IllegalArgumentException.class, () -> customerService.createCustomer(inputCustomer));
+
+        verify(passwordHasher, never()).hash(anyString());
+        verify(customerRepository, never()).save(any(Customer.class));
+    }
+
+    @Test
+    public void testIsEmailAvailable_UnseenEmail_SkipsLookup() {
+        assertTrue(customerService.isEmailAvailable("fresh@example.com"));
+
+        verify(customerRepository, never()).existsByEmail(anyString());
+    }
+
+    @Test
+    public void testIsEmailAvailable_SeenEmail_ConfirmedByLookup() {
+        emailBloomFilter.put("deleted@example.com");
+        when(customerRepository.existsByEmail("deleted@example.com")).thenReturn(false);
+
+        assertTrue(customerService.isEmailAvailable("deleted@example.com"));
+
+        verify(customerRepository).existsByEmail("deleted@example.com");
+    }
+
     @Test
     public void testUpdateCustomer_ExistingId_ValidCustomer() {
         Customer updatedCustomer = new Customer(1L, "Updated Customer", "updated@example.com", "789 Oak St", "0198765432", "updatedpassword");
@@ -100,6 +146,7 @@ public class CustomerServiceTest {
         assertTrue(result.isPresent());
         assertEquals("Updated Customer", result.get().getName());
         assertEquals("updated@example.com", result.get().getEmail());
+        verify(eventPublisher).publishEvent(any(CustomerUpdateEvent.class));
     }
 
     @Test
@@ -114,18 +161,31 @@ public class CustomerServiceTest {
     @Test
     public void testDeleteCustomer_ExistingId() {
         Customer customer = new Customer(1L, "John Doe", "john@example.com", "123 Main St", "0123456789", "password123");
-        when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
+        when(customerRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(customer));
 
         boolean result = customerService.deleteCustomer(1L);
 
         assertTrue(result);
+        assertTrue(customer.isPendingDeletion());
         verify(eventPublisher, times(1)).publishEvent(any(CustomerDeleteEvent.class));
-        verify(customerRepository, times(1)).delete(customer);
+        verify(customerRepository, never()).delete(customer);
+    }
+
+    @Test
+    public void testDeleteCustomer_AlreadyPendingDeletion() {
+        Customer customer = new Customer(1L, "John Doe", "john@example.com", "123 Main St", "0123456789", "password123");
+        customer.setPendingDeletion(true);
+        when(customerRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(customer));
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
+
+        assertFalse(customerService.deleteCustomer(1L));
+        assertFalse(customerService.getCustomerById(1L).isPresent());
+        verify(eventPublisher, never()).publishEvent(any(CustomerDeleteEvent.class));
     }
 
     @Test
     public void testDeleteCustomer_NonExistingId() {
-        when(customerRepository.findById(2L)).thenReturn(Optional.empty());
+        when(customerRepository.findByIdForUpdate(2L)).thenReturn(Optional.empty());
 
         boolean result = customerService.deleteCustomer(2L);
 
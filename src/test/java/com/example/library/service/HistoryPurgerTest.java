@@ -0,0 +1,179 @@
+package com.example.library.service;
+
+import com.example.library.exception.CustomerNotFoundException;
+import com.example.library.model.Book;
+import com.example.library.model.BorrowingRecord;
+import com.example.library.model.Customer;
+import com.example.library.model.Hold;
+import com.example.library.repository.BookRepository;
+import com.example.library.repository.BorrowingRecordRepository;
+import com.example.library.repository.CustomerRepository;
+import com.example.library.repository.HoldRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "library.purge.chunk-size=3")
+public class HistoryPurgerTest {
+
+    @Autowired
+    private HistoryPurger historyPurger;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BorrowingRecordService borrowingRecordService;
+
+    @Autowired
+    private BorrowingRecordRepository borrowingRecordRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private HoldRepository holdRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    public void testPurgeCustomerHistory_DeletesRecordsInChunksThenCustomer() {
+        Customer customer = transactionTemplate.execute(status -> {
+            Customer saved = customerRepository.save(new Customer(null, "Long Timer", "long.timer@example.com", "1 Main St", "01012345678", "password123"));
+            for (int i = 0; i < 7; i++) {
+                Book book = bookRepository.save(new Book(null, "History " + i, null, "333-" + i, LocalDate.of(2020, 1, 1), "Test", true));
+                borrowingRecordRepository.save(new BorrowingRecord(null, saved, book, LocalDate.now().minusDays(i), LocalDate.now().plusDays(14)));
+            }
+            return saved;
+        });
+        double before = purgedRecords("customer");
+
+        historyPurger.purgeCustomerHistory(customer.getId());
+
+        assertFalse(customerRepository.existsById(customer.getId()));
+        assertTrue(borrowingRecordRepository.findByCustomerId(customer.getId()).isEmpty());
+        assertEquals(7, purgedRecords("customer") - before);
+    }
+
+    @Test
+    public void testPurgeBookHistory_DeletesRecordsAndHoldsThenBook() {
+        Customer customer = customerRepository.save(new Customer(null, "Reader", "purge.reader@example.com", "2 Main St", "01012345679", "password123"));
+        Book book = transactionTemplate.execute(status -> {
+            Customer reader = customerRepository.getReferenceById(customer.getId());
+            Book saved = bookRepository.save(new Book(null, "Well Read", null, "444-1", LocalDate.of(2020, 1, 1), "Test", false));
+            for (int i = 0; i < 4; i++) {
+                borrowingRecordRepository.save(new BorrowingRecord(null, reader, saved, LocalDate.now().minusDays(i), LocalDate.now().plusDays(14)));
+            }
+            holdRepository.save(new Hold(null, reader, saved, LocalDateTime.now()));
+            return saved;
+        });
+
+        historyPurger.purgeBookHistory(book.getId());
+
+        assertFalse(bookRepository.existsById(book.getId()));
+        assertTrue(borrowingRecordRepository.findByBookId(book.getId()).isEmpty());
+        assertTrue(holdRepository.findAll().stream().noneMatch(hold -> hold.getBook().getId().equals(book.getId())));
+        assertTrue(customerRepository.existsById(customer.getId()));
+    }
+
+    @Test
+    public void testDeleteCustomer_ReturnsBeforePurgeAndPurgesInBackground() throws InterruptedException {
+        Customer customer = customerRepository.save(new Customer(null, "Leaving", "leaving@example.com", "3 Main St", "01012345670", "password123"));
+
+        assertTrue(customerService.deleteCustomer(customer.getId()));
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (customerRepository.existsById(customer.getId()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertFalse(customerRepository.existsById(customer.getId()));
+    }
+
+    @Test
+    public void testDeleteCustomer_PendingUntilPurgedThenFreesTheirBooks() throws InterruptedException {
+        Customer customer = customerRepository.save(new Customer(null, "Borrower", "pending.borrower@example.com", "4 Main St", "01012345671", "password123"));
+        Book book = bookRepository.save(new Book(null, "Still Out", null, "555-1", LocalDate.of(2020, 1, 1), "Test", true));
+        borrowingRecordService.createBorrowingRecord(new BorrowingRecord(null, customer, reference(book),
+                LocalDate.now(), LocalDate.now().plusDays(14)));
+        Book other = bookRepository.save(new Book(null, "Not Lent", null, "555-2", LocalDate.of(2020, 1, 1), "Test", true));
+        double completed = completedJobs("customer");
+
+        assertTrue(customerService.deleteCustomer(customer.getId()));
+
+        assertFalse(customerService.deleteCustomer(customer.getId()));
+        assertFalse(customerService.getCustomerById(customer.getId()).isPresent());
+        assertThrows(CustomerNotFoundException.class, () -> borrowingRecordService.createBorrowingRecord(
+                new BorrowingRecord(null, customer, reference(other), LocalDate.now(), LocalDate.now().plusDays(14))));
+        awaitCompleted("customer", completed);
+        assertFalse(customerRepository.existsById(customer.getId()));
+        assertTrue(bookRepository.findById(book.getId()).orElseThrow().isAvailable());
+        assertTrue(borrowingRecordRepository.findByBookId(book.getId()).isEmpty());
+    }
+
+    @Test
+    public void testDeleteBook_HiddenAndNotDeletableAgainWhilePending() {
+        Book book = bookRepository.save(new Book(null, "Withdrawn", null, "666-1", LocalDate.of(2020, 1, 1), "Test", true));
+
+        assertTrue(bookService.deleteBook(book.getId()));
+
+        assertFalse(bookService.deleteBook(book.getId()));
+        assertFalse(bookService.getBookById(book.getId()).isPresent());
+        assertTrue(bookService.getAllBooks().stream().noneMatch(summary -> summary.id().equals(book.getId())));
+    }
+
+    @Test
+    public void testRetryPending_PurgesRowsLeftPendingDeletion() throws InterruptedException {
+        Customer customer = new Customer(null, "Left Behind", "left.behind@example.com", "5 Main St", "01012345672", "password123");
+        customer.setPendingDeletion(true);
+        Long customerId = customerRepository.save(customer).getId();
+        double completed = completedJobs("customer");
+
+        historyPurger.retryPending();
+
+        awaitCompleted("customer", completed);
+        assertFalse(customerRepository.existsById(customerId));
+    }
+
+    private void awaitCompleted(String target, double before) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (completedJobs(target) == before && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+    }
+
+    private double completedJobs(String target) {
+        return meterRegistry.counter("library.purge.jobs", "target", target, "outcome", "completed").count();
+    }
+
+    private static Book reference(Book book) {
+        Book reference = new Book();
+        reference.setId(book.getId());
+        return reference;
+    }
+
+    private double purgedRecords(String target) {
+        return meterRegistry.counter("library.purge.records", "target", target).count();
+    }
+}
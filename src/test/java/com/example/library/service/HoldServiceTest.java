@@ -0,0 +1,120 @@
+package com.example.library.service;
+
+import com.example.library.exception.HoldAlreadyExistsException;
+import com.example.library.index.ActiveLoanIndex;
+import com.example.library.index.HoldEntry;
+import com.example.library.index.HoldQueues;
+import com.example.library.model.Author;
+import com.example.library.model.Book;
+import com.example.library.model.Customer;
+import com.example.library.model.Hold;
+import com.example.library.repository.BookRepository;
+import com.example.library.repository.CustomerRepository;
+import com.example.library.repository.HoldRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class HoldServiceTest {
+
+    @Mock
+    private HoldRepository holdRepository;
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Spy
+    private HoldQueues holdQueues = new HoldQueues();
+
+    @Spy
+    private ActiveLoanIndex activeLoanIndex = new ActiveLoanIndex();
+
+    @Mock
+    private BorrowingRecordService borrowingRecordService;
+
+    @InjectMocks
+    private HoldService holdService;
+
+    private final Customer customer = new Customer(1L, "John Doe", "john@example.com", "123 Main St", "01012345678", "password123");
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+        when(borrowingRecordService.withBookLock(anyLong(), ArgumentMatchers.<Supplier<Object>>any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+        when(customerRepository.findByIdForShare(1L)).thenReturn(Optional.of(customer));
+    }
+
+    @Test
+    public void testPlaceHold_QueuesBorrowedBook() {
+        Book book = new Book(5L, "Borrowed", new Author(), "1", LocalDate.now(), "Genre", false);
+        when(bookRepository.findById(5L)).thenReturn(Optional.of(book));
+        when(holdRepository.save(any(Hold.class))).thenAnswer(invocation -> {
+            Hold hold = invocation.getArgument(0);
+            hold.setId(100L);
+            return hold;
+        });
+
+        Hold hold = holdService.placeHold(1L, 5L);
+
+        assertEquals(100L, hold.getId());
+        assertEquals(List.of(new HoldEntry(100L, 5L, 1L)), holdService.getHolds(5L));
+    }
+
+    @Test
+    public void testPlaceHold_AvailableBook() {
+        Book book = new Book(5L, "Available", new Author(), "1", LocalDate.now(), "Genre", true);
+        when(bookRepository.findById(5L)).thenReturn(Optional.of(book));
+
+        assertThrows(IllegalArgumentException.class, () -> holdService.placeHold(1L, 5L));
+        verify(holdRepository, never()).save(any());
+    }
+
+    @Test
+    public void testPlaceHold_Duplicate() {
+        Book book = new Book(5L, "Borrowed", new Author(), "1", LocalDate.now(), "Genre", false);
+        when(bookRepository.findById(5L)).thenReturn(Optional.of(book));
+        holdQueues.enqueue(new HoldEntry(100L, 5L, 1L));
+
+        assertThrows(HoldAlreadyExistsException.class, () -> holdService.placeHold(1L, 5L));
+    }
+
+    @Test
+    public void testPlaceHold_BookAlreadyOnLoanToCustomer() {
+        Book book = new Book(5L, "Borrowed", new Author(), "1", LocalDate.now(), "Genre", false);
+        when(bookRepository.findById(5L)).thenReturn(Optional.of(book));
+        activeLoanIndex.track(1L, 5L);
+
+        assertThrows(IllegalArgumentException.class, () -> holdService.placeHold(1L, 5L));
+    }
+
+    @Test
+    public void testCancelHold() {
+        Book book = new Book(5L, "Borrowed", new Author(), "1", LocalDate.now(), "Genre", false);
+        Hold hold = new Hold(100L, customer, book, LocalDateTime.now());
+        holdQueues.enqueue(new HoldEntry(100L, 5L, 1L));
+        when(holdRepository.findById(100L)).thenReturn(Optional.of(hold));
+        when(holdRepository.existsById(100L)).thenReturn(true);
+
+        assertTrue(holdService.cancelHold(100L));
+        assertFalse(holdService.cancelHold(101L));
+        verify(holdRepository, times(1)).deleteById(100L);
+        assertFalse(holdQueues.hasHolds(5L));
+    }
+}
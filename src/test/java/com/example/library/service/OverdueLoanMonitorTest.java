@@ -0,0 +1,63 @@
+package com.example.library.service;
+
+import com.example.library.dto.OverdueLoan;
+import com.example.library.event.LoansOverdueEvent;
+import com.example.library.index.OpenLoan;
+import com.example.library.index.OverdueLoanIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class OverdueLoanMonitorTest {
+
+    @Spy
+    private OverdueLoanIndex overdueLoanIndex = new OverdueLoanIndex();
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private OverdueLoanMonitor overdueLoanMonitor;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+    }
+
+    @Test
+    public void testGetOverdueLoans_ComputesDaysOverdue() {
+        LocalDate today = LocalDate.now();
+        overdueLoanIndex.add(new OpenLoan(1L, 11L, 100L, today.minusDays(3)));
+        overdueLoanIndex.add(new OpenLoan(2L, 12L, 100L, today));
+
+        List<OverdueLoan> overdue = overdueLoanMonitor.getOverdueLoans();
+
+        assertEquals(List.of(new OverdueLoan(1L, 11L, 100L, today.minusDays(3), 3)), overdue);
+    }
+
+    @Test
+    public void testAnnounceOverdue_OnlyLoansThatJustBecameOverdue() {
+        LocalDate today = LocalDate.now();
+        overdueLoanIndex.add(new OpenLoan(1L, 11L, 100L, today.minusDays(3)));
+        overdueLoanIndex.add(new OpenLoan(2L, 12L, 100L, today));
+        overdueLoanIndex.add(new OpenLoan(3L, 13L, 100L, today.plusDays(1)));
+
+        assertTrue(overdueLoanMonitor.announceOverdue(today).isEmpty());
+        List<OverdueLoan> announced = overdueLoanMonitor.announceOverdue(today.plusDays(1));
+        List<OverdueLoan> again = overdueLoanMonitor.announceOverdue(today.plusDays(1));
+
+        assertEquals(List.of(2L), announced.stream().map(OverdueLoan::borrowingRecordId).toList());
+        assertTrue(again.isEmpty());
+        verify(eventPublisher, times(1)).publishEvent(any(LoansOverdueEvent.class));
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.library.service;
+
+import com.example.library.config.PasswordProperties;
+import com.example.library.exception.ServerBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PasswordHasherTest {
+
+    private final PasswordProperties properties = new PasswordProperties(4, 1, 1, Duration.ofSeconds(2), 1);
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1));
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PasswordHasher passwordHasher = new PasswordHasher(properties, meterRegistry, executor);
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testHash_UsesConfiguredCost() {
+        String hash = passwordHasher.hash("secret");
+
+        assertTrue(hash.startsWith("$2a$04$"));
+        assertTrue(BCrypt.checkpw("secret", hash));
+    }
+
+    @Test
+    public void testHash_PoolSaturated_RejectsWithRetryAfter() {
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> awaitQuietly(release));
+        executor.execute(() -> { });
+
+        ServerBusyException e = assertThrows(ServerBusyException.class, () -> passwordHasher.hash("secret"));
+
+        assertEquals(Duration.ofSeconds(2), e.getRetryAfter());
+        assertEquals(1.0, meterRegistry.counter("library.password.hash.rejected").count());
+        release.countDown();
+    }
+
+    @Test
+    public void testConstructor_CostOutOfRange_Rejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new PasswordHasher(new PasswordProperties(3, 1, 1, Duration.ofSeconds(1), 1), meterRegistry, executor));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
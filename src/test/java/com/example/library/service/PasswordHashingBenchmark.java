@@ -0,0 +1,37 @@
+package com.example.library.service;
+
+import org.mindrot.jbcrypt.BCrypt;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hashes per second of one thread at each BCrypt cost, for sizing {@code library.password.cost} against
+ * {@code library.password.threads}: a pool of n threads sustains roughly n times this many signups per second.
+ * Run with {@code ./mvnw -Pbenchmark test -DskipTests -Dbenchmark=PasswordHashingBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class PasswordHashingBenchmark {
+
+    @Param({"8", "10", "12"})
+    private int cost;
+
+    @Benchmark
+    public String hash() {
+        return BCrypt.hashpw("correct horse battery staple", BCrypt.gensalt(cost));
+    }
+}